@@ -0,0 +1,67 @@
+package com.github.xuchen93.springboot.framework.base.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+
+/**
+ * 有长度上限的JSON序列化，用于日志中的入参、出参
+ * <p>序列化直接写入线程复用的缓冲区，达到上限即停止并追加截断标记，不会为大对象生成完整的JSON字符串。
+ * {@link #lazy(Object)}返回的对象只在日志真正输出、调用toString时才序列化
+ * <p>maxLength小于等于0时单次输出不限长度，但线程保留的缓冲区仍不超过{@link BoundedJsonWriter#MAX_RETAINED_CAPACITY}
+ */
+public class BoundedJson {
+	/**
+	 * 截断标记
+	 */
+	public static final String TRUNCATED_MARKER = "...(已截断)";
+
+	private final ObjectMapper objectMapper;
+	private final ThreadLocal<BoundedJsonWriter> writerHolder;
+
+	/**
+	 * @param maxLength 最大字符数，小于等于0时不限制
+	 */
+	public BoundedJson(ObjectMapper objectMapper, int maxLength) {
+		this.objectMapper = objectMapper;
+		this.writerHolder = ThreadLocal.withInitial(() -> new BoundedJsonWriter(maxLength));
+	}
+
+	public String render(Object value) {
+		BoundedJsonWriter writer = writerHolder.get();
+		writer.reset();
+		try {
+			try {
+				objectMapper.writeValue(writer, value);
+			} catch (IOException e) {
+				if (!writer.isTruncated()) {
+					return "序列化失败：" + e.getMessage();
+				}
+			}
+			return writer.isTruncated() ? writer + TRUNCATED_MARKER : writer.toString();
+		} finally {
+			// 用完即释放超限的缓冲区，不等到下次使用
+			writer.reset();
+		}
+	}
+
+	/**
+	 * 作为日志参数使用，未输出的日志不会序列化
+	 */
+	public Object lazy(Object value) {
+		return new LazyJson(value);
+	}
+
+	private class LazyJson {
+		private final Object value;
+
+		private LazyJson(Object value) {
+			this.value = value;
+		}
+
+		@Override
+		public String toString() {
+			return render(value);
+		}
+	}
+}
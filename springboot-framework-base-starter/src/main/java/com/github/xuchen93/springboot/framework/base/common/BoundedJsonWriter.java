@@ -0,0 +1,125 @@
+package com.github.xuchen93.springboot.framework.base.common;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * 有长度上限的Writer，写入可复用的字符数组
+ * <p>超过上限时保留上限以内的内容并抛出一次{@link IOException}中断序列化，之后的写入直接忽略
+ * <p>复用时最多保留{@link #MAX_RETAINED_CAPACITY}个字符的缓冲区，偶尔的大对象不会让线程一直持有大数组
+ */
+public class BoundedJsonWriter extends Writer {
+
+	/**
+	 * reset时缓冲区超过该容量则丢弃，重新分配初始大小的缓冲区
+	 */
+	public static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+	private static final int INITIAL_CAPACITY = 256;
+
+	private final int maxLength;
+	private char[] buffer;
+	private int size;
+	private boolean truncated;
+
+	/**
+	 * @param maxLength 最大字符数，小于等于0时不限制
+	 */
+	public BoundedJsonWriter(int maxLength) {
+		this.maxLength = maxLength > 0 ? maxLength : Integer.MAX_VALUE - 8;
+		this.buffer = new char[Math.min(this.maxLength, INITIAL_CAPACITY)];
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		if (truncated) {
+			return;
+		}
+		int count = ensureCapacity(len);
+		System.arraycopy(cbuf, off, buffer, size, count);
+		size += count;
+		if (count < len) {
+			truncate();
+		}
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		if (truncated) {
+			return;
+		}
+		int count = ensureCapacity(len);
+		str.getChars(off, off + count, buffer, size);
+		size += count;
+		if (count < len) {
+			truncate();
+		}
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		if (truncated) {
+			return;
+		}
+		if (ensureCapacity(1) == 0) {
+			truncate();
+		}
+		buffer[size++] = (char) c;
+	}
+
+	/**
+	 * 扩容，返回本次可写入的字符数
+	 */
+	private int ensureCapacity(int len) {
+		int count = Math.min(len, maxLength - size);
+		if (size + count > buffer.length) {
+			int newLength = (int) Math.min(Math.max((long) buffer.length << 1, size + count), maxLength);
+			buffer = Arrays.copyOf(buffer, newLength);
+		}
+		return count;
+	}
+
+	private void truncate() throws IOException {
+		truncated = true;
+		throw new IOException("超过" + maxLength + "字符，已截断");
+	}
+
+	public boolean isTruncated() {
+		return truncated;
+	}
+
+	/**
+	 * 内部字符数组，有效内容为[0, size)
+	 */
+	public char[] getChars() {
+		return buffer;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * 清空内容以便复用，不超过{@link #MAX_RETAINED_CAPACITY}时保留缓冲区容量
+	 */
+	public void reset() {
+		if (buffer.length > MAX_RETAINED_CAPACITY) {
+			buffer = new char[Math.min(maxLength, INITIAL_CAPACITY)];
+		}
+		size = 0;
+		truncated = false;
+	}
+
+	@Override
+	public void flush() {
+	}
+
+	@Override
+	public void close() {
+	}
+
+	@Override
+	public String toString() {
+		return new String(buffer, 0, size);
+	}
+}
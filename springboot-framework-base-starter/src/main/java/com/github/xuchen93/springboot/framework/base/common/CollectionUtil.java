@@ -1,6 +1,7 @@
 package com.github.xuchen93.springboot.framework.base.common;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 public class CollectionUtil {
 	/**
@@ -15,4 +16,20 @@ public class CollectionUtil {
 		}
 		return minIndex;
 	}
+
+	/**
+	 * 获取数组最小值的索引（无装箱）
+	 */
+	public static int minIndex(AtomicLongArray array) {
+		int minIndex = 0;
+		long min = array.get(0);
+		for (int i = 1; i < array.length(); i++) {
+			long value = array.get(i);
+			if (value < min) {
+				min = value;
+				minIndex = i;
+			}
+		}
+		return minIndex;
+	}
 }
@@ -0,0 +1,121 @@
+package com.github.xuchen93.springboot.framework.base.configuration;
+
+import com.github.xuchen93.springboot.framework.base.convention.enums.MethodStatsType;
+import com.github.xuchen93.springboot.framework.base.properties.BaseProperty;
+import com.github.xuchen93.springboot.framework.base.support.manager.MethodStatsManager;
+import com.github.xuchen93.springboot.framework.base.support.model.MethodStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 将MethodStats发布为Micrometer指标（Prometheus等）
+ * <p>每个统计对象首次注册时绑定一次，指标值在采集时才从MethodStats中读取，记录路径上没有额外开销。
+ * 指标均为启动以来的累计值，不受consume影响：
+ * <ul>
+ *     <li>method.stats.calls{type, uniqueKey, result=success|fail}</li>
+ *     <li>method.stats.cost{type, uniqueKey}：累计耗时(ms)</li>
+ *     <li>method.stats.calls.within{type, uniqueKey, thresholdMillis}：耗时不超过thresholdMillis(ms)的累计次数</li>
+ * </ul>
+ * calls.within是每个阈值各自独立的普通计数器，不是Prometheus的histogram，不能用于histogram_quantile；
+ * 可按阈值计算比例，如 rate(calls.within{thresholdMillis="100"}) / sum(rate(calls))
+ * <p>统计对象长期无记录被{@link MethodStatsManager}移除时，对应的指标一并移除，重新加入时再次绑定
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+@ConditionalOnProperty(prefix = BaseProperty.PROPERTY_PREFIX, name = "method-stats.meter.enable", havingValue = "true")
+public class MethodStatsMeterBinder implements SmartInitializingSingleton, DisposableBean {
+
+	private final BaseProperty baseProperty;
+	private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+	/**
+	 * 已绑定的统计对象 -> 指标，绑定完成前为空列表占位
+	 */
+	private final Map<MethodStats, List<Meter>> boundMeterMap = new ConcurrentHashMap<>();
+	private final AtomicBoolean limitWarned = new AtomicBoolean();
+	private final Consumer<MethodStats> registerListener = this::bind;
+	private final Consumer<MethodStats> evictListener = this::unbind;
+	private MeterRegistry meterRegistry;
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		meterRegistry = meterRegistryProvider.getIfAvailable();
+		if (meterRegistry == null) {
+			log.warn("[xuchen93-framework]未找到MeterRegistry，方法统计不发布到Micrometer");
+			return;
+		}
+		MethodStatsManager.addEvictListener(evictListener);
+		MethodStatsManager.addRegisterListener(registerListener);
+	}
+
+	@Override
+	public void destroy() {
+		MethodStatsManager.removeRegisterListener(registerListener);
+		MethodStatsManager.removeEvictListener(evictListener);
+	}
+
+	private void unbind(MethodStats methodStats) {
+		List<Meter> meters = boundMeterMap.remove(methodStats);
+		if (meters != null) {
+			meters.forEach(meterRegistry::remove);
+		}
+	}
+
+	private void bind(MethodStats methodStats) {
+		BaseProperty.MethodStatsMeter meterConfig = baseProperty.getMethodStats().getMeter();
+		if (!boundMeterMap.containsKey(methodStats) && boundMeterMap.size() >= meterConfig.getMaxUniqueKeys()) {
+			if (limitWarned.compareAndSet(false, true)) {
+				log.warn("[xuchen93-framework]方法统计指标数量已达上限{}，[{}]及之后新增的uniqueKey不再发布", meterConfig.getMaxUniqueKeys(), methodStats.getUniqueKey());
+			}
+			return;
+		}
+		List<Meter> meters = new ArrayList<>();
+		if (boundMeterMap.putIfAbsent(methodStats, meters) != null) {
+			return;
+		}
+		String typeName = Optional.ofNullable(MethodStatsType.getNameByType(methodStats.getType())).orElse(String.valueOf(methodStats.getType()));
+		Tags tags = Tags.of("type", typeName, "uniqueKey", methodStats.getUniqueKey());
+		meters.add(FunctionCounter.builder("method.stats.calls", methodStats, MethodStats::getLifetimeSuccessCount)
+				.tags(tags)
+				.tag("result", "success")
+				.description("方法调用次数")
+				.register(meterRegistry));
+		meters.add(FunctionCounter.builder("method.stats.calls", methodStats, MethodStats::getLifetimeFailCount)
+				.tags(tags)
+				.tag("result", "fail")
+				.description("方法调用次数")
+				.register(meterRegistry));
+		meters.add(FunctionCounter.builder("method.stats.cost", methodStats, MethodStats::getLifetimeTotalTime)
+				.tags(tags)
+				.baseUnit("milliseconds")
+				.description("方法累计耗时")
+				.register(meterRegistry));
+		for (long thresholdMillis : meterConfig.getBucketMillis()) {
+			meters.add(FunctionCounter.builder("method.stats.calls.within", methodStats, stats -> stats.getLifetimeCountAtOrBelow(thresholdMillis))
+					.tags(tags)
+					.tag("thresholdMillis", String.valueOf(thresholdMillis))
+					.description("耗时不超过thresholdMillis(ms)的累计次数")
+					.register(meterRegistry));
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package com.github.xuchen93.springboot.framework.base.configuration;
+
+import cn.hutool.core.thread.ThreadUtil;
+import com.github.xuchen93.springboot.framework.base.properties.BaseProperty;
+import com.github.xuchen93.springboot.framework.base.support.manager.MethodStatsManager;
+import com.github.xuchen93.springboot.framework.base.support.model.MethodStats;
+import com.github.xuchen93.springboot.framework.base.support.model.MethodStatsSnapshot;
+import com.github.xuchen93.springboot.framework.base.support.model.SinkStats;
+import com.github.xuchen93.springboot.framework.base.support.sink.MethodStatsSink;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 定时consume方法统计，将快照投递给所有{@link MethodStatsSink}
+ * <p>consume由一个共享的调度线程执行；每个sink有独立的有界队列，由sink线程池异步输出，
+ * 同一个sink同时最多占用一个线程，慢sink只会让自己的队列积压（满时丢弃并计数），不会阻塞记录路径和其他sink。
+ * <p>应用关闭时执行最后一次consume，并在超时时间内等待所有队列输出完成
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = BaseProperty.PROPERTY_PREFIX, name = "method-stats.enable-consume", havingValue = "true")
+public class MethodStatsSinkPipeline implements SmartInitializingSingleton, DisposableBean {
+
+	private final BaseProperty baseProperty;
+	private final List<SinkWorker> workerList;
+	private ScheduledExecutorService scheduler;
+	private ExecutorService sinkExecutor;
+
+	public MethodStatsSinkPipeline(BaseProperty baseProperty, ObjectProvider<MethodStatsSink> sinkProvider) {
+		this.baseProperty = baseProperty;
+		int queueCapacity = baseProperty.getMethodStats().getSink().getQueueCapacity();
+		this.workerList = sinkProvider.orderedStream().map(sink -> new SinkWorker(sink, queueCapacity)).toList();
+	}
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		sinkExecutor = Executors.newFixedThreadPool(Math.max(1, workerList.size()), ThreadUtil.newNamedThreadFactory("method-stats-sink-", true));
+		scheduler = Executors.newSingleThreadScheduledExecutor(ThreadUtil.newNamedThreadFactory("method-stats-consume-", true));
+		long consumeSeconds = baseProperty.getMethodStats().getConsumeSeconds();
+		scheduler.scheduleAtFixedRate(this::consume, consumeSeconds, consumeSeconds, TimeUnit.SECONDS);
+		log.info("[xuchen93-framework]方法统计每{}秒输出到：{}", consumeSeconds, workerList.stream().map(worker -> worker.sink.name()).toList());
+	}
+
+	/**
+	 * consume所有统计数据并投递，只做入队，不等待sink输出
+	 */
+	public void consume() {
+		try {
+			List<MethodStats> statsList = MethodStatsManager.consume();
+			if (statsList.isEmpty()) {
+				return;
+			}
+			MethodStatsSnapshot snapshot = new MethodStatsSnapshot(System.currentTimeMillis(), statsList);
+			workerList.forEach(worker -> worker.offer(snapshot));
+		} catch (Exception e) {
+			log.error("方法统计consume异常", e);
+		}
+	}
+
+	public List<SinkStats> getSinkStatsList() {
+		return workerList.stream().map(SinkWorker::getSinkStats).toList();
+	}
+
+	@Override
+	public void destroy() throws InterruptedException {
+		if (scheduler == null) {
+			return;
+		}
+		scheduler.shutdownNow();
+		consume();
+		sinkExecutor.shutdown();
+		int timeoutSeconds = baseProperty.getMethodStats().getSink().getShutdownTimeoutSeconds();
+		if (!sinkExecutor.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+			sinkExecutor.shutdownNow();
+		}
+		for (SinkWorker worker : workerList) {
+			if (!worker.queue.isEmpty()) {
+				log.warn("[{}]关闭超时，丢弃{}个未输出的方法统计快照", worker.sink.name(), worker.queue.size());
+			}
+			try {
+				worker.sink.close();
+			} catch (Exception e) {
+				log.error("[{}]关闭异常", worker.sink.name(), e);
+			}
+		}
+	}
+
+	private class SinkWorker implements Runnable {
+		private final MethodStatsSink sink;
+		private final BlockingQueue<MethodStatsSnapshot> queue;
+		private final int queueCapacity;
+		private final AtomicBoolean running = new AtomicBoolean();
+		private final AtomicLong publishedCount = new AtomicLong();
+		private final AtomicLong droppedCount = new AtomicLong();
+		private final AtomicLong failedCount = new AtomicLong();
+		private volatile long lastCostTime;
+
+		private SinkWorker(MethodStatsSink sink, int queueCapacity) {
+			this.sink = sink;
+			this.queueCapacity = queueCapacity;
+			this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		}
+
+		private void offer(MethodStatsSnapshot snapshot) {
+			if (!queue.offer(snapshot)) {
+				droppedCount.incrementAndGet();
+				log.warn("[{}]输出积压，队列已满({})，丢弃本次方法统计快照", sink.name(), queueCapacity);
+			}
+			schedule();
+		}
+
+		private void schedule() {
+			if (running.compareAndSet(false, true)) {
+				try {
+					sinkExecutor.execute(this);
+				} catch (RejectedExecutionException e) {
+					running.set(false);
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				MethodStatsSnapshot snapshot;
+				while ((snapshot = queue.poll()) != null) {
+					long startTime = System.currentTimeMillis();
+					try {
+						sink.publish(snapshot);
+						publishedCount.incrementAndGet();
+					} catch (Exception e) {
+						failedCount.incrementAndGet();
+						log.error("[{}]输出方法统计异常", sink.name(), e);
+					}
+					lastCostTime = System.currentTimeMillis() - startTime;
+				}
+			} finally {
+				running.set(false);
+			}
+			if (!queue.isEmpty()) {
+				schedule();
+			}
+		}
+
+		private SinkStats getSinkStats() {
+			SinkStats sinkStats = new SinkStats();
+			sinkStats.setName(sink.name());
+			sinkStats.setQueueSize(queue.size());
+			sinkStats.setQueueCapacity(queueCapacity);
+			sinkStats.setPublishedCount(publishedCount.get());
+			sinkStats.setDroppedCount(droppedCount.get());
+			sinkStats.setFailedCount(failedCount.get());
+			sinkStats.setLastCostTime(lastCostTime);
+			return sinkStats;
+		}
+	}
+}
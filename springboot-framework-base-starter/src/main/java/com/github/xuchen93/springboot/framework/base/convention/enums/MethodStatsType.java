@@ -9,13 +9,17 @@ import java.util.List;
 public enum MethodStatsType {
 	LOG_ANNOTATION(1),
 	REQUEST(2),
+	/**
+	 * 全局异常处理，uniqueKey为 异常类名|处理方法
+	 */
+	EXCEPTION(3),
 	;
 
 	@Getter
 	private final int type;
 
 	public static List<Integer> getAllTypes() {
-		return List.of(LOG_ANNOTATION.getType(), REQUEST.getType());
+		return List.of(LOG_ANNOTATION.getType(), REQUEST.getType(), EXCEPTION.getType());
 	}
 
 
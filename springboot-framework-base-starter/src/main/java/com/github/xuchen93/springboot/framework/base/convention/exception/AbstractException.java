@@ -25,4 +25,14 @@ public abstract class AbstractException extends RuntimeException {
 		this.message = message;
 	}
 
+	/**
+	 * @param writableStackTrace 为false时不填充堆栈，也不记录suppressed异常，
+	 *                           用于只关心错误码和信息、频繁抛出的场景，开销接近普通对象创建
+	 */
+	protected AbstractException(int code, String message, Throwable cause, boolean writableStackTrace) {
+		super(message, cause, writableStackTrace, writableStackTrace);
+		this.code = code;
+		this.message = message;
+	}
+
 }
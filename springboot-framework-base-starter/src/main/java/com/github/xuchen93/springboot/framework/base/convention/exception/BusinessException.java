@@ -5,9 +5,14 @@ import com.github.xuchen93.springboot.framework.base.convention.error.BaseErrorC
 import com.github.xuchen93.springboot.framework.base.convention.error.IErrorCode;
 import lombok.Getter;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Getter
 public class BusinessException extends AbstractException {
 
+	private static final Map<IErrorCode, BusinessException> CACHED_MAP = new ConcurrentHashMap<>();
+
 	public BusinessException(String message, Object... params) {
 		this(StrUtil.format(message, params));
 	}
@@ -25,4 +30,27 @@ public class BusinessException extends AbstractException {
 	public BusinessException(IErrorCode errorCode) {
 		super(errorCode);
 	}
+
+	private BusinessException(int code, String message, boolean writableStackTrace) {
+		super(code, message, null, writableStackTrace);
+	}
+
+	/**
+	 * 不填充堆栈的业务异常，用于加锁失败、参数校验等频繁抛出且不需要堆栈的场景
+	 */
+	public static BusinessException stackless(String message) {
+		return new BusinessException(BaseErrorCode.BUSINESS_ERROR.code(), message, false);
+	}
+
+	public static BusinessException stackless(int code, String message) {
+		return new BusinessException(code, message, false);
+	}
+
+	/**
+	 * 固定错误码的共享实例，不填充堆栈，每个错误码只创建一次
+	 * 只接受枚举的错误码，缓存的实例数量固定；非枚举的错误码使用stackless
+	 */
+	public static <E extends Enum<E> & IErrorCode> BusinessException cached(E errorCode) {
+		return CACHED_MAP.computeIfAbsent(errorCode, e -> new BusinessException(e.code(), e.message(), false));
+	}
 }
@@ -4,8 +4,13 @@ import com.github.xuchen93.springboot.framework.base.convention.error.BaseErrorC
 import com.github.xuchen93.springboot.framework.base.convention.error.IErrorCode;
 import lombok.ToString;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @ToString
 public class ClientException extends AbstractException {
+    private static final Map<IErrorCode, ClientException> CACHED_MAP = new ConcurrentHashMap<>();
+
     public ClientException(String message, IErrorCode errorCode, Throwable cause) {
         super(message, errorCode, cause);
     }
@@ -21,4 +26,23 @@ public class ClientException extends AbstractException {
     public ClientException(String message, IErrorCode errorCode) {
         this(message, errorCode, null);
     }
+
+    private ClientException(IErrorCode errorCode, String message, boolean writableStackTrace) {
+        super(errorCode.code(), message == null ? errorCode.message() : message, null, writableStackTrace);
+    }
+
+    /**
+     * 不填充堆栈的异常，用于频繁抛出且不需要堆栈的场景
+     */
+    public static ClientException stackless(String message, IErrorCode errorCode) {
+        return new ClientException(errorCode, message, false);
+    }
+
+    /**
+     * 固定错误码的共享实例，不填充堆栈，每个错误码只创建一次
+     * 只接受枚举的错误码，缓存的实例数量固定；非枚举的错误码使用stackless
+     */
+    public static <E extends Enum<E> & IErrorCode> ClientException cached(E errorCode) {
+        return CACHED_MAP.computeIfAbsent(errorCode, e -> new ClientException(e, null, false));
+    }
 }
@@ -0,0 +1,18 @@
+package com.github.xuchen93.springboot.framework.base.convention.exception;
+
+import lombok.Getter;
+
+/**
+ * 并发数超过限制，请求被拒绝
+ * <p>过载时会大量抛出，不填充堆栈
+ */
+@Getter
+public class ConcurrencyLimitException extends AbstractException {
+
+	private final String uniqueKey;
+
+	public ConcurrencyLimitException(String uniqueKey, int code, String message) {
+		super(code, message, null, false);
+		this.uniqueKey = uniqueKey;
+	}
+}
@@ -5,11 +5,23 @@ import com.github.xuchen93.springboot.framework.base.convention.error.IErrorCode
 import lombok.Data;
 
 import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 @Data
 public class R<T> implements Serializable {
 
+	/**
+	 * 不带数据的常用返回值，共享的不可变实例
+	 */
+	private static final R<?> SUCCESS = new ImmutableR<>(BaseErrorCode.SUCCESS.code(), "success");
+	private static final R<?> FAIL = new ImmutableR<>(BaseErrorCode.BUSINESS_ERROR.code(), "error");
+	/**
+	 * 只缓存枚举的错误码，数量固定
+	 */
+	private static final Map<IErrorCode, R<?>> ERROR_CODE_MAP = new ConcurrentHashMap<>();
+
 	private int code;
 
 	private String msg;
@@ -66,4 +78,58 @@ public class R<T> implements Serializable {
 	public static <T> R<T> fail(int code, String msg, T data) {
 		return new R<>(code, msg, data);
 	}
+
+	/**
+	 * 与{@link #success()}内容相同的共享不可变实例，不能调用setter
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> R<T> sharedSuccess() {
+		return (R<T>) SUCCESS;
+	}
+
+	/**
+	 * 与{@link #fail()}内容相同的共享不可变实例，不能调用setter
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> R<T> sharedFail() {
+		return (R<T>) FAIL;
+	}
+
+	/**
+	 * 与{@link #fail(IErrorCode)}内容相同、按错误码共享的不可变实例，不能调用setter。
+	 * 只接受枚举的错误码，缓存的实例数量固定
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T, E extends Enum<E> & IErrorCode> R<T> sharedFail(E errorCode) {
+		return (R<T>) ERROR_CODE_MAP.computeIfAbsent(errorCode, e -> new ImmutableR<>(e.code(), e.message()));
+	}
+
+	/**
+	 * 是否为sharedSuccess、sharedFail返回的共享实例，内容固定，可缓存序列化结果
+	 */
+	public static boolean isInterned(R<?> r) {
+		return r instanceof ImmutableR;
+	}
+
+	private static final class ImmutableR<T> extends R<T> {
+
+		private ImmutableR(int code, String msg) {
+			super(code, msg, null);
+		}
+
+		@Override
+		public void setCode(int code) {
+			throw new UnsupportedOperationException("共享的返回值不能修改");
+		}
+
+		@Override
+		public void setMsg(String msg) {
+			throw new UnsupportedOperationException("共享的返回值不能修改");
+		}
+
+		@Override
+		public void setData(T data) {
+			throw new UnsupportedOperationException("共享的返回值不能修改");
+		}
+	}
 }
@@ -2,6 +2,7 @@ package com.github.xuchen93.springboot.framework.base.properties;
 
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.DeprecatedConfigurationProperty;
 import org.springframework.stereotype.Component;
 
 @Data
@@ -13,18 +14,94 @@ public class BaseProperty {
 	private boolean beanCreateAware = true;
 
 	private LogAspect logAspect = new LogAspect();
-	private MethodStatsConfig methodStatsConfig = new MethodStatsConfig();
+	private MethodStatsConfig methodStats = new MethodStatsConfig();
+
+	/**
+	 * 兼容旧的配置项xuchen93.framework.base.method-stats-config.*，与method-stats指向同一个对象
+	 *
+	 * @deprecated 使用{@link #getMethodStats()}
+	 */
+	@Deprecated
+	@DeprecatedConfigurationProperty(replacement = PROPERTY_PREFIX + ".method-stats")
+	public MethodStatsConfig getMethodStatsConfig() {
+		return methodStats;
+	}
+
+	/**
+	 * @deprecated 使用{@link #setMethodStats(MethodStatsConfig)}
+	 */
+	@Deprecated
+	public void setMethodStatsConfig(MethodStatsConfig methodStatsConfig) {
+		this.methodStats = methodStatsConfig;
+	}
 
 
 	@Data
 	public static class LogAspect {
 		private boolean enableLog = true;
 		private boolean enableStats = true;
+		/**
+		 * 日志中入参、出参JSON的最大字符数，超过时截断，小于等于0时不限制
+		 */
+		private int maxPayloadLength = 8192;
 	}
 
 	@Data
 	public static class MethodStatsConfig {
 		private boolean enableConsume = true;
 		private int consumeSeconds = 3600;
+		private MethodStatsMeter meter = new MethodStatsMeter();
+		private MethodStatsSinkConfig sink = new MethodStatsSinkConfig();
+	}
+
+	/**
+	 * consume出的统计快照的输出配置
+	 */
+	@Data
+	public static class MethodStatsSinkConfig {
+		/**
+		 * 每个sink的待输出队列长度，队列满时丢弃新快照
+		 */
+		private int queueCapacity = 16;
+		/**
+		 * 应用关闭时等待sink输出完成的最长时间
+		 */
+		private int shutdownTimeoutSeconds = 10;
+		/**
+		 * 输出到日志
+		 */
+		private boolean enableLog = true;
+		/**
+		 * 以JSON行的形式追加到文件，为空时不输出
+		 */
+		private String jsonFilePath;
+		/**
+		 * JSON文件大小上限(MB)，超过后滚动为jsonFilePath.1、jsonFilePath.2...
+		 */
+		private int jsonFileMaxSizeMb = 100;
+		/**
+		 * JSON文件保留的历史文件数
+		 */
+		private int jsonFileMaxHistory = 7;
+		/**
+		 * 在内存中保留最近的快照数，为0时不保留
+		 */
+		private int memoryCapacity = 0;
+	}
+
+	/**
+	 * 方法统计发布到Micrometer，需引入micrometer-core依赖且容器中存在MeterRegistry
+	 */
+	@Data
+	public static class MethodStatsMeter {
+		private boolean enable = false;
+		/**
+		 * 最多发布的uniqueKey数量，超出的不再发布，防止指标基数膨胀
+		 */
+		private int maxUniqueKeys = 500;
+		/**
+		 * 发布method.stats.calls.within计数器的耗时阈值(ms)
+		 */
+		private long[] bucketMillis = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
 	}
 }
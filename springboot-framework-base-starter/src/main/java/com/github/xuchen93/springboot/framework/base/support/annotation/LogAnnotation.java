@@ -15,4 +15,19 @@ public @interface LogAnnotation {
 	 * @return
 	 */
 	String uniqueKey() default "";
+
+	/**
+	 * 日志采样率，0~1，未被采样的调用不序列化入参和返回值；方法统计不受影响，始终全量记录
+	 */
+	double sampleRate() default 1.0;
+
+	/**
+	 * 抛出异常时忽略采样，始终输出日志
+	 */
+	boolean alwaysLogOnError() default true;
+
+	/**
+	 * 大于0时只输出耗时不低于该值(ms)的调用，入参在调用结束后才输出
+	 */
+	long logSlowerThanMillis() default 0;
 }
@@ -5,88 +5,174 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.xuchen93.springboot.framework.base.common.BoundedJson;
 import com.github.xuchen93.springboot.framework.base.common.CommonUtil;
 import com.github.xuchen93.springboot.framework.base.convention.enums.MethodStatsType;
 import com.github.xuchen93.springboot.framework.base.convention.exception.BusinessException;
 import com.github.xuchen93.springboot.framework.base.properties.BaseProperty;
 import com.github.xuchen93.springboot.framework.base.support.annotation.LogAnnotation;
 import com.github.xuchen93.springboot.framework.base.support.manager.MethodStatsManager;
+import com.github.xuchen93.springboot.framework.base.support.manager.RequestIdManager;
+import com.github.xuchen93.springboot.framework.base.support.model.MethodStats;
 import jakarta.annotation.PreDestroy;
-import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Component;
 
+import java.lang.reflect.Method;
 import java.util.Arrays;
-import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
 
 @Aspect
 @Slf4j
 @Component
-@RequiredArgsConstructor
 @ConditionalOnExpression("${xuchen93.framework.base.log-aspect.enable-log:true} || ${xuchen93.framework.base.log-aspect.enable-stats:true}")
 public class LogAnnotationAspect {
 
 	private final BaseProperty baseProperty;
 
+	/**
+	 * 目标类 -> (Method -> 描述)，两级查找避免每次调用都创建组合key
+	 */
+	private final Map<Class<?>, Map<Method, LogDescriptor>> descriptorMap = new ConcurrentHashMap<>();
+
 
 	private ObjectMapper objectMapper = new ObjectMapper()
 			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
 			.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
 			.setSerializationInclusion(JsonInclude.Include.NON_NULL);
 
+	private final BoundedJson boundedJson;
+
+	public LogAnnotationAspect(BaseProperty baseProperty) {
+		this.baseProperty = baseProperty;
+		this.boundedJson = new BoundedJson(objectMapper, baseProperty.getLogAspect().getMaxPayloadLength());
+	}
+
 
 	@Around("@within(logAnnotation) || @annotation(logAnnotation)")
 	public Object around(ProceedingJoinPoint joinPoint, LogAnnotation logAnnotation) throws Throwable {
-		if (logAnnotation == null) {
-			logAnnotation = joinPoint.getTarget().getClass().getAnnotation(LogAnnotation.class);
-		}
-		String uniqueKey = logAnnotation.uniqueKey();
-		if (StrUtil.isBlank(uniqueKey)) {
-			uniqueKey = CommonUtil.originClassName(joinPoint.getTarget()) + "." + joinPoint.getSignature().getName();
-		}
-		String baseLog = "";
-		if (baseProperty.getLogAspect().isEnableLog()) {
-			baseLog = StrUtil.format("{}|{}", uniqueKey, ThreadLocalRandom.current().nextInt(100, 1000));
-			Object[] args = joinPoint.getArgs();
-			List<Object> argsList = Arrays.stream(args).toList();
-			String requestParams = objectMapper.writeValueAsString(argsList.size() == 1 ? argsList.get(0) : argsList);
-			log.info("{} 入参:[{}]", baseLog, requestParams);
+		LogDescriptor descriptor = getDescriptor(joinPoint, logAnnotation);
+		String uniqueKey = descriptor.uniqueKey;
+		boolean enableLog = baseProperty.getLogAspect().isEnableLog();
+		boolean sampled = enableLog && isSampled(descriptor.sampleRate);
+		// 未设置慢调用阈值时，采样命中即在调用前输出入参
+		boolean eagerLog = sampled && descriptor.logSlowerThanMillis <= 0;
+		String baseLog = null;
+		if (eagerLog) {
+			baseLog = buildBaseLog(uniqueKey);
+			log.info("{} 入参:[{}]", baseLog, toArgsJson(joinPoint.getArgs()));
 		}
 		long currentTimeMillis = System.currentTimeMillis();
 		boolean successFlag = true;
-		String res = null;
+		Object result = null;
+		Exception error = null;
 		try {
-			Object result = joinPoint.proceed();
-			res = objectMapper.writeValueAsString(result);
+			result = joinPoint.proceed();
 			return result;
 		} catch (BusinessException e) {
-			res = e.getMessage();
+			error = e;
 			throw e;
 		} catch (Exception e) {
 			successFlag = false;
-			res = e.getMessage();
+			error = e;
 			throw e;
 		} finally {
 			long costTime = System.currentTimeMillis() - currentTimeMillis;
-			if (baseProperty.getLogAspect().isEnableLog()) {
-				log.info("{} 耗时:[{} ms]:{}", baseLog, costTime, res);
+			boolean shouldLog = (sampled && costTime >= descriptor.logSlowerThanMillis)
+					|| (enableLog && error != null && descriptor.alwaysLogOnError);
+			if (shouldLog) {
+				if (!eagerLog) {
+					baseLog = buildBaseLog(uniqueKey);
+					log.info("{} 入参:[{}]", baseLog, toArgsJson(joinPoint.getArgs()));
+				}
+				log.info("{} 耗时:[{} ms]:{}", baseLog, costTime, error != null ? error.getMessage() : boundedJson.lazy(result));
 			}
-			if (baseProperty.getLogAspect().isEnableStats()) {
+			if (descriptor.methodStats != null && baseProperty.getLogAspect().isEnableStats()) {
 				if (successFlag) {
-					MethodStatsManager.addSuccess(MethodStatsType.LOG_ANNOTATION.getType(), uniqueKey, costTime);
+					descriptor.methodStats.addSuccess(costTime);
 				} else {
-					MethodStatsManager.addFail(MethodStatsType.LOG_ANNOTATION.getType(), uniqueKey, costTime);
+					descriptor.methodStats.addFail(costTime);
 				}
 			}
 		}
 	}
 
+	/**
+	 * 按(Method, 目标类)缓存，父类或接口的同一个Method被多个目标类使用时（类上注解的场景）各自缓存
+	 */
+	private LogDescriptor getDescriptor(ProceedingJoinPoint joinPoint, LogAnnotation logAnnotation) {
+		Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+		Class<?> targetClass = joinPoint.getTarget().getClass();
+		Map<Method, LogDescriptor> methodMap = descriptorMap.get(targetClass);
+		if (methodMap == null) {
+			methodMap = descriptorMap.computeIfAbsent(targetClass, k -> new ConcurrentHashMap<>());
+		}
+		LogDescriptor descriptor = methodMap.get(method);
+		if (descriptor != null) {
+			return descriptor;
+		}
+		return methodMap.computeIfAbsent(method, k -> createDescriptor(joinPoint, targetClass, logAnnotation));
+	}
+
+	private LogDescriptor createDescriptor(ProceedingJoinPoint joinPoint, Class<?> targetClass, LogAnnotation logAnnotation) {
+		if (logAnnotation == null) {
+			logAnnotation = targetClass.getAnnotation(LogAnnotation.class);
+		}
+		String uniqueKey = logAnnotation.uniqueKey();
+		if (StrUtil.isBlank(uniqueKey)) {
+			uniqueKey = CommonUtil.originClassName(joinPoint.getTarget()) + "." + joinPoint.getSignature().getName();
+		}
+		MethodStats methodStats = baseProperty.getLogAspect().isEnableStats()
+				? MethodStatsManager.register(MethodStatsType.LOG_ANNOTATION.getType(), uniqueKey)
+				: null;
+		return new LogDescriptor(uniqueKey, methodStats, logAnnotation);
+	}
+
+	private static boolean isSampled(double sampleRate) {
+		return sampleRate >= 1 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+	}
+
+	private static String buildBaseLog(String uniqueKey) {
+		return uniqueKey + "|" + RequestIdManager.getOrNextId();
+	}
+
+	/**
+	 * 切面每次调用所需的、只与Method和目标类有关的信息
+	 */
+	private static class LogDescriptor {
+		private final String uniqueKey;
+		/**
+		 * 统计句柄，未开启统计时为null
+		 */
+		private final MethodStats methodStats;
+		private final double sampleRate;
+		private final boolean alwaysLogOnError;
+		private final long logSlowerThanMillis;
+
+		private LogDescriptor(String uniqueKey, MethodStats methodStats, LogAnnotation logAnnotation) {
+			this.uniqueKey = uniqueKey;
+			this.methodStats = methodStats;
+			this.sampleRate = logAnnotation.sampleRate();
+			this.alwaysLogOnError = logAnnotation.alwaysLogOnError();
+			this.logSlowerThanMillis = logAnnotation.logSlowerThanMillis();
+		}
+	}
+
+	/**
+	 * 日志输出时才序列化，长度受maxPayloadLength限制，序列化失败不影响方法调用本身
+	 */
+	private Object toArgsJson(Object[] args) {
+		return boundedJson.lazy(args.length == 1 ? args[0] : Arrays.asList(args));
+	}
+
 	@SneakyThrows
 	@PreDestroy
 	public void perDestory() {
@@ -3,18 +3,129 @@ package com.github.xuchen93.springboot.framework.base.support.manager;
 
 import com.github.xuchen93.springboot.framework.base.convention.enums.MethodStatsType;
 import com.github.xuchen93.springboot.framework.base.support.model.MethodStats;
+import com.github.xuchen93.springboot.framework.base.support.model.WindowStats;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Slf4j
 public class MethodStatsManager {
-	private static volatile ConcurrentHashMap<String, MethodStats> METHOD_STATS_MAP = new ConcurrentHashMap<>();
+	/**
+	 * type -> uniqueKey -> MethodStats，按类型分组，查找时无需拼接key
+	 */
+	private static final ConcurrentHashMap<Integer, ConcurrentHashMap<String, MethodStats>> METHOD_STATS_MAP = new ConcurrentHashMap<>();
+	/**
+	 * 新统计对象创建后的回调，每个统计对象只回调一次，不在记录路径上执行
+	 */
+	private static final List<Consumer<MethodStats>> REGISTER_LISTENERS = new CopyOnWriteArrayList<>();
+	/**
+	 * 统计对象被移除后的回调
+	 */
+	private static final List<Consumer<MethodStats>> EVICT_LISTENERS = new CopyOnWriteArrayList<>();
+	/**
+	 * 连续这么多次consume没有记录，且最近{@link MethodStats#MAX_WINDOW_MINUTES}分钟的窗口也没有记录时移除
+	 */
+	public static final int IDLE_EVICT_CONSUME_COUNT = 3;
+
+	/**
+	 * 注册并返回统计句柄，调用方缓存句柄后可直接调用{@link MethodStats#addSuccess(long)}记录，无需再查找
+	 * <p>句柄在{@link #consume()}之后依然有效：长期无记录的统计对象会被移除，通过句柄再次记录时自动重新加入，累计值保留。
+	 * 同一uniqueKey应只通过句柄或只通过{@link #addSuccess(int, String, long)}记录，
+	 * 否则移除后按key记录会创建新的统计对象，旧句柄的记录不再被查询到
+	 */
+	public static MethodStats register(int type, String uniqueKey) {
+		ConcurrentHashMap<String, MethodStats> typeMap = METHOD_STATS_MAP.computeIfAbsent(type, t -> new ConcurrentHashMap<>());
+		MethodStats methodStats = typeMap.get(uniqueKey);
+		if (methodStats != null) {
+			return methodStats;
+		}
+		MethodStats created = new MethodStats(type, uniqueKey, MethodStatsManager::reattach);
+		methodStats = typeMap.putIfAbsent(uniqueKey, created);
+		if (methodStats != null) {
+			return methodStats;
+		}
+		REGISTER_LISTENERS.forEach(listener -> notifyListener(listener, created));
+		return created;
+	}
+
+	/**
+	 * 监听新注册的统计对象，已注册的统计对象会立即回调一次
+	 */
+	public static void addRegisterListener(Consumer<MethodStats> listener) {
+		REGISTER_LISTENERS.add(listener);
+		streamAll().forEach(methodStats -> notifyListener(listener, methodStats));
+	}
+
+	public static void removeRegisterListener(Consumer<MethodStats> listener) {
+		REGISTER_LISTENERS.remove(listener);
+	}
+
+	/**
+	 * 监听被移除的统计对象，重新加入时会再次回调注册监听
+	 */
+	public static void addEvictListener(Consumer<MethodStats> listener) {
+		EVICT_LISTENERS.add(listener);
+	}
+
+	public static void removeEvictListener(Consumer<MethodStats> listener) {
+		EVICT_LISTENERS.remove(listener);
+	}
+
+	/**
+	 * 已移除的统计对象再次有记录时重新加入，在注册时作为回调传给{@link MethodStats}
+	 */
+	private static void reattach(MethodStats methodStats) {
+		if (!methodStats.clearEvicted()) {
+			return;
+		}
+		ConcurrentHashMap<String, MethodStats> typeMap = METHOD_STATS_MAP.computeIfAbsent(methodStats.getType(), t -> new ConcurrentHashMap<>());
+		if (typeMap.putIfAbsent(methodStats.getUniqueKey(), methodStats) == null) {
+			REGISTER_LISTENERS.forEach(listener -> notifyListener(listener, methodStats));
+		}
+	}
+
+	/**
+	 * 先移除并回调，再设置移除标记，重新加入的注册回调总在移除回调之后；
+	 * 设置标记后再检查一次，移除过程中写入的记录由这里重新加入
+	 */
+	private static void evict(MethodStats methodStats) {
+		ConcurrentHashMap<String, MethodStats> typeMap = METHOD_STATS_MAP.get(methodStats.getType());
+		if (typeMap == null || !typeMap.remove(methodStats.getUniqueKey(), methodStats)) {
+			return;
+		}
+		EVICT_LISTENERS.forEach(listener -> notifyListener(listener, methodStats));
+		methodStats.markEvicted();
+		if (methodStats.hasRecord()) {
+			reattach(methodStats);
+		}
+	}
 
+	private static boolean isIdle(MethodStats methodStats) {
+		return methodStats.markIdle() >= IDLE_EVICT_CONSUME_COUNT
+				&& !methodStats.getWindowStats(MethodStats.MAX_WINDOW_MINUTES).hasRecord();
+	}
+
+	private static void notifyListener(Consumer<MethodStats> listener, MethodStats methodStats) {
+		try {
+			listener.accept(methodStats);
+		} catch (Exception e) {
+			log.error("[{}]统计对象注册回调异常", methodStats.getUniqueKey(), e);
+		}
+	}
 
+	/**
+	 * 已注册时只做两次map查找，不产生任何对象分配
+	 */
 	private static MethodStats getMethodStats(int type, String uniqueKey) {
-		return METHOD_STATS_MAP.computeIfAbsent(type + uniqueKey, s -> new MethodStats(type, uniqueKey));
+		ConcurrentHashMap<String, MethodStats> typeMap = METHOD_STATS_MAP.get(type);
+		MethodStats methodStats = typeMap == null ? null : typeMap.get(uniqueKey);
+		return methodStats != null ? methodStats : register(type, uniqueKey);
 	}
 
 	public static void addSuccess(int type, String uniqueKey, long costTime) {
@@ -25,49 +136,89 @@ public class MethodStatsManager {
 		getMethodStats(type, uniqueKey).addFail(costTime);
 	}
 
+	private static Stream<MethodStats> streamAll() {
+		return METHOD_STATS_MAP.values().stream().flatMap(typeMap -> typeMap.values().stream());
+	}
+
+	private static Stream<MethodStats> streamByType(int type) {
+		ConcurrentHashMap<String, MethodStats> typeMap = METHOD_STATS_MAP.get(type);
+		return typeMap == null ? Stream.empty() : typeMap.values().stream();
+	}
+
 	public static List<MethodStats> peekAll() {
-		return METHOD_STATS_MAP.values().stream().filter(stats -> stats.getSuccessCount() > 0 || stats.getFailCount() > 0).sorted().toList();
+		return streamAll().filter(MethodStats::hasRecord).sorted().toList();
 	}
 
 	public static List<MethodStats> peekByType(int type) {
-		return METHOD_STATS_MAP.values().stream()
-				.filter(stats -> stats.getType() == type)
-				.filter(stats -> stats.getSuccessCount() > 0 || stats.getFailCount() > 0)
+		return streamByType(type)
+				.filter(MethodStats::hasRecord)
 				.sorted()
 				.toList();
 	}
 
-	public static void logByType(int type, boolean consume) {
-		StringBuffer stringBuffer = new StringBuffer();
-		String title = String.format("[%s]方法统计:uniqueKey，调用次：总数(成功数|失败数)，耗时(ms)：总计|平均|TopN值", MethodStatsType.getNameByType(type));
-		stringBuffer.append(title);
-		METHOD_STATS_MAP.values().stream()
-				.filter(stats -> stats.getType() == type)
-				.filter(stats -> stats.getSuccessCount() + stats.getFailCount() > 0)
+	/**
+	 * 最近windowMinutes分钟的滑动窗口统计，不受consume影响
+	 */
+	public static List<WindowStats> peekWindowAll(int windowMinutes) {
+		return streamAll()
+				.sorted()
+				.map(stats -> stats.getWindowStats(windowMinutes))
+				.filter(WindowStats::hasRecord)
+				.toList();
+	}
+
+	public static List<WindowStats> peekWindowByType(int type, int windowMinutes) {
+		return streamByType(type)
 				.sorted()
-				.forEach(i -> {
-					stringBuffer.append("\n").append(i.toString());
-					if (consume) {
-						i.reset();
-					}
-				});
-		if (stringBuffer.length() != title.length()) {
-			log.info(stringBuffer.toString());
+				.map(stats -> stats.getWindowStats(windowMinutes))
+				.filter(WindowStats::hasRecord)
+				.toList();
+	}
+
+	public static void logByType(int type, boolean consume) {
+		List<MethodStats> statsList = streamByType(type)
+				.filter(MethodStats::hasRecord)
+				.map(stats -> consume ? stats.consume() : stats)
+				.toList();
+		String content = buildLog(type, statsList);
+		if (content != null) {
+			log.info(content);
+		}
+	}
+
+	/**
+	 * 生成某个类型的统计日志，无数据时返回null
+	 */
+	public static String buildLog(int type, Collection<MethodStats> statsList) {
+		if (statsList.isEmpty()) {
+			return null;
 		}
+		StringBuilder stringBuilder = new StringBuilder();
+		stringBuilder.append(String.format("[%s]方法统计:uniqueKey，调用次：总数(成功数|失败数)，耗时(ms)：总计|平均|TopN值，分位耗时(ms)：p50|p90|p99|p999", MethodStatsType.getNameByType(type)));
+		statsList.stream()
+				.sorted()
+				.forEach(i -> stringBuilder.append("\n").append(i.toString()));
+		return stringBuilder.toString();
 	}
 
 	/**
-	 * 非阻塞情况，无法保证数据的绝对精准。（MethodStats可能还没有更新）
-	 * 考虑到使用场景仅仅是方法调用统计，允许一定的误差
-	 * 建议调用频率不低于1小时一次
+	 * 取出所有统计数据自上次consume以来的增量快照，已注册的统计句柄继续有效
+	 * <p>每个统计对象单独切换区间，见{@link MethodStats#consume()}，不加全局锁，也不阻塞写入方；
+	 * 各次consume的增量之和与实际写入完全一致
+	 * <p>连续{@link #IDLE_EVICT_CONSUME_COUNT}次无记录的统计对象从管理器中移除，避免不再出现的uniqueKey一直占用内存
 	 */
 	public static List<MethodStats> consume() {
-		// 1. 创建新的空容器
-		ConcurrentHashMap<String, MethodStats> newMap = new ConcurrentHashMap<>();
-		// 2. 原子性替换旧容器（volatile保证可见性，确保生产者后续写入新容器）
-		ConcurrentHashMap<String, MethodStats> oldMap = METHOD_STATS_MAP;
-		METHOD_STATS_MAP = newMap;
-		// 3. 返回旧容器中的数据（此时旧容器已不再被写入，可安全消费）
-		return oldMap.values().stream().sorted().toList();
+		List<MethodStats> statsList = new ArrayList<>();
+		List<MethodStats> idleList = new ArrayList<>();
+		streamAll().forEach(stats -> {
+			if (stats.hasRecord()) {
+				statsList.add(stats.consume());
+			} else if (isIdle(stats)) {
+				idleList.add(stats);
+			}
+		});
+		idleList.forEach(MethodStatsManager::evict);
+		statsList.sort(null);
+		return statsList;
 	}
 }
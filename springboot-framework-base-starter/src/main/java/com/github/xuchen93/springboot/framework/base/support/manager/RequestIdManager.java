@@ -0,0 +1,69 @@
+package com.github.xuchen93.springboot.framework.base.support.manager;
+
+import org.slf4j.MDC;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 请求ID
+ * <p>ID按时间有序：毫秒时间戳(11位16进制) + 节点ID(8位) + 自增序号(8位)，共27位。
+ * 节点ID为启动时生成的32位随机数，上千个节点时节点ID相同的概率约万分之一，且还需同一毫秒内序号也相同才会产生重复的ID；
+ * 序号为32位，从随机值开始，溢出后回绕，同一节点同一毫秒内生成超过2^32个ID才会重复。
+ * <p>当前请求的ID保存在MDC的{@link #MDC_KEY}中，日志格式中通过%X{requestId}输出，
+ * 同一请求内的切面日志、异常日志及Redis/数据库调用日志据此关联
+ */
+public class RequestIdManager {
+	public static final String MDC_KEY = "requestId";
+	public static final int ID_LENGTH = 27;
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+	private static final long NODE_ID = new SecureRandom().nextInt() & 0xFFFFFFFFL;
+	private static final AtomicLong SEQUENCE = new AtomicLong(ThreadLocalRandom.current().nextLong());
+
+	public static String nextId() {
+		char[] chars = new char[ID_LENGTH];
+		fillHex(chars, 0, 11, System.currentTimeMillis());
+		fillHex(chars, 11, 8, NODE_ID);
+		fillHex(chars, 19, 8, SEQUENCE.getAndIncrement());
+		return new String(chars);
+	}
+
+	/**
+	 * 当前线程的请求ID，不在请求中时为null
+	 */
+	public static String getRequestId() {
+		return MDC.get(MDC_KEY);
+	}
+
+	/**
+	 * 当前线程的请求ID，没有时生成一个新的（不写入MDC）
+	 */
+	public static String getOrNextId() {
+		String requestId = MDC.get(MDC_KEY);
+		return requestId != null ? requestId : nextId();
+	}
+
+	/**
+	 * @param requestId 为null时移除
+	 */
+	public static void setRequestId(String requestId) {
+		if (requestId == null) {
+			MDC.remove(MDC_KEY);
+		} else {
+			MDC.put(MDC_KEY, requestId);
+		}
+	}
+
+	public static void clear() {
+		MDC.remove(MDC_KEY);
+	}
+
+	private static void fillHex(char[] chars, int offset, int length, long value) {
+		for (int i = offset + length - 1; i >= offset; i--) {
+			chars[i] = HEX[(int) (value & 0xF)];
+			value >>>= 4;
+		}
+	}
+}
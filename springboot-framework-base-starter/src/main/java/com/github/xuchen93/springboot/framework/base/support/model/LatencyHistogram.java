@@ -0,0 +1,232 @@
+package com.github.xuchen93.springboot.framework.base.support.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 耗时直方图（对数-线性分桶，参考HdrHistogram）
+ * <p>默认精度下[0, 32)ms每1ms一个桶；之后每个2的幂区间均分为16个桶，相对误差不超过1/16。
+ * 桶数固定，超过{@link #MAX_VALUE}（或构造时指定的上限）的值计入最后一个桶，内存占用有上限。
+ * <p>计数存放在原始类型long[]中，通过VarHandle原子累加，记录过程无锁、无分配
+ */
+public class LatencyHistogram {
+
+	private static final VarHandle COUNTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+	/**
+	 * 默认精度：每个2的幂区间16个桶，共464个桶
+	 */
+	public static final int DEFAULT_SUB_BUCKET_BITS = 4;
+	private static final int MAX_MAGNITUDE = 32;
+	/**
+	 * 可精确区分的最大耗时(ms)，约49天
+	 */
+	public static final long MAX_VALUE = (1L << MAX_MAGNITUDE) - 1;
+
+	/**
+	 * 默认输出的分位，百分比
+	 */
+	public static final double[] DEFAULT_PERCENTILES = {50, 90, 99, 99.9};
+	private static final String[] DEFAULT_PERCENTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+	private final int subBucketBits;
+	private final int subBucketCount;
+	/**
+	 * 线性区间上限，小于该值的耗时精确记录
+	 */
+	private final int linearLimit;
+	private final int linearMagnitude;
+	private final int bucketCount;
+	private final long maxValue;
+	private final long[] counts;
+
+	public LatencyHistogram() {
+		this(DEFAULT_SUB_BUCKET_BITS);
+	}
+
+	/**
+	 * @param subBucketBits 每个2的幂区间划分2^subBucketBits个桶，相对误差不超过1/2^subBucketBits
+	 */
+	public LatencyHistogram(int subBucketBits) {
+		this(subBucketBits, MAX_MAGNITUDE);
+	}
+
+	/**
+	 * @param subBucketBits 每个2的幂区间划分2^subBucketBits个桶，相对误差不超过1/2^subBucketBits
+	 * @param maxMagnitude  可精确区分的最大耗时为2^maxMagnitude - 1，超过的计入最后一个桶，取值(subBucketBits, 32]
+	 */
+	public LatencyHistogram(int subBucketBits, int maxMagnitude) {
+		if (maxMagnitude <= subBucketBits || maxMagnitude > MAX_MAGNITUDE) {
+			throw new IllegalArgumentException("maxMagnitude超出范围：" + maxMagnitude);
+		}
+		this.subBucketBits = subBucketBits;
+		this.subBucketCount = 1 << subBucketBits;
+		this.linearLimit = subBucketCount << 1;
+		this.linearMagnitude = subBucketBits + 1;
+		this.bucketCount = linearLimit + (maxMagnitude - linearMagnitude) * subBucketCount;
+		this.maxValue = (1L << maxMagnitude) - 1;
+		this.counts = new long[bucketCount];
+	}
+
+	public void record(long value) {
+		COUNTS.getAndAdd(counts, bucketIndex(value), 1L);
+	}
+
+	/**
+	 * 将计数转移到target中并清零本直方图，两者精度需一致
+	 */
+	public void drainTo(LatencyHistogram target) {
+		for (int i = 0; i < bucketCount; i++) {
+			long count = (long) COUNTS.getAndSet(counts, i, 0L);
+			if (count != 0) {
+				COUNTS.getAndAdd(target.counts, i, count);
+			}
+		}
+	}
+
+	/**
+	 * 将other的计数累加到本直方图，两者精度需一致
+	 */
+	public void add(LatencyHistogram other) {
+		for (int i = 0; i < bucketCount; i++) {
+			long count = other.getCount(i);
+			if (count != 0) {
+				COUNTS.getAndAdd(counts, i, count);
+			}
+		}
+	}
+
+	/**
+	 * 将计数累加到snapshot中，snapshot长度需为{@link #getBucketCount()}
+	 */
+	public void addTo(long[] snapshot) {
+		for (int i = 0; i < bucketCount; i++) {
+			snapshot[i] += getCount(i);
+		}
+	}
+
+	public void reset() {
+		for (int i = 0; i < bucketCount; i++) {
+			COUNTS.setVolatile(counts, i, 0L);
+		}
+	}
+
+	public int getBucketCount() {
+		return bucketCount;
+	}
+
+	public long getCount(int index) {
+		return (long) COUNTS.getVolatile(counts, index);
+	}
+
+	public long getTotalCount() {
+		long total = 0;
+		for (int i = 0; i < bucketCount; i++) {
+			total += getCount(i);
+		}
+		return total;
+	}
+
+	/**
+	 * 桶上界不超过value的累计次数
+	 */
+	public long getCountAtOrBelow(long value) {
+		long count = 0;
+		for (int i = 0; i < bucketCount && highestEquivalentValue(i) <= value; i++) {
+			count += getCount(i);
+		}
+		return count;
+	}
+
+	/**
+	 * 计算分位值，返回所在桶的上界
+	 *
+	 * @param percentiles 百分比，需升序，如 50、99.9
+	 * @return 与percentiles一一对应的耗时(ms)，无数据时为0
+	 */
+	public long[] getPercentiles(double... percentiles) {
+		long[] snapshot = new long[bucketCount];
+		addTo(snapshot);
+		return getPercentiles(snapshot, percentiles);
+	}
+
+	/**
+	 * 基于计数快照计算分位值，用于合并多个直方图后统一计算
+	 */
+	public long[] getPercentiles(long[] snapshot, double... percentiles) {
+		long total = 0;
+		for (long count : snapshot) {
+			total += count;
+		}
+		long[] result = new long[percentiles.length];
+		if (total == 0) {
+			return result;
+		}
+		int index = 0;
+		long cumulative = snapshot[0];
+		for (int i = 0; i < percentiles.length; i++) {
+			long target = Math.max(1, (long) Math.ceil(percentiles[i] / 100 * total));
+			while (cumulative < target && index < bucketCount - 1) {
+				cumulative += snapshot[++index];
+			}
+			result[i] = highestEquivalentValue(index);
+		}
+		return result;
+	}
+
+	/**
+	 * p50/p90/p99/p999
+	 */
+	public Map<String, Long> getDefaultPercentiles() {
+		return toDefaultPercentileMap(getPercentiles(DEFAULT_PERCENTILES));
+	}
+
+	public Map<String, Long> getDefaultPercentiles(long[] snapshot) {
+		return toDefaultPercentileMap(getPercentiles(snapshot, DEFAULT_PERCENTILES));
+	}
+
+	private static Map<String, Long> toDefaultPercentileMap(long[] values) {
+		Map<String, Long> map = new LinkedHashMap<>();
+		for (int i = 0; i < values.length; i++) {
+			map.put(DEFAULT_PERCENTILE_NAMES[i], values[i]);
+		}
+		return map;
+	}
+
+	public int bucketIndex(long value) {
+		if (value < linearLimit) {
+			return (int) Math.max(value, 0);
+		}
+		if (value > maxValue) {
+			return bucketCount - 1;
+		}
+		int magnitude = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (magnitude - subBucketBits)) - subBucketCount;
+		return linearLimit + (magnitude - linearMagnitude) * subBucketCount + subBucket;
+	}
+
+	/**
+	 * 桶的下界（包含）
+	 */
+	public long lowestEquivalentValue(int index) {
+		if (index < linearLimit) {
+			return index;
+		}
+		int magnitude = (index - linearLimit) / subBucketCount + linearMagnitude;
+		int subBucket = (index - linearLimit) % subBucketCount + subBucketCount;
+		return (long) subBucket << (magnitude - subBucketBits);
+	}
+
+	/**
+	 * 桶的上界（包含）
+	 */
+	public long highestEquivalentValue(int index) {
+		if (index < linearLimit) {
+			return index;
+		}
+		int magnitude = (index - linearLimit) / subBucketCount + linearMagnitude;
+		return lowestEquivalentValue(index) + (1L << (magnitude - subBucketBits)) - 1;
+	}
+}
@@ -1,70 +1,321 @@
 package com.github.xuchen93.springboot.framework.base.support.model;
 
 import cn.hutool.core.util.StrUtil;
-import lombok.Data;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.github.xuchen93.springboot.framework.base.common.CollectionUtil;
+import lombok.Getter;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
 
 /**
  * 方法拦截统计对象
+ * <p>计数使用按CPU分段的LongAdder，TopN使用原始类型数组+CAS，记录过程无锁
+ * <p>数据按区间双缓冲：写入方经{@link WriterReaderPhaser}进入当前区间，consume切换区间并等待旧区间写入完成，得到精确增量
+ * <p>耗时分布记录在{@link LatencyHistogram}中，用于计算p50/p90/p99/p999
+ * <p>同时记录最近15分钟的滑动窗口：1分钟窗口为12个5秒槽位，更长的窗口为15个1分钟槽位，窗口数据不受consume/reset影响
+ * <p>计数只能通过addSuccess/addFail/consume修改，不提供setter；equals/hashCode按对象身份，可作为Map的key
  */
-@Data
 public class MethodStats implements Comparable<MethodStats> {
-	private int type;
-	private String uniqueKey;
-	private int successCount;
-	private int failCount;
-	private long totalTime;
-	private int topCostSize = 10;
-	private List<Long> topCostTime = new ArrayList<>();
+	/**
+	 * TopN中的空位
+	 */
+	private static final long EMPTY_SLOT = -1L;
+	private static final int TOP_COST_SIZE = 10;
+	/**
+	 * 滑动窗口最长分钟数
+	 */
+	public static final int MAX_WINDOW_MINUTES = 15;
+	/**
+	 * 窗口槽位的直方图精度，相对误差不超过1/8
+	 */
+	private static final int WINDOW_SUB_BUCKET_BITS = 3;
+	/**
+	 * 窗口槽位的直方图可区分的最大耗时约70分钟，超过的计入最后一个桶，每个槽位160个桶
+	 */
+	private static final int WINDOW_MAX_MAGNITUDE = 22;
+
+	@Getter
+	private final int type;
+	@Getter
+	private final String uniqueKey;
+	@Getter
+	private final int topCostSize = TOP_COST_SIZE;
+
+	private final WriterReaderPhaser phaser = new WriterReaderPhaser();
+	/**
+	 * 当前写入的区间，consume时切换为新区间
+	 */
+	private volatile Interval active;
+	private final SlidingWindow secondWindow;
+	private final SlidingWindow minuteWindow;
+	/**
+	 * 已被consume取走的累计值，只在consume时更新，与当前值相加即为启动以来的累计值
+	 */
+	private final AtomicLong consumedSuccessCount = new AtomicLong();
+	private final AtomicLong consumedFailCount = new AtomicLong();
+	private final AtomicLong consumedTotalTime = new AtomicLong();
+	private volatile LatencyHistogram consumedHistogram;
+	/**
+	 * consume期间为奇数，读取累计值时据此重试，避免读到区间已切换但尚未计入consumed的中间状态
+	 */
+	private volatile int consumeSeq;
+	/**
+	 * 连续无记录的consume次数，见MethodStatsManager#consume()
+	 */
+	private int idleConsumeCount;
+	/**
+	 * 已被MethodStatsManager移除，调用方仍持有句柄时，下次记录会重新加入
+	 */
+	private final AtomicBoolean evicted = new AtomicBoolean();
+	/**
+	 * 被移除后再次有记录时的回调，由持有本对象的管理方传入；为null时不会被重新加入
+	 */
+	private final Consumer<MethodStats> reattachCallback;
 
 	public MethodStats(int type, String uniqueKey) {
+		this(type, uniqueKey, null);
+	}
+
+	/**
+	 * @param reattachCallback 被移除后再次有记录时调用，需自行通过{@link #clearEvicted()}保证只重新加入一次
+	 */
+	public MethodStats(int type, String uniqueKey, Consumer<MethodStats> reattachCallback) {
+		this(type, uniqueKey,
+				new SlidingWindow(5, 12, WINDOW_SUB_BUCKET_BITS, WINDOW_MAX_MAGNITUDE),
+				new SlidingWindow(60, MAX_WINDOW_MINUTES, WINDOW_SUB_BUCKET_BITS, WINDOW_MAX_MAGNITUDE),
+				new Interval(), reattachCallback);
+	}
+
+	private MethodStats(int type, String uniqueKey, SlidingWindow secondWindow, SlidingWindow minuteWindow, Interval active,
+						Consumer<MethodStats> reattachCallback) {
 		this.type = type;
 		this.uniqueKey = uniqueKey;
+		this.secondWindow = secondWindow;
+		this.minuteWindow = minuteWindow;
+		this.active = active;
+		this.reattachCallback = reattachCallback;
+	}
+
+
+	public void addSuccess(long costTime) {
+		long criticalValue = phaser.writerCriticalSectionEnter();
+		try {
+			active.record(costTime, true);
+		} finally {
+			phaser.writerCriticalSectionExit(criticalValue);
+		}
+		recordWindow(costTime, true);
+		reattachIfEvicted();
+	}
+
+
+	public void addFail(long costTime) {
+		long criticalValue = phaser.writerCriticalSectionEnter();
+		try {
+			active.record(costTime, false);
+		} finally {
+			phaser.writerCriticalSectionExit(criticalValue);
+		}
+		recordWindow(costTime, false);
+		reattachIfEvicted();
+	}
+
+	/**
+	 * 清零当前数据，清零的数据仍计入累计值
+	 */
+	public void reset() {
+		consume();
+	}
+
+	/**
+	 * 取出当前区间的数据生成快照，本对象切换到新区间继续接收记录
+	 * <p>切换后等待旧区间上的写入全部完成再读取，每次consume得到的是精确的增量，
+	 * 不会丢失或重复计数；写入方不加锁，只与同一对象的其他consume互斥
+	 */
+	public synchronized MethodStats consume() {
+		idleConsumeCount = 0;
+		Interval consumed = active;
+		consumeSeq++;
+		try {
+			active = new Interval();
+			phaser.flipPhase();
+			accumulateConsumed(consumed);
+		} finally {
+			consumeSeq++;
+		}
+		return new MethodStats(type, uniqueKey, secondWindow, minuteWindow, consumed, null);
+	}
+
+	private void accumulateConsumed(Interval interval) {
+		if (consumedHistogram == null) {
+			consumedHistogram = new LatencyHistogram();
+		}
+		consumedSuccessCount.addAndGet(interval.successCount.sum());
+		consumedFailCount.addAndGet(interval.failCount.sum());
+		consumedTotalTime.addAndGet(interval.totalTime.sum());
+		consumedHistogram.add(interval.histogram);
+	}
+
+	/**
+	 * 本次consume无记录，返回连续无记录的次数
+	 */
+	public synchronized int markIdle() {
+		return ++idleConsumeCount;
+	}
+
+	/**
+	 * 标记为已移除，此后的记录会调用构造时传入的reattachCallback
+	 */
+	public void markEvicted() {
+		evicted.set(true);
+	}
+
+	/**
+	 * 清除移除标记，返回true表示由本次调用清除，并发时只有一个调用方负责重新加入
+	 */
+	public boolean clearEvicted() {
+		return evicted.compareAndSet(true, false);
+	}
+
+	public boolean hasRecord() {
+		Interval interval = active;
+		return interval.successCount.sum() > 0 || interval.failCount.sum() > 0;
+	}
+
+	public int getSuccessCount() {
+		return active.successCount.intValue();
+	}
+
+	public int getFailCount() {
+		return active.failCount.intValue();
+	}
+
+	public long getTotalTime() {
+		return active.totalTime.sum();
 	}
 
+	/**
+	 * 启动以来的累计成功次数，不受consume影响
+	 */
+	@JsonIgnore
+	public long getLifetimeSuccessCount() {
+		return readLifetime(consumedSuccessCount, interval -> interval.successCount.sum());
+	}
 
-	public synchronized void addSuccess(long costTime) {
-		successCount++;
-		totalTime += costTime;
-		updateTimeRecord(costTime);
+	@JsonIgnore
+	public long getLifetimeFailCount() {
+		return readLifetime(consumedFailCount, interval -> interval.failCount.sum());
 	}
 
+	@JsonIgnore
+	public long getLifetimeTotalTime() {
+		return readLifetime(consumedTotalTime, interval -> interval.totalTime.sum());
+	}
 
-	public synchronized void addFail(long costTime) {
-		failCount++;
-		totalTime += costTime;
-		updateTimeRecord(costTime);
+	/**
+	 * 启动以来耗时不超过value(ms)的累计次数，按直方图桶的上界近似
+	 */
+	public long getLifetimeCountAtOrBelow(long value) {
+		while (true) {
+			int seq = consumeSeq;
+			if ((seq & 1) == 0) {
+				LatencyHistogram consumed = consumedHistogram;
+				long count = active.histogram.getCountAtOrBelow(value);
+				if (consumed != null) {
+					count += consumed.getCountAtOrBelow(value);
+				}
+				if (seq == consumeSeq) {
+					return count;
+				}
+			}
+			Thread.onSpinWait();
+		}
 	}
 
-	public synchronized void reset() {
-		successCount = 0;
-		failCount = 0;
-		totalTime = 0;
-		topCostTime.clear();
+	/**
+	 * 累计值 = 已consume的部分 + 当前区间，consume进行中时重试，保证单调不减
+	 */
+	private long readLifetime(AtomicLong consumed, ToLongFunction<Interval> current) {
+		while (true) {
+			int seq = consumeSeq;
+			if ((seq & 1) == 0) {
+				long value = consumed.get() + current.applyAsLong(active);
+				if (seq == consumeSeq) {
+					return value;
+				}
+			}
+			Thread.onSpinWait();
+		}
 	}
 
-	private void updateTimeRecord(long costTime) {
-		if (topCostTime.size() < topCostSize) {
-			topCostTime.add(costTime);
-		} else {
-			Long min = Collections.min(topCostTime);
-			if (min < costTime) {
-				int i = topCostTime.indexOf(min);
-				topCostTime.set(i, costTime);
+	/**
+	 * 耗时TopN，倒序
+	 */
+	public List<Long> getTopCostTime() {
+		AtomicLongArray topCostTime = active.topCostTime;
+		List<Long> list = new ArrayList<>(topCostSize);
+		for (int i = 0; i < topCostSize; i++) {
+			long costTime = topCostTime.get(i);
+			if (costTime != EMPTY_SLOT) {
+				list.add(costTime);
 			}
 		}
+		list.sort(Comparator.reverseOrder());
+		return list;
+	}
+
+	/**
+	 * 耗时分位值(ms)：p50/p90/p99/p999
+	 */
+	public Map<String, Long> getPercentiles() {
+		return active.histogram.getDefaultPercentiles();
+	}
+
+	/**
+	 * 最近windowMinutes分钟的滑动窗口统计
+	 *
+	 * @param windowMinutes 1~{@link #MAX_WINDOW_MINUTES}
+	 */
+	public WindowStats getWindowStats(int windowMinutes) {
+		WindowStats windowStats = windowMinutes == 1
+				? secondWindow.getWindowStats(12)
+				: minuteWindow.getWindowStats(windowMinutes);
+		windowStats.setType(type);
+		windowStats.setUniqueKey(uniqueKey);
+		return windowStats;
+	}
+
+	private void reattachIfEvicted() {
+		if (reattachCallback != null && evicted.get()) {
+			reattachCallback.accept(this);
+		}
+	}
+
+	private void recordWindow(long costTime, boolean success) {
+		secondWindow.record(costTime, success);
+		minuteWindow.record(costTime, success);
 	}
 
 	@Override
 	public String toString() {
+		int successCount = getSuccessCount();
+		int failCount = getFailCount();
+		long totalTime = getTotalTime();
 		return StrUtil.format(
-				"{}：{}({}|{})，{}|{}|{}",
+				"{}：{}({}|{})，{}|{}|{}，{}",
 				uniqueKey,
 				successCount + failCount, successCount, failCount,
-				totalTime, totalTime / (successCount + failCount), topCostTime
+				totalTime, totalTime / Math.max(successCount + failCount, 1), getTopCostTime(),
+				StrUtil.join("|", getPercentiles().values())
 		);
 	}
 
@@ -72,4 +323,48 @@ public class MethodStats implements Comparable<MethodStats> {
 	public int compareTo(MethodStats o) {
 		return this.getUniqueKey().compareTo(o.getUniqueKey());
 	}
+
+	/**
+	 * 一个统计区间的数据，写入时只由{@link WriterReaderPhaser}保护，区间切换后不再被修改
+	 */
+	private static class Interval {
+		private final LongAdder successCount = new LongAdder();
+		private final LongAdder failCount = new LongAdder();
+		private final LongAdder totalTime = new LongAdder();
+		private final AtomicLongArray topCostTime = new AtomicLongArray(TOP_COST_SIZE);
+		private final LatencyHistogram histogram = new LatencyHistogram();
+
+		private Interval() {
+			for (int i = 0; i < TOP_COST_SIZE; i++) {
+				topCostTime.set(i, EMPTY_SLOT);
+			}
+		}
+
+		private void record(long costTime, boolean success) {
+			if (success) {
+				successCount.increment();
+			} else {
+				failCount.increment();
+			}
+			totalTime.add(costTime);
+			histogram.record(costTime);
+			updateTimeRecord(costTime);
+		}
+
+		/**
+		 * 找到最小值所在的槽位，CAS替换；槽位被其他线程修改则重试
+		 */
+		private void updateTimeRecord(long costTime) {
+			while (true) {
+				int minIndex = CollectionUtil.minIndex(topCostTime);
+				long min = topCostTime.get(minIndex);
+				if (min >= costTime) {
+					return;
+				}
+				if (topCostTime.compareAndSet(minIndex, min, costTime)) {
+					return;
+				}
+			}
+		}
+	}
 }
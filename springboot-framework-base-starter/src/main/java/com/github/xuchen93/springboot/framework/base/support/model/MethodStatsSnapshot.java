@@ -0,0 +1,21 @@
+package com.github.xuchen93.springboot.framework.base.support.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 一个consume周期的统计快照
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MethodStatsSnapshot {
+	/**
+	 * consume时间
+	 */
+	private long timestamp;
+	private List<MethodStats> statsList;
+}
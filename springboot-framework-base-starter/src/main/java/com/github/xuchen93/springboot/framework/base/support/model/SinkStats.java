@@ -0,0 +1,23 @@
+package com.github.xuchen93.springboot.framework.base.support.model;
+
+import lombok.Data;
+
+/**
+ * sink的投递与积压情况
+ */
+@Data
+public class SinkStats {
+	private String name;
+	private int queueSize;
+	private int queueCapacity;
+	private long publishedCount;
+	/**
+	 * 队列已满被丢弃的快照数
+	 */
+	private long droppedCount;
+	private long failedCount;
+	/**
+	 * 最近一次输出耗时(ms)
+	 */
+	private long lastCostTime;
+}
@@ -0,0 +1,136 @@
+package com.github.xuchen93.springboot.framework.base.support.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 滑动时间窗口
+ * <p>环形数组，每个槽位统计slotSeconds秒内的数据，槽位以时间编号（当前时间/槽位时长）。
+ * 写入时发现槽位编号过期，由CAS抢占成功的线程清零后复用，其余线程自旋等待，全程无锁。
+ * 槽位的直方图在首次写入时才创建，很少调用的方法只占用写入过的槽位
+ */
+public class SlidingWindow {
+	/**
+	 * 槽位未使用
+	 */
+	private static final long EMPTY = Long.MIN_VALUE;
+	/**
+	 * 槽位正在被清零
+	 */
+	private static final long RESETTING = -1L;
+
+	private final long slotMillis;
+	private final Slot[] slots;
+	private final int subBucketBits;
+	private final int maxMagnitude;
+
+	/**
+	 * @param slotSeconds   每个槽位的时长
+	 * @param slotCount     槽位数，窗口最长为slotSeconds * slotCount
+	 * @param subBucketBits 槽位直方图精度，见{@link LatencyHistogram#LatencyHistogram(int, int)}
+	 * @param maxMagnitude  槽位直方图可区分的最大耗时，见{@link LatencyHistogram#LatencyHistogram(int, int)}
+	 */
+	public SlidingWindow(int slotSeconds, int slotCount, int subBucketBits, int maxMagnitude) {
+		this.slotMillis = slotSeconds * 1000L;
+		this.subBucketBits = subBucketBits;
+		this.maxMagnitude = maxMagnitude;
+		this.slots = new Slot[slotCount];
+		for (int i = 0; i < slotCount; i++) {
+			slots[i] = new Slot();
+		}
+	}
+
+	public void record(long costTime, boolean success) {
+		long slotId = System.currentTimeMillis() / slotMillis;
+		Slot slot = slots[(int) (slotId % slots.length)];
+		while (true) {
+			long id = slot.id.get();
+			if (id == slotId) {
+				slot.record(costTime, success);
+				return;
+			}
+			if (id == RESETTING) {
+				Thread.onSpinWait();
+				continue;
+			}
+			if (id > slotId) {
+				// 线程挂起超过一整圈，槽位已被新数据占用，丢弃
+				return;
+			}
+			if (slot.id.compareAndSet(id, RESETTING)) {
+				if (slot.histogram == null) {
+					slot.histogram = new LatencyHistogram(subBucketBits, maxMagnitude);
+				}
+				slot.reset();
+				slot.id.set(slotId);
+				slot.record(costTime, success);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * 汇总最近windowSlots个槽位（含当前未满的槽位），qps按实际覆盖的时长计算：
+	 * 前windowSlots - 1个完整槽位加上当前槽位已经过的时间
+	 */
+	public WindowStats getWindowStats(int windowSlots) {
+		if (windowSlots <= 0 || windowSlots > slots.length) {
+			throw new IllegalArgumentException("windowSlots超出范围：" + windowSlots);
+		}
+		long now = System.currentTimeMillis();
+		long currentSlotId = now / slotMillis;
+		LatencyHistogram merged = new LatencyHistogram(subBucketBits, maxMagnitude);
+		long[] snapshot = new long[merged.getBucketCount()];
+		long successCount = 0;
+		long failCount = 0;
+		long totalTime = 0;
+		for (Slot slot : slots) {
+			long id = slot.id.get();
+			if (id > currentSlotId - windowSlots && id <= currentSlotId) {
+				successCount += slot.successCount.sum();
+				failCount += slot.failCount.sum();
+				totalTime += slot.totalTime.sum();
+				slot.histogram.addTo(snapshot);
+			}
+		}
+		long windowSeconds = windowSlots * slotMillis / 1000;
+		long elapsedMillis = (windowSlots - 1) * slotMillis + now % slotMillis + 1;
+		WindowStats windowStats = new WindowStats();
+		windowStats.setWindowSeconds(windowSeconds);
+		windowStats.setSuccessCount(successCount);
+		windowStats.setFailCount(failCount);
+		windowStats.setTotalTime(totalTime);
+		windowStats.setQps((successCount + failCount) * 1000.0 / elapsedMillis);
+		windowStats.setAvgTime(totalTime / Math.max(successCount + failCount, 1));
+		windowStats.setPercentiles(merged.getDefaultPercentiles(snapshot));
+		return windowStats;
+	}
+
+	private static class Slot {
+		private final AtomicLong id = new AtomicLong(EMPTY);
+		private final LongAdder successCount = new LongAdder();
+		private final LongAdder failCount = new LongAdder();
+		private final LongAdder totalTime = new LongAdder();
+		/**
+		 * 抢占槽位的线程在发布id之前创建，读取方先读id再读直方图，可见性由id保证
+		 */
+		private LatencyHistogram histogram;
+
+		private void record(long costTime, boolean success) {
+			if (success) {
+				successCount.increment();
+			} else {
+				failCount.increment();
+			}
+			totalTime.add(costTime);
+			histogram.record(costTime);
+		}
+
+		private void reset() {
+			successCount.reset();
+			failCount.reset();
+			totalTime.reset();
+			histogram.reset();
+		}
+	}
+}
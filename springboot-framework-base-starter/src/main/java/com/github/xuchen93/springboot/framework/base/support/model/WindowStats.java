@@ -0,0 +1,34 @@
+package com.github.xuchen93.springboot.framework.base.support.model;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 滑动窗口统计结果
+ */
+@Data
+public class WindowStats {
+	private int type;
+	private String uniqueKey;
+	/**
+	 * 窗口时长，秒
+	 */
+	private long windowSeconds;
+	private long successCount;
+	private long failCount;
+	private long totalTime;
+	/**
+	 * 窗口内平均每秒调用次数
+	 */
+	private double qps;
+	private long avgTime;
+	/**
+	 * 耗时分位值(ms)：p50/p90/p99/p999
+	 */
+	private Map<String, Long> percentiles;
+
+	public boolean hasRecord() {
+		return successCount > 0 || failCount > 0;
+	}
+}
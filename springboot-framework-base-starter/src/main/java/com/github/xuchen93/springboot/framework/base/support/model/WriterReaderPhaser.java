@@ -0,0 +1,47 @@
+package com.github.xuchen93.springboot.framework.base.support.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 写者-读者相位器（参考HdrHistogram的WriterReaderPhaser）
+ * <p>写者进出临界区各做一次原子自增，无锁、无分配、不会被读者阻塞；
+ * 读者切换相位后等待所有进入旧相位的写者退出，此后旧相位的数据不会再被修改，可以精确读取。
+ * <p>读者之间需要外部互斥
+ */
+public class WriterReaderPhaser {
+	/**
+	 * 符号位表示当前相位：非负为偶相位，负数为奇相位
+	 */
+	private final AtomicLong startEpoch = new AtomicLong(0);
+	private final AtomicLong evenEndEpoch = new AtomicLong(0);
+	private final AtomicLong oddEndEpoch = new AtomicLong(Long.MIN_VALUE);
+
+	/**
+	 * 进入写临界区
+	 *
+	 * @return 需原样传给{@link #writerCriticalSectionExit(long)}
+	 */
+	public long writerCriticalSectionEnter() {
+		return startEpoch.getAndIncrement();
+	}
+
+	public void writerCriticalSectionExit(long criticalValueAtEnter) {
+		(criticalValueAtEnter < 0 ? oddEndEpoch : evenEndEpoch).getAndIncrement();
+	}
+
+	/**
+	 * 切换相位，并等待所有在旧相位进入临界区的写者退出
+	 * <p>调用前读者需已将写者引用切换到新的数据区，返回后旧数据区不再有写入
+	 */
+	public void flipPhase() {
+		boolean nextPhaseIsEven = startEpoch.get() < 0;
+		long initialStartValue = nextPhaseIsEven ? 0 : Long.MIN_VALUE;
+		(nextPhaseIsEven ? evenEndEpoch : oddEndEpoch).set(initialStartValue);
+		long startValueAtFlip = startEpoch.getAndSet(initialStartValue);
+		AtomicLong previousEndEpoch = nextPhaseIsEven ? oddEndEpoch : evenEndEpoch;
+		while (previousEndEpoch.get() != startValueAtFlip) {
+			// 写临界区很短，写者被挂起时让出CPU
+			Thread.yield();
+		}
+	}
+}
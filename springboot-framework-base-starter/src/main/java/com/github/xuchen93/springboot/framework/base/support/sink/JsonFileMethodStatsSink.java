@@ -0,0 +1,98 @@
+package com.github.xuchen93.springboot.framework.base.support.sink;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.xuchen93.springboot.framework.base.properties.BaseProperty;
+import com.github.xuchen93.springboot.framework.base.support.model.MethodStatsSnapshot;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 每个快照输出为一行JSON，追加到文件
+ * <p>文件超过jsonFileMaxSizeMb后按大小滚动，与访问日志相同：path -> path.1 -> path.2 ...，超过jsonFileMaxHistory的删除
+ */
+@Component
+@ConditionalOnProperty(prefix = BaseProperty.PROPERTY_PREFIX, name = "method-stats.sink.json-file-path")
+public class JsonFileMethodStatsSink implements MethodStatsSink {
+
+	private final ObjectMapper objectMapper = new ObjectMapper()
+			.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
+			.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+	private final Path path;
+	private final long maxFileSize;
+	private final int maxHistory;
+	private OutputStream outputStream;
+	/**
+	 * 当前文件的字节数
+	 */
+	private long fileSize;
+
+	public JsonFileMethodStatsSink(BaseProperty baseProperty) {
+		BaseProperty.MethodStatsSinkConfig config = baseProperty.getMethodStats().getSink();
+		this.path = Paths.get(config.getJsonFilePath());
+		this.maxFileSize = config.getJsonFileMaxSizeMb() * 1024L * 1024L;
+		this.maxHistory = config.getJsonFileMaxHistory();
+	}
+
+	@Override
+	public void publish(MethodStatsSnapshot snapshot) throws IOException {
+		byte[] line = objectMapper.writeValueAsBytes(snapshot);
+		if (outputStream == null) {
+			openFile();
+		}
+		outputStream.write(line);
+		outputStream.write('\n');
+		outputStream.flush();
+		fileSize += line.length + 1;
+		if (fileSize >= maxFileSize) {
+			rollFile();
+		}
+	}
+
+	private void openFile() throws IOException {
+		if (path.getParent() != null) {
+			Files.createDirectories(path.getParent());
+		}
+		outputStream = new BufferedOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+		fileSize = Files.size(path);
+	}
+
+	private void rollFile() throws IOException {
+		close();
+		for (int i = maxHistory - 1; i >= 1; i--) {
+			Path history = historyPath(i);
+			if (Files.exists(history)) {
+				Files.move(history, historyPath(i + 1), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		if (maxHistory > 0) {
+			Files.move(path, historyPath(1), StandardCopyOption.REPLACE_EXISTING);
+		} else {
+			Files.deleteIfExists(path);
+		}
+	}
+
+	private Path historyPath(int index) {
+		return path.resolveSibling(path.getFileName() + "." + index);
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (outputStream != null) {
+			OutputStream closing = outputStream;
+			outputStream = null;
+			closing.close();
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package com.github.xuchen93.springboot.framework.base.support.sink;
+
+import com.github.xuchen93.springboot.framework.base.properties.BaseProperty;
+import com.github.xuchen93.springboot.framework.base.support.manager.MethodStatsManager;
+import com.github.xuchen93.springboot.framework.base.support.model.MethodStats;
+import com.github.xuchen93.springboot.framework.base.support.model.MethodStatsSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * 按类型输出统计日志
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = BaseProperty.PROPERTY_PREFIX, name = "method-stats.sink.enable-log", havingValue = "true", matchIfMissing = true)
+public class LogMethodStatsSink implements MethodStatsSink {
+
+	@Override
+	public void publish(MethodStatsSnapshot snapshot) {
+		Map<Integer, List<MethodStats>> typeMap = snapshot.getStatsList().stream()
+				.collect(Collectors.groupingBy(MethodStats::getType, TreeMap::new, Collectors.toList()));
+		typeMap.forEach((type, statsList) -> {
+			String content = MethodStatsManager.buildLog(type, statsList);
+			if (content != null) {
+				log.info(content);
+			}
+		});
+	}
+}
@@ -0,0 +1,41 @@
+package com.github.xuchen93.springboot.framework.base.support.sink;
+
+import com.github.xuchen93.springboot.framework.base.properties.BaseProperty;
+import com.github.xuchen93.springboot.framework.base.support.model.MethodStatsSnapshot;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 在内存中保留最近N个快照，用于查询历史周期的统计
+ */
+@Component
+@ConditionalOnExpression("${xuchen93.framework.base.method-stats.sink.memory-capacity:0} > 0")
+public class MemoryMethodStatsSink implements MethodStatsSink {
+
+	private final int capacity;
+	private final Deque<MethodStatsSnapshot> snapshots = new ArrayDeque<>();
+
+	public MemoryMethodStatsSink(BaseProperty baseProperty) {
+		this.capacity = baseProperty.getMethodStats().getSink().getMemoryCapacity();
+	}
+
+	@Override
+	public synchronized void publish(MethodStatsSnapshot snapshot) {
+		if (snapshots.size() >= capacity) {
+			snapshots.pollFirst();
+		}
+		snapshots.addLast(snapshot);
+	}
+
+	/**
+	 * 最近的快照，按时间正序
+	 */
+	public synchronized List<MethodStatsSnapshot> getSnapshots() {
+		return new ArrayList<>(snapshots);
+	}
+}
@@ -0,0 +1,29 @@
+package com.github.xuchen93.springboot.framework.base.support.sink;
+
+import com.github.xuchen93.springboot.framework.base.support.model.MethodStatsSnapshot;
+
+/**
+ * 方法统计输出扩展点
+ * <p>业务系统实现该接口并注册为Bean即可接收每个周期consume出的统计快照。
+ * 快照在独立线程中异步投递，每个sink有自己的有界队列，慢sink不会阻塞记录路径和其他sink
+ */
+public interface MethodStatsSink {
+
+	/**
+	 * sink名称，用于日志和积压指标
+	 */
+	default String name() {
+		return getClass().getSimpleName();
+	}
+
+	/**
+	 * 输出一个周期的统计快照
+	 */
+	void publish(MethodStatsSnapshot snapshot) throws Exception;
+
+	/**
+	 * 应用关闭时，队列中的快照全部输出后调用
+	 */
+	default void close() throws Exception {
+	}
+}
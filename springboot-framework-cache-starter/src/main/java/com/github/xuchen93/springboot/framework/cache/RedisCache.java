@@ -12,6 +12,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public interface RedisCache {
     /**
@@ -35,6 +36,18 @@ public interface RedisCache {
      */
     <T> void put(String key, T t, long expireTime, TimeUnit timeUnit);
 
+    /**
+     * 添加缓存，过期时间按ttlJitterRatio随机延长，避免同时写入的key同时过期。
+     * 只用于缓存数据，令牌、限流窗口等需要精确过期时间的key使用{@link #put}
+     *
+     * @param key
+     * @param t
+     * @param expireTime
+     * @param timeUnit
+     * @param <T>
+     */
+    <T> void putWithJitter(String key, T t, long expireTime, TimeUnit timeUnit);
+
     /**
      * 获取过期时间
      *
@@ -78,6 +91,35 @@ public interface RedisCache {
      */
     <T> T get(String key);
 
+    /**
+     * GET 命令，不存在时调用loader加载并写入缓存
+     * 同一进程内同一个key并发未命中时只调用一次loader，其他线程等待并共用结果；loader返回null时不写入缓存。
+     * 等待超过loadWaitMillis时抛出QueryTimeoutException；loader中对同一个key递归调用时抛出IllegalStateException
+     *
+     * @param key
+     * @param loader
+     * @param expireTime
+     * @param timeUnit
+     * @param <T>
+     * @return
+     */
+    <T> T getOrLoad(String key, Supplier<T> loader, long expireTime, TimeUnit timeUnit);
+
+    /**
+     * GET 命令，不存在时调用loader加载并写入缓存
+     * 在进程内合并的基础上，通过Redisson锁合并多个节点的加载，leaseMillis为锁的租期，也是等待锁的最长时间，
+     * 超时未获取到锁时在本节点直接加载；leaseMillis小于等于0时只在进程内合并
+     *
+     * @param key
+     * @param loader
+     * @param expireTime
+     * @param timeUnit
+     * @param leaseMillis
+     * @param <T>
+     * @return
+     */
+    <T> T getOrLoad(String key, Supplier<T> loader, long expireTime, TimeUnit timeUnit, long leaseMillis);
+
     /**
      * GETSET 命令
      *
@@ -135,6 +177,53 @@ public interface RedisCache {
      */
     <T extends Number> Long decr(String key, T increment);
 
+    //=====================================================批量操作==================================//
+    // 以下批量操作按multiKeyBatchSize拆分，每批一次往返
+
+    /**
+     * MGET 命令，批量获取缓存，返回的Map按keys的顺序，不包含不存在的key
+     *
+     * @param keys
+     * @param <T>
+     * @return
+     */
+    <T> Map<String, T> mGet(Collection<String> keys);
+
+    /**
+     * 管道批量执行 SET key value PX 命令，批量添加缓存并设置过期时间。
+     * 用于批量预热缓存数据，与{@link #putWithJitter}相同，过期时间按ttlJitterRatio随机延长
+     *
+     * @param map
+     * @param expireTime
+     * @param timeUnit
+     */
+    void mSet(Map<String, ?> map, long expireTime, TimeUnit timeUnit);
+
+    /**
+     * 管道批量执行 HGETALL 命令，获取多个Map的所有键值对，返回的Map按keys的顺序，不包含不存在的key
+     *
+     * @param keys
+     * @param <T>
+     * @return
+     */
+    <T> Map<String, Map<String, T>> hGetAllMulti(Collection<String> keys);
+
+    /**
+     * 管道批量执行 EXISTS 命令，判断多个key是否存在
+     *
+     * @param keys
+     * @return
+     */
+    Map<String, Boolean> exists(Collection<String> keys);
+
+    /**
+     * UNLINK 命令，批量删除缓存，由Redis在后台线程回收内存，不阻塞其他命令
+     *
+     * @param keys
+     * @return 删除的数量
+     */
+    long unlink(Collection<String> keys);
+
     //======================================================= 操作Map类型======================================//
 
     /**
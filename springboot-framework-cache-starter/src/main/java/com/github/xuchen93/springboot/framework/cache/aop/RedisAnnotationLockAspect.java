@@ -68,7 +68,7 @@ public class RedisAnnotationLockAspect {
 			if (redisAnnotationLock.throwException()) {
 				String errMsg = parser.parseExpression(errorMsgExpression).getValue(context, String.class);
 				logDetail("获取：{} redis锁异常，抛出异常：{}", key, errMsg);
-				throw new BusinessException(errMsg);
+				throw BusinessException.stackless(errMsg);
 			}
 		}
 		if (!isLocked) {
@@ -77,7 +77,7 @@ public class RedisAnnotationLockAspect {
 				if (StringUtil.isNotBlank(errorMsgExpression)) {
 					String errMsg = parser.parseExpression(errorMsgExpression).getValue(context, String.class);
 					if (StringUtil.isNotBlank(errMsg)) {
-						throw new BusinessException(errMsg);
+						throw BusinessException.stackless(errMsg);
 					}
 				} else {
 					throw new IllegalStateException("获取锁失败! key: " + key);
@@ -4,7 +4,10 @@ import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.xuchen93.springboot.framework.base.common.CommonUtil;
 import com.github.xuchen93.springboot.framework.cache.constants.CacheConstants;
 import com.github.xuchen93.springboot.framework.cache.properties.CacheProperty;
+import com.github.xuchen93.springboot.framework.cache.redis.TtlJitter;
+import com.github.xuchen93.springboot.framework.cache.tiered.TieredCacheManager;
 import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
@@ -54,6 +57,9 @@ public class CacheManagerRegister implements ImportBeanDefinitionRegistrar, Bean
 		if (cacheProperty.getCaffeine().isEnableCacheManager()) {
 			registerCaffeineCacheManager(registry, cacheProperty.getCaffeine());
 		}
+		if (cacheProperty.getTiered().isEnable() && cacheProperty.getRedis().isEnable()) {
+			registerTieredCacheManager(registry, cacheProperty);
+		}
 	}
 
 	private void registerCaffeineCacheManager(BeanDefinitionRegistry registry, CacheProperty.CaffeineCacheManagerProperties caffeineConfig) {
@@ -89,35 +95,67 @@ public class CacheManagerRegister implements ImportBeanDefinitionRegistrar, Bean
 	private void registerRedisCacheManager(BeanDefinitionRegistry registry, CacheProperty.RedisProperties redis) {
 		String beanName = CacheConstants.CACHE_MANAGER_REDIS;
 		BeanDefinitionBuilder builder = BeanDefinitionBuilder.genericBeanDefinition(CacheManager.class, () -> {
-			// 获取已存在的RedisTemplate Bean
-			RedisTemplate<String, Object> redisTemplate = beanFactory.getBean(RedisTemplate.class);
-
-			// 2. 构建默认的Redis缓存配置
-			RedisCacheConfiguration defaultCacheConfiguration = RedisCacheConfiguration
-					.defaultCacheConfig()
-					// 设置key序列化器
-					.serializeKeysWith(RedisSerializationContext.SerializationPair
-							.fromSerializer(redisTemplate.getStringSerializer()))
-					// 设置value序列化器
-					.serializeValuesWith(RedisSerializationContext.SerializationPair
-							.fromSerializer(redisTemplate.getValueSerializer()))
-					.disableCachingNullValues()
-					// 设置缓存前缀
-					.computePrefixWith(k -> redis.getCacheManager().getKeyPrefix() + k)
-					// 设置默认过期时间
-					.entryTtl(Duration.ofSeconds(redis.getCacheManager().getExpireSeconds()));
-
-			// 3. 构建并返回RedisCacheManager
-			return RedisCacheManager.RedisCacheManagerBuilder
-					.fromConnectionFactory(redisTemplate.getConnectionFactory())
-					.cacheDefaults(defaultCacheConfiguration)
-					.transactionAware()
-					.build();
+			RedisCacheManager cacheManager = buildRedisCacheManager(redis);
+			cacheManager.setTransactionAware(true);
+			return cacheManager;
 		});
 		builder.setPrimary(redis.getCacheManager().isPrimary());
 		registry.registerBeanDefinition(beanName, builder.getBeanDefinition());
 		log.info(CommonUtil.createBeanMessage(beanName));
 	}
 
+	private RedisCacheManager buildRedisCacheManager(CacheProperty.RedisProperties redis) {
+		// 获取已存在的RedisTemplate Bean
+		RedisTemplate<String, Object> redisTemplate = beanFactory.getBean(RedisTemplate.class);
+
+		// 2. 构建默认的Redis缓存配置
+		RedisCacheConfiguration defaultCacheConfiguration = RedisCacheConfiguration
+				.defaultCacheConfig()
+				// 设置key序列化器
+				.serializeKeysWith(RedisSerializationContext.SerializationPair
+						.fromSerializer(redisTemplate.getStringSerializer()))
+				// 设置value序列化器
+				.serializeValuesWith(RedisSerializationContext.SerializationPair
+						.fromSerializer(redisTemplate.getValueSerializer()))
+				.disableCachingNullValues()
+				// 设置缓存前缀
+				.computePrefixWith(k -> redis.getCacheManager().getKeyPrefix() + k)
+				// 设置默认过期时间，按配置随机延长
+				.entryTtl((key, value) -> TtlJitter.jitter(Duration.ofSeconds(redis.getCacheManager().getExpireSeconds()), redis.getTtlJitterRatio()));
+
+		// 3. 构建并返回RedisCacheManager
+		return RedisCacheManager.RedisCacheManagerBuilder
+				.fromConnectionFactory(redisTemplate.getConnectionFactory())
+				.cacheDefaults(defaultCacheConfiguration)
+				.build();
+	}
+
+	private void registerTieredCacheManager(BeanDefinitionRegistry registry, CacheProperty cacheProperty) {
+		String beanName = CacheConstants.CACHE_MANAGER_TIERED;
+		CacheProperty.TieredCacheProperties tiered = cacheProperty.getTiered();
+		BeanDefinitionBuilder builder = BeanDefinitionBuilder.genericBeanDefinition(CacheManager.class, () -> {
+			// 一级缓存，与Redis一致不缓存null
+			CaffeineCacheManager localCacheManager = new CaffeineCacheManager();
+			localCacheManager.setAllowNullValues(false);
+			Caffeine<Object, Object> caffeine = Caffeine.newBuilder();
+			if (tiered.getLocalMaximumSize() > 0) {
+				caffeine.maximumSize(tiered.getLocalMaximumSize());
+			}
+			if (tiered.getLocalExpireSeconds() > 0) {
+				caffeine.expireAfterWrite(Duration.ofSeconds(tiered.getLocalExpireSeconds()));
+			}
+			localCacheManager.setCaffeine(caffeine);
+			// 二级缓存，单独构建，不依赖是否注册了Redis的CacheManager。一级缓存立即写入，二级缓存不随事务延迟提交
+			RedisCacheManager remoteCacheManager = buildRedisCacheManager(cacheProperty.getRedis());
+			remoteCacheManager.afterPropertiesSet();
+			RedissonClient redissonClient = beanFactory.getBean(RedissonClient.class);
+			TieredCacheManager cacheManager = new TieredCacheManager(localCacheManager, remoteCacheManager, redissonClient.getTopic(tiered.getChannel()));
+			cacheManager.subscribe();
+			return cacheManager;
+		});
+		builder.setPrimary(tiered.isPrimary());
+		registry.registerBeanDefinition(beanName, builder.getBeanDefinition());
+		log.info(CommonUtil.createBeanMessage(beanName));
+	}
 
 }
@@ -101,8 +101,8 @@ public class RedisConfiguration {
 	}
 
 	@Bean
-	public RedisCacheProxy redisCacheProxy(RedisTemplate<String, Object> redisTemplate, RedissonClient redissonClient) {
-		return new RedisCacheProxy(redisTemplate, redissonClient);
+	public RedisCacheProxy redisCacheProxy(RedisTemplate<String, Object> redisTemplate, RedissonClient redissonClient, CacheProperty cacheProperty) {
+		return new RedisCacheProxy(redisTemplate, redissonClient, cacheProperty.getRedis());
 	}
 
 }
@@ -5,4 +5,5 @@ public class CacheConstants {
 	public static final String CACHE_MANAGER_BEAN_NAME_PREFIX = "cacheManager";
 	public static final String CACHE_MANAGER_REDIS = CACHE_MANAGER_BEAN_NAME_PREFIX + "Redis";
 	public static final String CACHE_MANAGER_CAFFEINE = CACHE_MANAGER_BEAN_NAME_PREFIX + "Caffeine";
+	public static final String CACHE_MANAGER_TIERED = CACHE_MANAGER_BEAN_NAME_PREFIX + "Tiered";
 }
@@ -16,6 +16,8 @@ public class CacheProperty {
 
 	private RedisProperties redis = new RedisProperties();
 
+	private TieredCacheProperties tiered = new TieredCacheProperties();
+
 	/**
 	 * Caffeine缓存配置属性类
 	 * <p>
@@ -68,11 +70,59 @@ public class CacheProperty {
 		 * 打印注解锁的详细日志
 		 */
 		private boolean enableLockDetail = false;
+		/**
+		 * 过期时间的随机延长比例，取值0~1，如0.1表示在原过期时间上随机增加0~10%，避免批量写入的key同时过期。
+		 * 作用于RedisCache.putWithJitter、getOrLoad、mSet和Redis的CacheManager，不影响put，0为不延长
+		 */
+		private double ttlJitterRatio = 0;
+		/**
+		 * getOrLoad提前刷新的系数，越大越早刷新，一般取1。
+		 * 开启后记录每个key的加载耗时和过期时间，临近过期时按概率由单个请求提前加载，0为不提前刷新
+		 */
+		private double earlyRefreshBeta = 0;
+		/**
+		 * getOrLoad等待同一进程内其他线程加载的最长时间，单位毫秒，指定了leaseMillis时再加上leaseMillis。
+		 * 超时抛出QueryTimeoutException，避免loader卡住时所有等待的线程一直阻塞
+		 */
+		private long loadWaitMillis = 5000;
+		/**
+		 * mGet、mSet等批量操作每批的key数量，超过时自动拆分为多次执行
+		 */
+		private int multiKeyBatchSize = 500;
+
+		private AutoBatchProperties autoBatch = new AutoBatchProperties();
 
 		private RedisCacheProperties cacheManager = new RedisCacheProperties();
 
 	}
 
+	/**
+	 * 自动批量：多个线程并发发出的GET、HGET在一个时间窗口内合并为一次管道执行，各线程拿到各自的结果
+	 */
+	@Data
+	public static class AutoBatchProperties {
+		/**
+		 * 是否启用自动批量
+		 */
+		private boolean enable = false;
+		/**
+		 * 收到第一条命令后最多等待的时间，单位微秒。0为不等待，只合并上一次管道执行期间积累的命令
+		 */
+		private long windowMicros = 100;
+		/**
+		 * 一次管道最多的命令数，达到后立即执行
+		 */
+		private int maxBatchSize = 128;
+		/**
+		 * 执行管道的线程数，一个管道等待响应时其他线程可继续收集和发送下一批
+		 */
+		private int flushThreads = 2;
+		/**
+		 * 等待结果的最长时间，单位毫秒
+		 */
+		private long timeoutMillis = 3000;
+	}
+
 	@Data
 	public static class RedisCacheProperties {
 		/**
@@ -94,4 +144,33 @@ public class CacheProperty {
 		private long expireSeconds = 3600;
 	}
 
+	/**
+	 * 二级缓存：本地Caffeine为一级，Redis为二级，写入和删除通过Redis发布订阅通知其他节点清除一级缓存
+	 * <p>
+	 * 二级缓存的key前缀、过期时间使用{@code redis.cache-manager}的配置，需引入Caffeine依赖并启用Redis
+	 */
+	@Data
+	public static class TieredCacheProperties {
+		/**
+		 * 是否启用二级缓存
+		 */
+		private boolean enable = false;
+		/**
+		 * 二级缓存的CacheManager是否是primary，开启时需关闭其他CacheManager的primary
+		 */
+		private boolean primary = false;
+		/**
+		 * 失效通知的发布订阅频道
+		 */
+		private String channel = "cache:tiered:invalidate";
+		/**
+		 * 一级缓存每个cache的最大条数
+		 */
+		private int localMaximumSize = 10000;
+		/**
+		 * 一级缓存写入后的过期时间，单位秒。失效通知丢失时，本地数据最多保留该时长
+		 */
+		private long localExpireSeconds = 60;
+	}
+
 }
@@ -1,13 +1,16 @@
 package com.github.xuchen93.springboot.framework.cache.redis;
 
 import com.github.xuchen93.springboot.framework.cache.RedisCache;
+import com.github.xuchen93.springboot.framework.cache.properties.CacheProperty;
 import jakarta.validation.constraints.NotBlank;
-import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisSystemException;
 import org.springframework.data.redis.connection.BitFieldSubCommands;
 import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.RedisCallback;
@@ -17,22 +20,72 @@ import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.ZSetOperations;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Slf4j
-@RequiredArgsConstructor
-public final class RedisCacheProxy implements RedisCache {
+public final class RedisCacheProxy implements RedisCache, DisposableBean {
+
+	/**
+	 * getOrLoad跨节点合并加载时使用的锁前缀
+	 */
+	public static final String LOAD_LOCK_PREFIX = "lock:load:";
+	/**
+	 * 开启提前刷新时，getOrLoad记录加载耗时和过期时间的key后缀
+	 */
+	public static final String EARLY_REFRESH_SUFFIX = ":xfetch";
 
 	private final RedisTemplate<String, Object> redisTemplate;
 	private final RedissonClient redissonClient;
+	private final CacheProperty.RedisProperties redisProperties;
+
+	/**
+	 * 正在加载的key，同一进程内的并发未命中共用一次加载
+	 */
+	private final Map<String, CompletableFuture<Object>> loadingMap = new ConcurrentHashMap<>();
+	/**
+	 * 当前线程正在调用loader的key，用于发现loader中对同一个key的递归getOrLoad
+	 */
+	private final ThreadLocal<Set<String>> loadingKeys = ThreadLocal.withInitial(HashSet::new);
+
+	/**
+	 * 未开启自动批量时为null
+	 */
+	private final RedisCommandBatcher commandBatcher;
+
+	public RedisCacheProxy(RedisTemplate<String, Object> redisTemplate, RedissonClient redissonClient, CacheProperty.RedisProperties redisProperties) {
+		this.redisTemplate = redisTemplate;
+		this.redissonClient = redissonClient;
+		this.redisProperties = redisProperties;
+		this.commandBatcher = redisProperties.getAutoBatch().isEnable() ? new RedisCommandBatcher(redisTemplate, redisProperties.getAutoBatch()) : null;
+	}
+
+	public RedisCommandBatcher getCommandBatcher() {
+		return commandBatcher;
+	}
+
+	@Override
+	public void destroy() {
+		if (commandBatcher != null) {
+			commandBatcher.close();
+		}
+	}
 
 	//=======================================================通用RedisCache操作=======================================================
 	@Override
@@ -78,13 +131,182 @@ public final class RedisCacheProxy implements RedisCache {
 		redisTemplate.opsForValue().set(key, t, expireTime, timeUnit);
 	}
 
+	@Override
+	public <T> void putWithJitter(String key, T t, long expireTime, TimeUnit timeUnit) {
+		if (redisProperties.getTtlJitterRatio() > 0) {
+			redisTemplate.opsForValue().set(key, t, TtlJitter.jitter(timeUnit.toMillis(expireTime), redisProperties.getTtlJitterRatio()), TimeUnit.MILLISECONDS);
+		} else {
+			put(key, t, expireTime, timeUnit);
+		}
+	}
+
 	@Override
 	public <T> T get(@NotBlank String key) {
+		if (commandBatcher != null) {
+			return (T) commandBatcher.execute(operations -> operations.opsForValue().get(key));
+		}
 		return Optional.ofNullable(redisTemplate.opsForValue().get(key))
 				.map(v -> (T) v)
 				.orElse(null);
 	}
 
+	@Override
+	public <T> T getOrLoad(@NotBlank String key, Supplier<T> loader, long expireTime, TimeUnit timeUnit) {
+		return getOrLoad(key, loader, expireTime, timeUnit, 0);
+	}
+
+	@Override
+	public <T> T getOrLoad(@NotBlank String key, Supplier<T> loader, long expireTime, TimeUnit timeUnit, long leaseMillis) {
+		T value;
+		if (redisProperties.getEarlyRefreshBeta() > 0) {
+			// 值和加载信息一次MGET读取
+			List<Object> values = redisTemplate.opsForValue().multiGet(List.of(key, key + EARLY_REFRESH_SUFFIX));
+			value = values == null ? null : (T) values.get(0);
+			if (value != null && (!shouldRefreshEarly(key, values.get(1)) || loadingMap.containsKey(key))) {
+				// 未到刷新时机，或已有线程在提前刷新，继续使用旧值
+				return value;
+			}
+		} else {
+			value = get(key);
+			if (value != null) {
+				return value;
+			}
+		}
+		CompletableFuture<Object> future = new CompletableFuture<>();
+		CompletableFuture<Object> loading = loadingMap.putIfAbsent(key, future);
+		if (loading != null) {
+			if (value != null) {
+				return value;
+			}
+			if (loadingKeys.get().contains(key)) {
+				// 等待自己的加载结果会一直阻塞
+				throw new IllegalStateException("getOrLoad的loader中递归加载同一个key:[" + key + "]");
+			}
+			return (T) await(key, loading, leaseMillis);
+		}
+		Set<String> keys = loadingKeys.get();
+		keys.add(key);
+		try {
+			T loaded = leaseMillis > 0 ? loadWithLock(key, loader, expireTime, timeUnit, leaseMillis, value) : load(key, loader, expireTime, timeUnit, value);
+			future.complete(loaded);
+			return loaded;
+		} catch (Throwable e) {
+			future.completeExceptionally(e);
+			throw e;
+		} finally {
+			keys.remove(key);
+			loadingMap.remove(key, future);
+		}
+	}
+
+	/**
+	 * XFetch：now - delta * beta * ln(rand) >= expireAt 时提前刷新，加载耗时越长、越接近过期，刷新概率越大
+	 * <p>加载信息格式不正确(其他程序写入、序列化方式变更等)时不提前刷新，并删除该加载信息，下次加载后重新写入
+	 */
+	private boolean shouldRefreshEarly(String key, Object meta) {
+		if (meta == null) {
+			return false;
+		}
+		long delta;
+		long expireAt;
+		try {
+			String str = (String) meta;
+			int index = str.indexOf(',');
+			if (index < 0) {
+				throw new IllegalArgumentException("缺少分隔符");
+			}
+			delta = Long.parseLong(str.substring(0, index));
+			expireAt = Long.parseLong(str.substring(index + 1));
+		} catch (ClassCastException | IllegalArgumentException e) {
+			log.warn("提前刷新的加载信息格式错误，已删除，key:[{}]，meta:[{}]", key, meta);
+			redisTemplate.delete(key + EARLY_REFRESH_SUFFIX);
+			return false;
+		}
+		double gap = delta * redisProperties.getEarlyRefreshBeta() * -Math.log(ThreadLocalRandom.current().nextDouble());
+		return System.currentTimeMillis() + gap >= expireAt;
+	}
+
+	/**
+	 * 获取到锁后再查一次缓存，持有锁的节点写入后其他节点直接读取；
+	 * 提前刷新时不等待锁，其他节点正在刷新则继续使用旧值
+	 */
+	@SneakyThrows
+	private <T> T loadWithLock(String key, Supplier<T> loader, long expireTime, TimeUnit timeUnit, long leaseMillis, T stale) {
+		RLock lock = redissonClient.getLock(LOAD_LOCK_PREFIX + key);
+		if (!lock.tryLock(stale == null ? leaseMillis : 0, leaseMillis, TimeUnit.MILLISECONDS)) {
+			if (stale != null) {
+				return stale;
+			}
+			log.warn("getOrLoad等待锁超时，本节点直接加载，key:[{}]", key);
+			return load(key, loader, expireTime, timeUnit, null);
+		}
+		try {
+			return load(key, loader, expireTime, timeUnit, stale);
+		} finally {
+			if (lock.isHeldByCurrentThread()) {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * 排队期间其他线程或节点可能已经写入，先查一次再调用loader；stale不为null时为提前刷新，直接调用loader
+	 */
+	private <T> T load(String key, Supplier<T> loader, long expireTime, TimeUnit timeUnit, T stale) {
+		if (stale == null) {
+			T value = get(key);
+			if (value != null) {
+				return value;
+			}
+		}
+		long loadStart = System.currentTimeMillis();
+		T value = loader.get();
+		if (value != null) {
+			write(key, value, System.currentTimeMillis() - loadStart, timeUnit.toMillis(expireTime));
+		}
+		return value;
+	}
+
+	/**
+	 * 开启提前刷新时，在key + EARLY_REFRESH_SUFFIX中记录"加载耗时,过期时间戳"，与值的过期时间相同
+	 */
+	private void write(String key, Object value, long delta, long ttlMillis) {
+		long jitterTtl = TtlJitter.jitter(ttlMillis, redisProperties.getTtlJitterRatio());
+		if (redisProperties.getEarlyRefreshBeta() <= 0) {
+			redisTemplate.opsForValue().set(key, value, jitterTtl, TimeUnit.MILLISECONDS);
+			return;
+		}
+		String meta = delta + "," + (System.currentTimeMillis() + jitterTtl);
+		this.<Object>pipelined(operations -> {
+			operations.opsForValue().set(key, value, jitterTtl, TimeUnit.MILLISECONDS);
+			operations.opsForValue().set(key + EARLY_REFRESH_SUFFIX, meta, jitterTtl, TimeUnit.MILLISECONDS);
+		});
+	}
+
+	/**
+	 * 等待其他线程的加载结果，loader的异常原样抛出
+	 */
+	private Object await(String key, CompletableFuture<Object> future, long leaseMillis) {
+		long timeoutMillis = redisProperties.getLoadWaitMillis() + Math.max(leaseMillis, 0);
+		try {
+			return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			if (cause instanceof Error error) {
+				throw error;
+			}
+			throw new IllegalStateException("getOrLoad加载失败，key:[" + key + "]", cause);
+		} catch (TimeoutException e) {
+			throw new QueryTimeoutException("getOrLoad等待加载超过" + timeoutMillis + "ms，key:[" + key + "]", e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RedisSystemException("getOrLoad等待加载时被中断，key:[" + key + "]", e);
+		}
+	}
+
 	@Override
 	public <T> T getSet(@NotBlank String key, Object newValue) {
 
@@ -120,6 +342,87 @@ public final class RedisCacheProxy implements RedisCache {
 		return redisTemplate.opsForValue().decrement(key, increment.longValue());
 	}
 
+	//=======================================================批量操作=======================================================
+	@Override
+	public <T> Map<String, T> mGet(Collection<String> keys) {
+		Map<String, T> result = new LinkedHashMap<>();
+		for (List<String> chunk : chunk(keys)) {
+			List<Object> values = redisTemplate.opsForValue().multiGet(chunk);
+			for (int i = 0; values != null && i < chunk.size(); i++) {
+				if (values.get(i) != null) {
+					result.put(chunk.get(i), (T) values.get(i));
+				}
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public void mSet(Map<String, ?> map, long expireTime, TimeUnit timeUnit) {
+		if (map == null || map.isEmpty()) {
+			return;
+		}
+		long ttlMillis = timeUnit.toMillis(expireTime);
+		for (List<String> chunk : chunk(map.keySet())) {
+			this.<Object>pipelined(operations -> {
+				for (String key : chunk) {
+					operations.opsForValue().set(key, map.get(key), TtlJitter.jitter(ttlMillis, redisProperties.getTtlJitterRatio()), TimeUnit.MILLISECONDS);
+				}
+			});
+		}
+	}
+
+	@Override
+	public <T> Map<String, Map<String, T>> hGetAllMulti(Collection<String> keys) {
+		Map<String, Map<String, T>> result = new LinkedHashMap<>();
+		for (List<String> chunk : chunk(keys)) {
+			List<Object> values = this.<Object>pipelined(operations -> chunk.forEach(key -> operations.opsForHash().entries(key)));
+			for (int i = 0; i < chunk.size(); i++) {
+				if (values.get(i) instanceof Map<?, ?> map && !map.isEmpty()) {
+					result.put(chunk.get(i), (Map<String, T>) map);
+				}
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public Map<String, Boolean> exists(Collection<String> keys) {
+		Map<String, Boolean> result = new LinkedHashMap<>();
+		for (List<String> chunk : chunk(keys)) {
+			List<Object> values = this.<Object>pipelined(operations -> chunk.forEach(operations::hasKey));
+			for (int i = 0; i < chunk.size(); i++) {
+				result.put(chunk.get(i), Boolean.TRUE.equals(values.get(i)));
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public long unlink(Collection<String> keys) {
+		long count = 0;
+		for (List<String> chunk : chunk(keys)) {
+			count += Optional.ofNullable(redisTemplate.unlink(chunk)).orElse(0L);
+		}
+		return count;
+	}
+
+	/**
+	 * 去重后按multiKeyBatchSize拆分
+	 */
+	private List<List<String>> chunk(Collection<String> keys) {
+		if (keys == null || keys.isEmpty()) {
+			return List.of();
+		}
+		List<String> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+		int batchSize = Math.max(redisProperties.getMultiKeyBatchSize(), 1);
+		List<List<String>> chunks = new ArrayList<>((distinctKeys.size() + batchSize - 1) / batchSize);
+		for (int i = 0; i < distinctKeys.size(); i += batchSize) {
+			chunks.add(distinctKeys.subList(i, Math.min(i + batchSize, distinctKeys.size())));
+		}
+		return chunks;
+	}
+
 	@Override
 	public void hSet(@NotBlank String key, String field, Object value) {
 		redisTemplate.opsForHash().put(key, field, value);
@@ -132,6 +435,9 @@ public final class RedisCacheProxy implements RedisCache {
 
 	@Override
 	public <T> T hGet(@NotBlank String key, String field) {
+		if (commandBatcher != null && field != null) {
+			return (T) commandBatcher.execute(operations -> operations.opsForHash().get(key, field));
+		}
 		return Optional.ofNullable(field)
 				.map(f -> (T) redisTemplate.opsForHash().get(key, f))
 				.orElse(null);
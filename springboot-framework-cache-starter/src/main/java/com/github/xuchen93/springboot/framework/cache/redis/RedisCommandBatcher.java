@@ -0,0 +1,228 @@
+package com.github.xuchen93.springboot.framework.cache.redis;
+
+import com.github.xuchen93.springboot.framework.cache.properties.CacheProperty;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 自动批量：调用线程把命令放入队列后等待结果，后台线程把一个时间窗口内（或达到maxBatchSize）的命令合并为一次管道执行，
+ * 按顺序把结果交还给各调用线程。多个后台线程共用队列，一个管道等待响应时其他线程继续收集下一批
+ * <p>
+ * 每条命令在管道中必须恰好产生一个结果，且结果用RedisTemplate的valueSerializer反序列化
+ */
+@Slf4j
+public class RedisCommandBatcher implements AutoCloseable {
+
+	private static final String CLOSED_MESSAGE = "RedisCommandBatcher已关闭";
+
+	private final RedisTemplate<String, Object> redisTemplate;
+	private final long windowNanos;
+	private final int maxBatchSize;
+	private final long timeoutMillis;
+	private final BlockingQueue<Command> queue = new LinkedBlockingQueue<>();
+	private final List<Thread> flushThreads = new ArrayList<>();
+	private volatile boolean running = true;
+
+	private final AtomicLong commandCount = new AtomicLong();
+	private final AtomicLong flushCount = new AtomicLong();
+
+	public RedisCommandBatcher(RedisTemplate<String, Object> redisTemplate, CacheProperty.AutoBatchProperties autoBatch) {
+		this.redisTemplate = redisTemplate;
+		this.windowNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(autoBatch.getWindowMicros(), 0));
+		this.maxBatchSize = Math.max(autoBatch.getMaxBatchSize(), 1);
+		this.timeoutMillis = autoBatch.getTimeoutMillis();
+		for (int i = 0; i < Math.max(autoBatch.getFlushThreads(), 1); i++) {
+			Thread flushThread = new Thread(this::flushLoop, "redis-auto-batch-" + i);
+			flushThread.setDaemon(true);
+			flushThread.start();
+			flushThreads.add(flushThread);
+		}
+	}
+
+	/**
+	 * 提交一条命令并等待结果，command在管道中对传入的RedisOperations发出一条命令
+	 *
+	 * @throws QueryTimeoutException 超过timeoutMillis未返回结果
+	 * @throws IllegalStateException 已关闭
+	 */
+	public Object execute(Consumer<RedisOperations<String, Object>> command) {
+		if (!running) {
+			throw new IllegalStateException(CLOSED_MESSAGE);
+		}
+		Command cmd = new Command(command, new CompletableFuture<>());
+		queue.add(cmd);
+		// 与close()并发时，close()清理队列后放入的命令由这里移除，不再等待到超时
+		if (!running && queue.remove(cmd)) {
+			throw new IllegalStateException(CLOSED_MESSAGE);
+		}
+		try {
+			return cmd.future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			if (cause instanceof Error error) {
+				throw error;
+			}
+			throw new RedisSystemException("自动批量执行失败", cause);
+		} catch (TimeoutException e) {
+			cmd.future.cancel(false);
+			throw new QueryTimeoutException("自动批量等待结果超过" + timeoutMillis + "ms", e);
+		} catch (InterruptedException e) {
+			cmd.future.cancel(false);
+			Thread.currentThread().interrupt();
+			throw new RedisSystemException("等待自动批量结果时被中断", e);
+		}
+	}
+
+	public long getCommandCount() {
+		return commandCount.get();
+	}
+
+	/**
+	 * 执行管道的次数，commandCount / flushCount 为平均每批的命令数
+	 */
+	public long getFlushCount() {
+		return flushCount.get();
+	}
+
+	private void flushLoop() {
+		List<Command> batch = new ArrayList<>(maxBatchSize);
+		while (running) {
+			try {
+				Command first = queue.poll(100, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				queue.drainTo(batch, maxBatchSize - batch.size());
+				long deadline = System.nanoTime() + windowNanos;
+				while (batch.size() < maxBatchSize) {
+					long remaining = deadline - System.nanoTime();
+					if (remaining <= 0) {
+						break;
+					}
+					Command next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+					if (next == null) {
+						break;
+					}
+					batch.add(next);
+					queue.drainTo(batch, maxBatchSize - batch.size());
+				}
+				flush(batch);
+			} catch (InterruptedException e) {
+				// 关闭时收集到一半的命令不再执行
+				failAll(batch);
+				Thread.currentThread().interrupt();
+				break;
+			} catch (Throwable e) {
+				log.error("自动批量执行失败", e);
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	private void failAll(List<Command> commands) {
+		for (Command cmd : commands) {
+			cmd.future.completeExceptionally(new IllegalStateException(CLOSED_MESSAGE));
+		}
+	}
+
+	private void flush(List<Command> batch) {
+		List<Object> results;
+		try {
+			results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+				@Override
+				@SuppressWarnings("unchecked")
+				public Object execute(RedisOperations operations) throws DataAccessException {
+					for (Command cmd : batch) {
+						cmd.command.accept(operations);
+					}
+					return null;
+				}
+			});
+		} catch (RedisPipelineException e) {
+			// 部分命令失败：其余命令的结果仍然有效，只有失败的命令收到各自的异常
+			results = deserializePipelineResult(e);
+		} catch (Throwable e) {
+			for (Command cmd : batch) {
+				cmd.future.completeExceptionally(e);
+			}
+			return;
+		}
+		commandCount.addAndGet(batch.size());
+		flushCount.incrementAndGet();
+		for (int i = 0; i < batch.size(); i++) {
+			Object result = i < results.size() ? results.get(i) : null;
+			if (result instanceof Throwable throwable) {
+				batch.get(i).future.completeExceptionally(throwable);
+			} else {
+				batch.get(i).future.complete(result);
+			}
+		}
+	}
+
+	/**
+	 * RedisPipelineException中是未经反序列化的原始结果，与executePipelined一致地用valueSerializer反序列化，
+	 * 失败的命令对应位置为异常对象
+	 */
+	private List<Object> deserializePipelineResult(RedisPipelineException e) {
+		RedisSerializer<?> valueSerializer = redisTemplate.getValueSerializer();
+		List<Object> results = new ArrayList<>(e.getPipelineResult().size());
+		for (Object raw : e.getPipelineResult()) {
+			results.add(deserialize(raw, valueSerializer));
+		}
+		return results;
+	}
+
+	private static Object deserialize(Object raw, RedisSerializer<?> valueSerializer) {
+		if (valueSerializer == null) {
+			return raw;
+		}
+		if (raw instanceof byte[] bytes) {
+			return valueSerializer.deserialize(bytes);
+		}
+		if (raw instanceof Collection<?> collection && !collection.isEmpty() && collection.iterator().next() instanceof byte[]) {
+			List<Object> values = new ArrayList<>(collection.size());
+			for (Object element : collection) {
+				values.add(element instanceof byte[] bytes ? valueSerializer.deserialize(bytes) : element);
+			}
+			return values;
+		}
+		return raw;
+	}
+
+	@Override
+	public void close() {
+		running = false;
+		flushThreads.forEach(Thread::interrupt);
+		// 未执行的命令立即失败，调用线程不必等待到超时
+		List<Command> pending = new ArrayList<>();
+		queue.drainTo(pending);
+		failAll(pending);
+	}
+
+	private record Command(Consumer<RedisOperations<String, Object>> command, CompletableFuture<Object> future) {
+	}
+}
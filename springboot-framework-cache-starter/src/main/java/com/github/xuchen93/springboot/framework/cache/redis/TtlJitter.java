@@ -0,0 +1,28 @@
+package com.github.xuchen93.springboot.framework.cache.redis;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 过期时间随机延长，避免同一批写入的key在同一时刻过期
+ */
+public final class TtlJitter {
+
+	private TtlJitter() {
+	}
+
+	/**
+	 * 在ttlMillis上随机增加[0, ttlMillis * ratio]
+	 */
+	public static long jitter(long ttlMillis, double ratio) {
+		if (ratio <= 0 || ttlMillis <= 0) {
+			return ttlMillis;
+		}
+		long bound = (long) (ttlMillis * Math.min(ratio, 1));
+		return bound <= 0 ? ttlMillis : ttlMillis + ThreadLocalRandom.current().nextLong(bound + 1);
+	}
+
+	public static Duration jitter(Duration ttl, double ratio) {
+		return ratio <= 0 ? ttl : Duration.ofMillis(jitter(ttl.toMillis(), ratio));
+	}
+}
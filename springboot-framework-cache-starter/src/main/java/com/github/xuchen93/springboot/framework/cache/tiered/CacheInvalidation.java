@@ -0,0 +1,25 @@
+package com.github.xuchen93.springboot.framework.cache.tiered;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 二级缓存的失效通知，key为null时清空整个cache
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidation implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * 发送通知的节点，节点忽略自己发出的通知
+	 */
+	private String nodeId;
+	private String cacheName;
+	private Object key;
+}
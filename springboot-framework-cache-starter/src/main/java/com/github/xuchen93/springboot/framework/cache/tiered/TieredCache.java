@@ -0,0 +1,151 @@
+package com.github.xuchen93.springboot.framework.cache.tiered;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 二级缓存，先读本地缓存，未命中时读Redis并回填本地缓存
+ * <p>
+ * 写入和删除先操作Redis再操作本地缓存，然后通知其他节点清除本地缓存
+ */
+public class TieredCache implements Cache {
+
+	private final String name;
+	private final Cache localCache;
+	private final Cache remoteCache;
+	private final TieredCacheManager cacheManager;
+
+	TieredCache(String name, Cache localCache, Cache remoteCache, TieredCacheManager cacheManager) {
+		this.name = name;
+		this.localCache = localCache;
+		this.remoteCache = remoteCache;
+		this.cacheManager = cacheManager;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public Object getNativeCache() {
+		return this;
+	}
+
+	public Cache getLocalCache() {
+		return localCache;
+	}
+
+	public Cache getRemoteCache() {
+		return remoteCache;
+	}
+
+	@Override
+	public ValueWrapper get(Object key) {
+		ValueWrapper wrapper = localCache.get(key);
+		if (wrapper != null) {
+			return wrapper;
+		}
+		wrapper = remoteCache.get(key);
+		if (wrapper != null && wrapper.get() != null) {
+			localCache.put(key, wrapper.get());
+		}
+		return wrapper;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Class<T> type) {
+		ValueWrapper wrapper = get(key);
+		Object value = wrapper == null ? null : wrapper.get();
+		if (value != null && type != null && !type.isInstance(value)) {
+			throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+		}
+		return (T) value;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		ValueWrapper wrapper = localCache.get(key);
+		if (wrapper != null) {
+			return (T) wrapper.get();
+		}
+		AtomicBoolean loaded = new AtomicBoolean();
+		// 本地缓存按key加锁，同一节点并发未命中时只有一个线程访问Redis
+		T value = localCache.get(key, () -> remoteCache.get(key, () -> {
+			loaded.set(true);
+			return valueLoader.call();
+		}));
+		if (loaded.get()) {
+			// 其他节点的本地缓存可能还保留着Redis中已过期的旧值
+			cacheManager.publish(name, key);
+		}
+		return value;
+	}
+
+	@Override
+	public void put(Object key, Object value) {
+		remoteCache.put(key, value);
+		localCache.put(key, value);
+		cacheManager.publish(name, key);
+	}
+
+	@Override
+	public ValueWrapper putIfAbsent(Object key, Object value) {
+		ValueWrapper existing = remoteCache.putIfAbsent(key, value);
+		if (existing == null) {
+			localCache.put(key, value);
+			cacheManager.publish(name, key);
+			return null;
+		}
+		if (existing.get() != null) {
+			localCache.put(key, existing.get());
+		}
+		return new SimpleValueWrapper(existing.get());
+	}
+
+	@Override
+	public void evict(Object key) {
+		remoteCache.evict(key);
+		localCache.evict(key);
+		cacheManager.publish(name, key);
+	}
+
+	@Override
+	public boolean evictIfPresent(Object key) {
+		boolean present = remoteCache.evictIfPresent(key);
+		localCache.evict(key);
+		cacheManager.publish(name, key);
+		return present;
+	}
+
+	@Override
+	public void clear() {
+		remoteCache.clear();
+		localCache.clear();
+		cacheManager.publish(name, null);
+	}
+
+	@Override
+	public boolean invalidate() {
+		boolean present = remoteCache.invalidate();
+		localCache.invalidate();
+		cacheManager.publish(name, null);
+		return present;
+	}
+
+	/**
+	 * 收到其他节点的通知时只清除本地缓存
+	 */
+	void evictLocal(Object key) {
+		if (key == null) {
+			localCache.clear();
+		} else {
+			localCache.evict(key);
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package com.github.xuchen93.springboot.framework.cache.tiered;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 二级缓存管理器，本地CacheManager为一级，Redis的CacheManager为二级
+ * <p>
+ * 写入和删除通过Redis发布订阅通知其他节点，收到通知的节点只清除一级缓存，下次读取时从Redis回填
+ */
+@Slf4j
+public class TieredCacheManager implements CacheManager, DisposableBean {
+
+	private final CacheManager localCacheManager;
+	private final CacheManager remoteCacheManager;
+	private final RTopic topic;
+	private final String nodeId = UUID.randomUUID().toString();
+	private final ConcurrentMap<String, TieredCache> cacheMap = new ConcurrentHashMap<>();
+	private Integer listenerId;
+
+	public TieredCacheManager(CacheManager localCacheManager, CacheManager remoteCacheManager, RTopic topic) {
+		this.localCacheManager = localCacheManager;
+		this.remoteCacheManager = remoteCacheManager;
+		this.topic = topic;
+	}
+
+	/**
+	 * 订阅失效通知
+	 */
+	public void subscribe() {
+		listenerId = topic.addListener(CacheInvalidation.class, (channel, invalidation) -> onInvalidation(invalidation));
+	}
+
+	@Override
+	public Cache getCache(String name) {
+		TieredCache cache = cacheMap.get(name);
+		if (cache != null) {
+			return cache;
+		}
+		return cacheMap.computeIfAbsent(name, n -> {
+			Cache localCache = localCacheManager.getCache(n);
+			Cache remoteCache = remoteCacheManager.getCache(n);
+			if (localCache == null || remoteCache == null) {
+				return null;
+			}
+			return new TieredCache(n, localCache, remoteCache, this);
+		});
+	}
+
+	@Override
+	public Collection<String> getCacheNames() {
+		return Collections.unmodifiableSet(cacheMap.keySet());
+	}
+
+	public String getNodeId() {
+		return nodeId;
+	}
+
+	/**
+	 * 通知其他节点清除一级缓存，key为null时清空整个cache
+	 * <p>
+	 * 发布失败不影响本次写入，其他节点的一级缓存到期后自然失效
+	 */
+	void publish(String cacheName, Object key) {
+		if (key != null && !(key instanceof Serializable)) {
+			// 无法序列化的key，退化为清空整个cache
+			key = null;
+		}
+		try {
+			topic.publish(new CacheInvalidation(nodeId, cacheName, key));
+		} catch (Exception e) {
+			log.warn("二级缓存[{}]发布失效通知失败，key:[{}]", cacheName, key, e);
+		}
+	}
+
+	void onInvalidation(CacheInvalidation invalidation) {
+		if (nodeId.equals(invalidation.getNodeId())) {
+			return;
+		}
+		TieredCache cache = cacheMap.get(invalidation.getCacheName());
+		if (cache != null) {
+			cache.evictLocal(invalidation.getKey());
+		}
+	}
+
+	@Override
+	public void destroy() {
+		if (listenerId != null) {
+			topic.removeListener(listenerId);
+		}
+	}
+}
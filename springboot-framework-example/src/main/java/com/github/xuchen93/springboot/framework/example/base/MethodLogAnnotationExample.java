@@ -35,4 +35,24 @@ public class MethodLogAnnotationExample {
 		throw new BusinessException(CommonUtil.getCurrentMethodName());
 	}
 
+	/**
+	 * 10%的调用输出日志，异常时始终输出
+	 */
+	@LogAnnotation(sampleRate = 0.1)
+	public String methodSample(int index) {
+		if (index % 50 == 0) {
+			throw new BusinessException(CommonUtil.getCurrentMethodName() + "|" + index);
+		}
+		return CommonUtil.getCurrentMethodName() + "|" + index;
+	}
+
+	/**
+	 * 只输出耗时超过100ms的调用
+	 */
+	@LogAnnotation(logSlowerThanMillis = 100)
+	public String methodSlow(long sleepMillis) {
+		ThreadUtil.sleep(sleepMillis, TimeUnit.MILLISECONDS);
+		return CommonUtil.getCurrentMethodName() + "|" + sleepMillis;
+	}
+
 }
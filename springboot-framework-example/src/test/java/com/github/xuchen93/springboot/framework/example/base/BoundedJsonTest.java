@@ -0,0 +1,87 @@
+package com.github.xuchen93.springboot.framework.example.base;
+
+
+import cn.hutool.core.lang.Assert;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.xuchen93.springboot.framework.base.common.BoundedJson;
+import com.github.xuchen93.springboot.framework.base.common.BoundedJsonWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+@Slf4j
+public class BoundedJsonTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	public void truncate() {
+		BoundedJson boundedJson = new BoundedJson(objectMapper, 100);
+		Assert.equals("{\"key\":\"value\"}", boundedJson.render(Map.of("key", "value")));
+
+		List<Integer> bigList = IntStream.range(0, 100_000).boxed().toList();
+		String json = boundedJson.render(bigList);
+		log.info("{}", json);
+		Assert.equals(100 + BoundedJson.TRUNCATED_MARKER.length(), json.length());
+		Assert.isTrue(json.startsWith("[0,1,2,"));
+		Assert.isTrue(json.endsWith(BoundedJson.TRUNCATED_MARKER));
+
+		// 截断后缓冲区可继续复用
+		Assert.equals("[1,2]", boundedJson.render(List.of(1, 2)));
+	}
+
+	@Test
+	public void lazy() {
+		BoundedJson boundedJson = new BoundedJson(objectMapper, 0);
+		AtomicInteger serializeCount = new AtomicInteger();
+		Object lazy = boundedJson.lazy(new Counter(serializeCount));
+		log.debug("未输出的日志不会序列化：{}", lazy);
+		Assert.equals(0, serializeCount.get());
+		Assert.equals("{\"count\":1}", lazy.toString());
+	}
+
+	@Test
+	public void writerCapacity() throws Exception {
+		BoundedJsonWriter writer = new BoundedJsonWriter(1000);
+		objectMapper.writeValue(writer, List.of("a", "b"));
+		Assert.equals("[\"a\",\"b\"]", writer.toString());
+		writer.reset();
+		try {
+			objectMapper.writeValue(writer, IntStream.range(0, 100_000).boxed().toList());
+		} catch (Exception e) {
+			log.info("{}", e.getMessage());
+		}
+		Assert.isTrue(writer.isTruncated());
+		Assert.equals(1000, writer.size());
+		Assert.isTrue(writer.getChars().length <= 1000);
+	}
+
+	@Test
+	public void retainedCapacity() throws Exception {
+		// 不限长度时，大对象序列化后缓冲区不会一直保留
+		BoundedJsonWriter writer = new BoundedJsonWriter(0);
+		objectMapper.writeValue(writer, IntStream.range(0, 100_000).boxed().toList());
+		Assert.isFalse(writer.isTruncated());
+		Assert.isTrue(writer.getChars().length > BoundedJsonWriter.MAX_RETAINED_CAPACITY);
+		writer.reset();
+		Assert.isTrue(writer.getChars().length <= BoundedJsonWriter.MAX_RETAINED_CAPACITY);
+		objectMapper.writeValue(writer, List.of(1, 2));
+		Assert.equals("[1,2]", writer.toString());
+	}
+
+	public static class Counter {
+		private final AtomicInteger serializeCount;
+
+		private Counter(AtomicInteger serializeCount) {
+			this.serializeCount = serializeCount;
+		}
+
+		public int getCount() {
+			return serializeCount.incrementAndGet();
+		}
+	}
+}
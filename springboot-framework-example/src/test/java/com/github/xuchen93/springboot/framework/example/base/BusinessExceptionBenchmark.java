@@ -0,0 +1,79 @@
+package com.github.xuchen93.springboot.framework.example.base;
+
+
+import com.github.xuchen93.springboot.framework.base.convention.error.BaseErrorCode;
+import com.github.xuchen93.springboot.framework.base.convention.exception.BusinessException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 失败路径的吞吐量：在depth层调用栈深处抛出，在最外层捕获并读取错误码和信息（与GlobalExceptionAdviceSupport一致）
+ * <ul>
+ *     <li>withStackTrace：new BusinessException，填充完整堆栈</li>
+ *     <li>stackless：BusinessException.stackless，每次创建不填充堆栈的实例</li>
+ *     <li>cached：BusinessException.cached，按错误码共享的实例</li>
+ * </ul>
+ * 运行main方法执行
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BusinessExceptionBenchmark {
+
+	/**
+	 * 抛出点的调用栈深度，Spring MVC请求中业务代码通常在100层以上
+	 */
+	@Param({"10", "100"})
+	private int depth;
+
+	@Benchmark
+	public int withStackTrace() {
+		return throwAndCatch(() -> new BusinessException("获取锁失败"));
+	}
+
+	@Benchmark
+	public int stackless() {
+		return throwAndCatch(() -> BusinessException.stackless("获取锁失败"));
+	}
+
+	@Benchmark
+	public int cached() {
+		return throwAndCatch(() -> BusinessException.cached(BaseErrorCode.BUSINESS_ERROR));
+	}
+
+	private int throwAndCatch(Supplier<BusinessException> supplier) {
+		try {
+			return call(depth, supplier);
+		} catch (BusinessException e) {
+			return e.getCode() + e.getMessage().length();
+		}
+	}
+
+	private int call(int remaining, Supplier<BusinessException> supplier) {
+		if (remaining == 0) {
+			throw supplier.get();
+		}
+		return call(remaining - 1, supplier) + 1;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(BusinessExceptionBenchmark.class.getSimpleName()).build()).run();
+	}
+}
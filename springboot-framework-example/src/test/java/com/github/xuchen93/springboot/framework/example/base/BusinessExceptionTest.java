@@ -0,0 +1,38 @@
+package com.github.xuchen93.springboot.framework.example.base;
+
+
+import cn.hutool.core.lang.Assert;
+import com.github.xuchen93.springboot.framework.base.convention.error.BaseErrorCode;
+import com.github.xuchen93.springboot.framework.base.convention.exception.BusinessException;
+import com.github.xuchen93.springboot.framework.base.convention.exception.ClientException;
+import com.github.xuchen93.springboot.framework.base.convention.exception.RemoteException;
+import org.junit.jupiter.api.Test;
+
+public class BusinessExceptionTest {
+
+	@Test
+	public void stackless() {
+		BusinessException exception = BusinessException.stackless("获取锁失败");
+		Assert.equals(BaseErrorCode.BUSINESS_ERROR.code(), exception.getCode());
+		Assert.equals("获取锁失败", exception.getMessage());
+		Assert.equals(0, exception.getStackTrace().length);
+		exception.addSuppressed(new IllegalStateException());
+		Assert.equals(0, exception.getSuppressed().length);
+
+		Assert.isTrue(new BusinessException("获取锁失败").getStackTrace().length > 0);
+
+		ClientException clientException = ClientException.stackless(null, BaseErrorCode.CLIENT_ERROR);
+		Assert.equals(BaseErrorCode.CLIENT_ERROR.message(), clientException.getMessage());
+		Assert.equals(0, clientException.getStackTrace().length);
+	}
+
+	@Test
+	public void cached() {
+		BusinessException exception = BusinessException.cached(BaseErrorCode.SERVICE_ERROR);
+		Assert.isTrue(exception == BusinessException.cached(BaseErrorCode.SERVICE_ERROR));
+		Assert.equals(BaseErrorCode.SERVICE_ERROR.code(), exception.getCode());
+		Assert.equals(BaseErrorCode.SERVICE_ERROR.message(), exception.getMessage());
+		Assert.equals(0, exception.getStackTrace().length);
+		Assert.isTrue(RemoteException.cached(BaseErrorCode.REMOTE_ERROR) == RemoteException.cached(BaseErrorCode.REMOTE_ERROR));
+	}
+}
@@ -0,0 +1,41 @@
+package com.github.xuchen93.springboot.framework.example.base;
+
+
+import cn.hutool.core.lang.Assert;
+import cn.hutool.core.util.StrUtil;
+import com.github.xuchen93.springboot.framework.base.properties.BaseProperty;
+import com.github.xuchen93.springboot.framework.base.support.model.MethodStats;
+import com.github.xuchen93.springboot.framework.base.support.model.MethodStatsSnapshot;
+import com.github.xuchen93.springboot.framework.base.support.sink.JsonFileMethodStatsSink;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class JsonFileMethodStatsSinkTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void rollFile() throws Exception {
+		BaseProperty baseProperty = new BaseProperty();
+		BaseProperty.MethodStatsSinkConfig config = baseProperty.getMethodStats().getSink();
+		config.setJsonFilePath(tempDir.resolve("stats.json").toString());
+		config.setJsonFileMaxSizeMb(1);
+		config.setJsonFileMaxHistory(2);
+		JsonFileMethodStatsSink sink = new JsonFileMethodStatsSink(baseProperty);
+		// 每行约100KB，写入约4MB
+		MethodStats methodStats = new MethodStats(1, StrUtil.repeat('a', 100 * 1024));
+		for (int i = 0; i < 40; i++) {
+			sink.publish(new MethodStatsSnapshot(i, List.of(methodStats)));
+		}
+		sink.close();
+		Assert.isTrue(Files.exists(tempDir.resolve("stats.json.1")));
+		Assert.isTrue(Files.exists(tempDir.resolve("stats.json.2")));
+		Assert.isFalse(Files.exists(tempDir.resolve("stats.json.3")));
+		Assert.isTrue(Files.size(tempDir.resolve("stats.json.1")) < 2 * 1024 * 1024);
+	}
+}
@@ -0,0 +1,65 @@
+package com.github.xuchen93.springboot.framework.example.base;
+
+
+import cn.hutool.core.lang.Assert;
+import com.github.xuchen93.springboot.framework.base.support.model.LatencyHistogram;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+@Slf4j
+public class LatencyHistogramTest {
+
+	@Test
+	public void bucketBoundary() {
+		for (int subBucketBits = 2; subBucketBits <= LatencyHistogram.DEFAULT_SUB_BUCKET_BITS; subBucketBits++) {
+			LatencyHistogram histogram = new LatencyHistogram(subBucketBits);
+			for (int index = 0; index < histogram.getBucketCount(); index++) {
+				long lowest = histogram.lowestEquivalentValue(index);
+				long highest = histogram.highestEquivalentValue(index);
+				Assert.equals(index, histogram.bucketIndex(lowest));
+				Assert.equals(index, histogram.bucketIndex(highest));
+				if (index > 0) {
+					Assert.equals(histogram.highestEquivalentValue(index - 1) + 1, lowest);
+				}
+			}
+			Assert.equals(LatencyHistogram.MAX_VALUE, histogram.highestEquivalentValue(histogram.getBucketCount() - 1));
+			Assert.equals(histogram.getBucketCount() - 1, histogram.bucketIndex(Long.MAX_VALUE));
+			Assert.equals(0, histogram.bucketIndex(-1));
+		}
+	}
+
+	@Test
+	public void maxMagnitude() {
+		LatencyHistogram histogram = new LatencyHistogram(3, 22);
+		Assert.equals(160, histogram.getBucketCount());
+		Assert.equals((1L << 22) - 1, histogram.highestEquivalentValue(histogram.getBucketCount() - 1));
+		Assert.equals(histogram.getBucketCount() - 1, histogram.bucketIndex(1L << 22));
+		histogram.record(LatencyHistogram.MAX_VALUE);
+		Assert.equals(1L, histogram.getCount(histogram.getBucketCount() - 1));
+	}
+
+	@Test
+	public void percentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 10000; i++) {
+			histogram.record(i);
+		}
+		Map<String, Long> percentiles = histogram.getDefaultPercentiles();
+		log.info("percentiles: {}", percentiles);
+		Assert.equals(10000L, histogram.getTotalCount());
+		assertWithinError(5000, percentiles.get("p50"));
+		assertWithinError(9000, percentiles.get("p90"));
+		assertWithinError(9900, percentiles.get("p99"));
+		assertWithinError(9990, percentiles.get("p999"));
+
+		histogram.reset();
+		Assert.equals(0L, histogram.getTotalCount());
+		Assert.equals(0L, histogram.getDefaultPercentiles().get("p99"));
+	}
+
+	private void assertWithinError(long expected, long actual) {
+		Assert.isTrue(actual >= expected && actual <= expected + expected / 16, "expected {} but was {}", expected, actual);
+	}
+}
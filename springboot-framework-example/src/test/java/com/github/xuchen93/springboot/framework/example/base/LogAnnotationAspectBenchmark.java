@@ -0,0 +1,106 @@
+package com.github.xuchen93.springboot.framework.example.base;
+
+
+import cn.hutool.core.util.StrUtil;
+import com.github.xuchen93.springboot.framework.base.common.CommonUtil;
+import com.github.xuchen93.springboot.framework.base.convention.enums.MethodStatsType;
+import com.github.xuchen93.springboot.framework.base.properties.BaseProperty;
+import com.github.xuchen93.springboot.framework.base.support.annotation.LogAnnotation;
+import com.github.xuchen93.springboot.framework.base.support.aop.LogAnnotationAspect;
+import com.github.xuchen93.springboot.framework.base.support.manager.MethodStatsManager;
+import com.github.xuchen93.springboot.framework.base.support.model.MethodStats;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LogAnnotationAspect单次调用的开销，关闭日志只保留统计
+ * <ul>
+ *     <li>direct：不经过切面的直接调用</li>
+ *     <li>aspect：经过切面的调用</li>
+ *     <li>legacyResolve：改造前每次调用的解析与记录（查注解、originClassName、拼接uniqueKey、按key查找统计对象）</li>
+ *     <li>cachedResolve：改造后每次调用的解析与记录（按Method取描述符、通过句柄记录）</li>
+ * </ul>
+ * 运行main方法执行
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogAnnotationAspectBenchmark {
+
+	private BenchmarkTarget direct;
+	private BenchmarkTarget proxy;
+	private Method method;
+	private final Map<Method, MethodStats> descriptorMap = new ConcurrentHashMap<>();
+
+	@Setup
+	public void setup() throws NoSuchMethodException {
+		BaseProperty baseProperty = new BaseProperty();
+		baseProperty.getLogAspect().setEnableLog(false);
+		direct = new BenchmarkTarget();
+		AspectJProxyFactory proxyFactory = new AspectJProxyFactory(direct);
+		proxyFactory.setProxyTargetClass(true);
+		proxyFactory.addAspect(new LogAnnotationAspect(baseProperty));
+		proxy = proxyFactory.getProxy();
+		method = BenchmarkTarget.class.getMethod("call", int.class);
+	}
+
+	@Benchmark
+	public int direct() {
+		return direct.call(1);
+	}
+
+	@Benchmark
+	public int aspect() {
+		return proxy.call(1);
+	}
+
+	@Benchmark
+	public void legacyResolve() {
+		LogAnnotation logAnnotation = method.getAnnotation(LogAnnotation.class);
+		String uniqueKey = logAnnotation.uniqueKey();
+		if (StrUtil.isBlank(uniqueKey)) {
+			uniqueKey = CommonUtil.originClassName(direct) + "." + method.getName();
+		}
+		MethodStatsManager.addSuccess(MethodStatsType.LOG_ANNOTATION.getType(), uniqueKey, 1);
+	}
+
+	@Benchmark
+	public void cachedResolve() {
+		MethodStats methodStats = descriptorMap.get(method);
+		if (methodStats == null) {
+			methodStats = descriptorMap.computeIfAbsent(method, m -> MethodStatsManager.register(MethodStatsType.LOG_ANNOTATION.getType(), "BenchmarkTarget.call"));
+		}
+		methodStats.addSuccess(1);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(LogAnnotationAspectBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	public static class BenchmarkTarget {
+		@LogAnnotation
+		public int call(int value) {
+			return value + 1;
+		}
+	}
+}
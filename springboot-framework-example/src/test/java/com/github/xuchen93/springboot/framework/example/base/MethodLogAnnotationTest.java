@@ -1,6 +1,10 @@
 package com.github.xuchen93.springboot.framework.example.base;
 
 
+import cn.hutool.core.lang.Assert;
+import com.github.xuchen93.springboot.framework.base.convention.enums.MethodStatsType;
+import com.github.xuchen93.springboot.framework.base.support.manager.MethodStatsManager;
+import com.github.xuchen93.springboot.framework.base.support.model.MethodStats;
 import com.github.xuchen93.springboot.framework.example.base.MethodLogAnnotationExample;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
@@ -33,4 +37,39 @@ public class MethodLogAnnotationTest {
 			log.error("catch exception：{}", e.getMessage());
 		}
 	}
+
+	@Test
+	public void methodSample() {
+		// 采样只影响日志，每次调用都计入统计
+		MethodStats methodStats = MethodStatsManager.register(MethodStatsType.LOG_ANNOTATION.getType(), "MethodLogAnnotationExample.methodSample");
+		long successCount = methodStats.getLifetimeSuccessCount();
+		long failCount = methodStats.getLifetimeFailCount();
+		int exceptionCount = 0;
+		for (int i = 0; i < 100; i++) {
+			try {
+				methodLogAnnotationExample.methodSample(i);
+			} catch (Exception e) {
+				exceptionCount++;
+				log.error("catch exception：{}", e.getMessage());
+			}
+		}
+		Assert.equals(2, exceptionCount);
+		// BusinessException按成功统计
+		Assert.equals(successCount + 100, methodStats.getLifetimeSuccessCount());
+		Assert.equals(failCount, methodStats.getLifetimeFailCount());
+	}
+
+	@Test
+	public void methodSlow() {
+		// 慢调用阈值只影响日志，快慢调用都计入统计
+		MethodStats methodStats = MethodStatsManager.register(MethodStatsType.LOG_ANNOTATION.getType(), "MethodLogAnnotationExample.methodSlow");
+		long successCount = methodStats.getLifetimeSuccessCount();
+		long fastCount = methodStats.getLifetimeCountAtOrBelow(99);
+		long totalTime = methodStats.getLifetimeTotalTime();
+		methodLogAnnotationExample.methodSlow(10);
+		methodLogAnnotationExample.methodSlow(150);
+		Assert.equals(successCount + 2, methodStats.getLifetimeSuccessCount());
+		Assert.equals(fastCount + 1, methodStats.getLifetimeCountAtOrBelow(99));
+		Assert.isTrue(methodStats.getLifetimeTotalTime() - totalTime >= 160);
+	}
 }
@@ -0,0 +1,59 @@
+package com.github.xuchen93.springboot.framework.example.base;
+
+
+import cn.hutool.core.lang.Assert;
+import com.github.xuchen93.springboot.framework.base.support.manager.MethodStatsManager;
+import com.github.xuchen93.springboot.framework.base.support.model.MethodStats;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * 记录路径的内存分配测试，依赖HotSpot的线程分配统计
+ */
+@Slf4j
+public class MethodStatsAllocationTest {
+
+	private static final int TYPE = 99;
+	private static final int WARMUP_COUNT = 500_000;
+	private static final int RECORD_COUNT = 100_000;
+
+	private final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	@Test
+	public void recordByUniqueKey() {
+		String uniqueKey = "MethodStatsAllocationTest.recordByUniqueKey";
+		Runnable record = () -> {
+			for (int i = 0; i < RECORD_COUNT; i++) {
+				MethodStatsManager.addSuccess(TYPE, uniqueKey, i & 1023);
+				MethodStatsManager.addFail(TYPE, uniqueKey, i & 1023);
+			}
+		};
+		assertNoAllocation(record, RECORD_COUNT * 2);
+	}
+
+	@Test
+	public void recordByHandle() {
+		MethodStats methodStats = MethodStatsManager.register(TYPE, "MethodStatsAllocationTest.recordByHandle");
+		Runnable record = () -> {
+			for (int i = 0; i < RECORD_COUNT; i++) {
+				methodStats.addSuccess(i & 1023);
+				methodStats.addFail(i & 1023);
+			}
+		};
+		assertNoAllocation(record, RECORD_COUNT * 2);
+	}
+
+	private void assertNoAllocation(Runnable record, int callCount) {
+		for (int i = 0; i < WARMUP_COUNT / RECORD_COUNT; i++) {
+			record.run();
+		}
+		long threadId = Thread.currentThread().getId();
+		long before = threadMXBean.getThreadAllocatedBytes(threadId);
+		record.run();
+		long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+		log.info("{}次记录共分配{}字节", callCount, allocated);
+		Assert.equals(0L, allocated / callCount, "每次记录分配了{}字节", allocated / callCount);
+	}
+}
@@ -0,0 +1,131 @@
+package com.github.xuchen93.springboot.framework.example.base;
+
+
+import cn.hutool.core.lang.Assert;
+import com.github.xuchen93.springboot.framework.base.support.model.LatencyHistogram;
+import com.github.xuchen93.springboot.framework.base.support.model.MethodStats;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@Slf4j
+public class MethodStatsConcurrentTest {
+
+	private final int threadCount = 16;
+	private final int loopCount = 100_000;
+
+	@Test
+	public void noLostCount() throws InterruptedException {
+		MethodStats methodStats = new MethodStats(1, "noLostCount");
+		ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+		CountDownLatch startLatch = new CountDownLatch(1);
+		CountDownLatch endLatch = new CountDownLatch(threadCount);
+		IntStream.range(0, threadCount).forEach(index -> executorService.execute(() -> {
+			try {
+				startLatch.await();
+				for (int i = 0; i < loopCount; i++) {
+					long costTime = (long) index * loopCount + i;
+					if (i % 10 == 0) {
+						methodStats.addFail(costTime);
+					} else {
+						methodStats.addSuccess(costTime);
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				endLatch.countDown();
+			}
+		}));
+		startLatch.countDown();
+		Assert.isTrue(endLatch.await(60, TimeUnit.SECONDS), "记录超时");
+		executorService.shutdown();
+		log.info("{}", methodStats);
+
+		long total = (long) threadCount * loopCount;
+		Assert.equals(total, (long) methodStats.getSuccessCount() + methodStats.getFailCount());
+		Assert.equals(total / 10, (long) methodStats.getFailCount());
+		Assert.equals(total * (total - 1) / 2, methodStats.getTotalTime());
+
+		List<Long> topCostTime = methodStats.getTopCostTime();
+		Assert.equals(methodStats.getTopCostSize(), topCostTime.size());
+		for (int i = 0; i < topCostTime.size(); i++) {
+			Assert.equals(total - 1 - i, topCostTime.get(i).longValue());
+		}
+	}
+
+	@Test
+	public void reset() {
+		MethodStats methodStats = new MethodStats(1, "reset");
+		IntStream.range(0, 5).forEach(methodStats::addSuccess);
+		Assert.equals(List.of(4L, 3L, 2L, 1L, 0L), methodStats.getTopCostTime());
+		methodStats.reset();
+		Assert.equals(0, methodStats.getSuccessCount());
+		Assert.equals(0L, methodStats.getTotalTime());
+		Assert.isTrue(methodStats.getTopCostTime().isEmpty());
+	}
+
+	@Test
+	public void exactConsume() throws InterruptedException {
+		MethodStats methodStats = new MethodStats(1, "exactConsume");
+		ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+		CountDownLatch startLatch = new CountDownLatch(1);
+		CountDownLatch endLatch = new CountDownLatch(threadCount);
+		IntStream.range(0, threadCount).forEach(index -> executorService.execute(() -> {
+			try {
+				startLatch.await();
+				for (int i = 0; i < loopCount; i++) {
+					if (i % 10 == 0) {
+						methodStats.addFail(i % 1000);
+					} else {
+						methodStats.addSuccess(i % 1000);
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				endLatch.countDown();
+			}
+		}));
+		long successCount = 0;
+		long failCount = 0;
+		long totalTime = 0;
+		long lastLifetimeCount = 0;
+		int consumeTimes = 0;
+		startLatch.countDown();
+		while (endLatch.getCount() > 0) {
+			MethodStats snapshot = methodStats.consume();
+			successCount += snapshot.getSuccessCount();
+			failCount += snapshot.getFailCount();
+			totalTime += snapshot.getTotalTime();
+			consumeTimes++;
+			long lifetimeCount = methodStats.getLifetimeSuccessCount() + methodStats.getLifetimeFailCount();
+			Assert.isTrue(lifetimeCount >= lastLifetimeCount, "累计值回退：{} -> {}", lastLifetimeCount, lifetimeCount);
+			lastLifetimeCount = lifetimeCount;
+		}
+		executorService.shutdown();
+		MethodStats snapshot = methodStats.consume();
+		successCount += snapshot.getSuccessCount();
+		failCount += snapshot.getFailCount();
+		totalTime += snapshot.getTotalTime();
+		log.info("consume次数：{}", consumeTimes);
+
+		long total = (long) threadCount * loopCount;
+		long loopTotalTime = 0;
+		for (int i = 0; i < loopCount; i++) {
+			loopTotalTime += i % 1000;
+		}
+		Assert.equals(total / 10, failCount);
+		Assert.equals(total - total / 10, successCount);
+		Assert.equals(threadCount * loopTotalTime, totalTime);
+		Assert.equals(total, methodStats.getLifetimeSuccessCount() + methodStats.getLifetimeFailCount());
+		Assert.equals(total, methodStats.getLifetimeCountAtOrBelow(LatencyHistogram.MAX_VALUE));
+		Assert.isFalse(methodStats.hasRecord());
+	}
+}
@@ -0,0 +1,107 @@
+package com.github.xuchen93.springboot.framework.example.base;
+
+
+import cn.hutool.core.lang.Assert;
+import com.github.xuchen93.springboot.framework.base.configuration.MethodStatsMeterBinder;
+import com.github.xuchen93.springboot.framework.base.properties.BaseProperty;
+import com.github.xuchen93.springboot.framework.base.support.manager.MethodStatsManager;
+import com.github.xuchen93.springboot.framework.base.support.model.MethodStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+@Slf4j
+public class MethodStatsMeterBinderTest {
+
+	private static final int TYPE = 98;
+
+	@Test
+	public void legacyProperty() {
+		BaseProperty baseProperty = new Binder(new MapConfigurationPropertySource(Map.of(
+				BaseProperty.PROPERTY_PREFIX + ".method-stats-config.consume-seconds", "60",
+				BaseProperty.PROPERTY_PREFIX + ".method-stats.meter.max-unique-keys", "10")))
+				.bind(BaseProperty.PROPERTY_PREFIX, BaseProperty.class).get();
+		Assert.equals(60, baseProperty.getMethodStats().getConsumeSeconds());
+		Assert.equals(10, baseProperty.getMethodStats().getMeter().getMaxUniqueKeys());
+	}
+
+	@Test
+	public void bindAndLimit() {
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+		MethodStats first = MethodStatsManager.register(TYPE, "MethodStatsMeterBinderTest.first");
+		// MethodStatsManager为全局静态，其他测试注册的统计对象也会被绑定
+		AtomicInteger registeredCount = new AtomicInteger();
+		Consumer<MethodStats> counter = methodStats -> registeredCount.incrementAndGet();
+		MethodStatsManager.addRegisterListener(counter);
+		MethodStatsManager.removeRegisterListener(counter);
+
+		BaseProperty baseProperty = new BaseProperty();
+		baseProperty.getMethodStats().getMeter().setMaxUniqueKeys(registeredCount.get() + 1);
+		MethodStatsMeterBinder binder = new MethodStatsMeterBinder(baseProperty,
+				new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry)).getBeanProvider(MeterRegistry.class));
+		binder.afterSingletonsInstantiated();
+		MethodStatsManager.register(TYPE, "MethodStatsMeterBinderTest.second");
+		MethodStatsManager.register(TYPE, "MethodStatsMeterBinderTest.third");
+		try {
+			first.addSuccess(3);
+			first.addSuccess(30);
+			first.addFail(300);
+			first.consume();
+			first.addSuccess(3000);
+
+			Assert.equals(3.0, meterRegistry.get("method.stats.calls").tag("uniqueKey", first.getUniqueKey()).tag("result", "success").functionCounter().count());
+			Assert.equals(1.0, meterRegistry.get("method.stats.calls").tag("uniqueKey", first.getUniqueKey()).tag("result", "fail").functionCounter().count());
+			Assert.equals(3333.0, meterRegistry.get("method.stats.cost").tag("uniqueKey", first.getUniqueKey()).functionCounter().count());
+			Assert.equals(2.0, meterRegistry.get("method.stats.calls.within").tag("uniqueKey", first.getUniqueKey()).tag("thresholdMillis", "50").functionCounter().count());
+			Assert.equals(3.0, meterRegistry.get("method.stats.calls.within").tag("uniqueKey", first.getUniqueKey()).tag("thresholdMillis", "1000").functionCounter().count());
+
+			Assert.notEmpty(meterRegistry.find("method.stats.calls").tag("uniqueKey", "MethodStatsMeterBinderTest.second").functionCounters());
+			Assert.isTrue(meterRegistry.find("method.stats.calls").tag("uniqueKey", "MethodStatsMeterBinderTest.third").functionCounters().isEmpty());
+		} finally {
+			binder.destroy();
+		}
+	}
+
+	@Test
+	public void evictIdle() {
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+		BaseProperty baseProperty = new BaseProperty();
+		baseProperty.getMethodStats().getMeter().setMaxUniqueKeys(Integer.MAX_VALUE);
+		MethodStatsMeterBinder binder = new MethodStatsMeterBinder(baseProperty,
+				new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry)).getBeanProvider(MeterRegistry.class));
+		binder.afterSingletonsInstantiated();
+		List<MethodStats> evictedList = new CopyOnWriteArrayList<>();
+		Consumer<MethodStats> evictListener = evictedList::add;
+		MethodStatsManager.addEvictListener(evictListener);
+		try {
+			MethodStats idle = MethodStatsManager.register(TYPE, "MethodStatsMeterBinderTest.idle");
+			Assert.notEmpty(meterRegistry.find("method.stats.calls").tag("uniqueKey", idle.getUniqueKey()).functionCounters());
+			for (int i = 1; i < MethodStatsManager.IDLE_EVICT_CONSUME_COUNT; i++) {
+				MethodStatsManager.consume();
+			}
+			Assert.isFalse(evictedList.contains(idle));
+			MethodStatsManager.consume();
+			Assert.isTrue(evictedList.contains(idle));
+			Assert.isTrue(meterRegistry.find("method.stats.calls").tag("uniqueKey", idle.getUniqueKey()).functionCounters().isEmpty());
+
+			// 仍持有句柄时再次记录，重新加入并保留累计值
+			idle.addSuccess(10);
+			Assert.isTrue(idle == MethodStatsManager.register(TYPE, idle.getUniqueKey()));
+			Assert.equals(1.0, meterRegistry.get("method.stats.calls").tag("uniqueKey", idle.getUniqueKey()).tag("result", "success").functionCounter().count());
+			Assert.isTrue(MethodStatsManager.consume().stream().anyMatch(stats -> stats.getUniqueKey().equals(idle.getUniqueKey())));
+		} finally {
+			MethodStatsManager.removeEvictListener(evictListener);
+			binder.destroy();
+		}
+	}
+}
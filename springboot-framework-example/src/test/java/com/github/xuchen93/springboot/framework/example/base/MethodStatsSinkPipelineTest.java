@@ -0,0 +1,80 @@
+package com.github.xuchen93.springboot.framework.example.base;
+
+
+import cn.hutool.core.lang.Assert;
+import cn.hutool.core.thread.ThreadUtil;
+import com.github.xuchen93.springboot.framework.base.configuration.MethodStatsSinkPipeline;
+import com.github.xuchen93.springboot.framework.base.properties.BaseProperty;
+import com.github.xuchen93.springboot.framework.base.support.manager.MethodStatsManager;
+import com.github.xuchen93.springboot.framework.base.support.model.MethodStatsSnapshot;
+import com.github.xuchen93.springboot.framework.base.support.model.SinkStats;
+import com.github.xuchen93.springboot.framework.base.support.sink.MemoryMethodStatsSink;
+import com.github.xuchen93.springboot.framework.base.support.sink.MethodStatsSink;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+public class MethodStatsSinkPipelineTest {
+
+	private static final int TYPE = 97;
+
+	@Test
+	public void slowSinkNotBlockOthers() throws InterruptedException {
+		BaseProperty baseProperty = new BaseProperty();
+		baseProperty.getMethodStats().getSink().setQueueCapacity(1);
+		baseProperty.getMethodStats().getSink().setMemoryCapacity(10);
+		MemoryMethodStatsSink memorySink = new MemoryMethodStatsSink(baseProperty);
+		SlowSink slowSink = new SlowSink();
+		StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("memorySink", memorySink, "slowSink", slowSink));
+		MethodStatsSinkPipeline pipeline = new MethodStatsSinkPipeline(baseProperty, beanFactory.getBeanProvider(MethodStatsSink.class));
+		pipeline.afterSingletonsInstantiated();
+
+		for (int i = 0; i < 3; i++) {
+			MethodStatsManager.addSuccess(TYPE, "MethodStatsSinkPipelineTest.slowSinkNotBlockOthers", i);
+			pipeline.consume();
+			// 等待慢sink取走第一个快照
+			Assert.isTrue(slowSink.started.await(5, TimeUnit.SECONDS));
+			// 队列容量为1，等待内存sink输出后再投递下一个
+			for (int wait = 0; wait < 50 && memorySink.getSnapshots().size() <= i; wait++) {
+				ThreadUtil.sleep(100);
+			}
+		}
+		Assert.equals(3, memorySink.getSnapshots().size());
+
+		SinkStats slowStats = pipeline.getSinkStatsList().stream().filter(stats -> "SlowSink".equals(stats.getName())).findFirst().orElseThrow();
+		log.info("{}", pipeline.getSinkStatsList());
+		Assert.equals(1, slowStats.getQueueSize());
+		Assert.equals(1L, slowStats.getDroppedCount());
+
+		slowSink.release.countDown();
+		pipeline.destroy();
+		Assert.equals(2, slowSink.publishedCount.get());
+		Assert.isTrue(slowSink.closed);
+	}
+
+	private static class SlowSink implements MethodStatsSink {
+		private final CountDownLatch started = new CountDownLatch(1);
+		private final CountDownLatch release = new CountDownLatch(1);
+		private final AtomicInteger publishedCount = new AtomicInteger();
+		private volatile boolean closed;
+
+		@Override
+		public void publish(MethodStatsSnapshot snapshot) throws InterruptedException {
+			started.countDown();
+			release.await();
+			publishedCount.incrementAndGet();
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package com.github.xuchen93.springboot.framework.example.base;
+
+
+import cn.hutool.core.lang.Assert;
+import com.github.xuchen93.springboot.framework.base.support.manager.RequestIdManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+public class RequestIdManagerTest {
+
+	@Test
+	public void unique() {
+		Set<String> ids = ConcurrentHashMap.newKeySet();
+		IntStream.range(0, 1_000_000).parallel().forEach(i -> ids.add(RequestIdManager.nextId()));
+		Assert.equals(1_000_000, ids.size());
+		ids.forEach(id -> Assert.equals(RequestIdManager.ID_LENGTH, id.length()));
+	}
+
+	@Test
+	public void timeOrdered() throws InterruptedException {
+		String first = RequestIdManager.nextId();
+		Thread.sleep(2);
+		String second = RequestIdManager.nextId();
+		Assert.isTrue(first.compareTo(second) < 0);
+	}
+
+	@Test
+	public void mdc() {
+		Assert.notNull(RequestIdManager.getOrNextId());
+		Assert.isNull(RequestIdManager.getRequestId());
+		RequestIdManager.setRequestId("abc");
+		try {
+			Assert.equals("abc", RequestIdManager.getOrNextId());
+		} finally {
+			RequestIdManager.clear();
+		}
+		Assert.isNull(RequestIdManager.getRequestId());
+	}
+}
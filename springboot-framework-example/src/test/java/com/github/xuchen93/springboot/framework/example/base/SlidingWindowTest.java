@@ -0,0 +1,63 @@
+package com.github.xuchen93.springboot.framework.example.base;
+
+
+import cn.hutool.core.lang.Assert;
+import com.github.xuchen93.springboot.framework.base.support.model.MethodStats;
+import com.github.xuchen93.springboot.framework.base.support.model.SlidingWindow;
+import com.github.xuchen93.springboot.framework.base.support.model.WindowStats;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+@Slf4j
+public class SlidingWindowTest {
+
+	@Test
+	public void windowStats() {
+		MethodStats methodStats = new MethodStats(1, "windowStats");
+		IntStream.range(0, 8).parallel().forEach(index -> {
+			for (int i = 1; i <= 1000; i++) {
+				if (i % 100 == 0) {
+					methodStats.addFail(i);
+				} else {
+					methodStats.addSuccess(i);
+				}
+			}
+		});
+		methodStats.consume();
+		for (int minutes : new int[]{1, 5, 15}) {
+			WindowStats windowStats = methodStats.getWindowStats(minutes);
+			log.info("{}", windowStats);
+			Assert.equals(minutes * 60L, windowStats.getWindowSeconds());
+			Assert.equals(7920L, windowStats.getSuccessCount());
+			Assert.equals(80L, windowStats.getFailCount());
+			Assert.equals(8 * 500500L, windowStats.getTotalTime());
+			long p99 = windowStats.getPercentiles().get("p99");
+			Assert.isTrue(p99 >= 990 && p99 <= 990 + 990 / 8, "p99：{}", p99);
+		}
+	}
+
+	@Test
+	public void qps() {
+		SlidingWindow slidingWindow = new SlidingWindow(60, 15, 3, 22);
+		for (int i = 0; i < 600; i++) {
+			slidingWindow.record(i, true);
+		}
+		// 只经过了当前槽位的一部分，按已经过的时长计算，不低于600/60s
+		WindowStats windowStats = slidingWindow.getWindowStats(1);
+		Assert.equals(60L, windowStats.getWindowSeconds());
+		Assert.isTrue(windowStats.getQps() >= 10, "qps：{}", windowStats.getQps());
+		// 15个槽位中只有当前槽位有数据，已经过的时长至少14分钟
+		double qps = slidingWindow.getWindowStats(15).getQps();
+		Assert.isTrue(qps >= 600 / 900.0 && qps < 600 / 840.0, "qps：{}", qps);
+	}
+
+	@Test
+	public void windowOutOfRange() {
+		MethodStats methodStats = new MethodStats(1, "windowOutOfRange");
+		Assertions.assertThrows(IllegalArgumentException.class, () -> methodStats.getWindowStats(MethodStats.MAX_WINDOW_MINUTES + 1));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> methodStats.getWindowStats(0));
+	}
+}
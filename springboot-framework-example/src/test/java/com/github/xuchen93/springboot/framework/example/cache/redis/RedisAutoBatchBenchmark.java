@@ -0,0 +1,85 @@
+package com.github.xuchen93.springboot.framework.example.cache.redis;
+
+
+import com.github.xuchen93.springboot.framework.cache.properties.CacheProperty;
+import com.github.xuchen93.springboot.framework.cache.redis.RedisCacheProxy;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.redisson.api.RedissonClient;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 64个线程并发GET、HGET的吞吐量，Redis用SimulatedRedisTemplate代替：连接池8个连接，每次往返网络延迟100us，
+ * 服务端每次往返20us、每条命令1us
+ * <ul>
+ *     <li>autoBatch=false：每条命令一次往返</li>
+ *     <li>autoBatch=true：并发的命令合并为一次管道</li>
+ * </ul>
+ * 运行main方法执行
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 2)
+@Threads(64)
+@Fork(1)
+public class RedisAutoBatchBenchmark {
+
+	@Param({"false", "true"})
+	private boolean autoBatch;
+
+	private RedisCacheProxy redisCacheProxy;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		SimulatedRedisTemplate redisTemplate = new SimulatedRedisTemplate(TimeUnit.MICROSECONDS.toNanos(100), TimeUnit.MICROSECONDS.toNanos(20), TimeUnit.MICROSECONDS.toNanos(1), 8);
+		for (int i = 0; i < 1000; i++) {
+			redisTemplate.getValues().put("key" + i, i);
+			redisTemplate.getHashes().put("hash" + i, Map.of("field", i));
+		}
+		CacheProperty.RedisProperties redisProperties = new CacheProperty.RedisProperties();
+		redisProperties.getAutoBatch().setEnable(autoBatch);
+		redisCacheProxy = new RedisCacheProxy(redisTemplate, Mockito.mock(RedissonClient.class), redisProperties);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		redisCacheProxy.destroy();
+	}
+
+	@Benchmark
+	public Object get() {
+		return redisCacheProxy.get("key" + ThreadLocalRandom.current().nextInt(1000));
+	}
+
+	@Benchmark
+	public Object hGet() {
+		return redisCacheProxy.hGet("hash" + ThreadLocalRandom.current().nextInt(1000), "field");
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(RedisAutoBatchBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -0,0 +1,240 @@
+package com.github.xuchen93.springboot.framework.example.cache.redis;
+
+import cn.hutool.core.lang.Assert;
+import cn.hutool.core.thread.ThreadUtil;
+import com.github.xuchen93.springboot.framework.cache.properties.CacheProperty;
+import com.github.xuchen93.springboot.framework.cache.redis.RedisCacheProxy;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 用内存Map代替Redis的GET/SET/MGET
+ */
+class RedisCacheGetOrLoadTest {
+
+	private final Map<String, Object> redis = new ConcurrentHashMap<>();
+	private final Map<String, Long> ttlMillisMap = new ConcurrentHashMap<>();
+	private final RedissonClient redissonClient = Mockito.mock(RedissonClient.class);
+	private final CacheProperty.RedisProperties redisProperties = new CacheProperty.RedisProperties();
+	private final RedisCacheProxy redisCacheProxy = new RedisCacheProxy(mockRedisTemplate(), redissonClient, redisProperties);
+
+	@Test
+	void singleFlight() throws Exception {
+		AtomicInteger loadCount = new AtomicInteger();
+		int threads = 100;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<String>> futures = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			futures.add(executor.submit(() -> {
+				start.await();
+				return redisCacheProxy.getOrLoad("hot", () -> {
+					loadCount.incrementAndGet();
+					ThreadUtil.sleep(200);
+					return "db";
+				}, 1, TimeUnit.MINUTES);
+			}));
+		}
+		start.countDown();
+		for (Future<String> future : futures) {
+			Assert.equals("db", future.get());
+		}
+		executor.shutdown();
+		Assert.equals(1, loadCount.get());
+		Assert.equals("db", redis.get("hot"));
+	}
+
+	@Test
+	void loaderException() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Future<Object> leader = executor.submit(() -> redisCacheProxy.getOrLoad("error", () -> {
+			loading.countDown();
+			ThreadUtil.sleep(200);
+			throw new IllegalStateException("db down");
+		}, 1, TimeUnit.MINUTES));
+		loading.await();
+		// 等待中的线程收到同一个异常
+		IllegalStateException exception = null;
+		try {
+			redisCacheProxy.getOrLoad("error", () -> "unused", 1, TimeUnit.MINUTES);
+		} catch (IllegalStateException e) {
+			exception = e;
+		}
+		Assert.equals("db down", exception.getMessage());
+		try {
+			leader.get();
+			Assert.isTrue(false);
+		} catch (ExecutionException e) {
+			Assert.isTrue(e.getCause() == exception);
+		}
+		executor.shutdown();
+		// 失败不缓存，下次重新加载
+		Assert.equals("ok", redisCacheProxy.getOrLoad("error", () -> "ok", 1, TimeUnit.MINUTES));
+		Assert.isNull(redisCacheProxy.getOrLoad("null", () -> null, 1, TimeUnit.MINUTES));
+		Assert.isFalse(redis.containsKey("null"));
+	}
+
+	@Test
+	void waitTimeout() throws Exception {
+		redisProperties.setLoadWaitMillis(100);
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Future<Object> leader = executor.submit(() -> redisCacheProxy.getOrLoad("hung", () -> {
+			loading.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return "db";
+		}, 1, TimeUnit.MINUTES));
+		loading.await();
+		long start = System.currentTimeMillis();
+		try {
+			redisCacheProxy.getOrLoad("hung", () -> "unused", 1, TimeUnit.MINUTES);
+			Assert.isTrue(false);
+		} catch (QueryTimeoutException e) {
+			Assert.isTrue(System.currentTimeMillis() - start < 1000);
+		}
+		release.countDown();
+		Assert.equals("db", leader.get());
+		executor.shutdown();
+	}
+
+	@Test
+	void reentrant() {
+		try {
+			redisCacheProxy.getOrLoad("outer", () -> redisCacheProxy.getOrLoad("outer", () -> "inner", 1, TimeUnit.MINUTES), 1, TimeUnit.MINUTES);
+			Assert.isTrue(false);
+		} catch (IllegalStateException e) {
+			Assert.isTrue(e.getMessage().contains("outer"));
+		}
+		// 不同的key可以嵌套加载
+		Assert.equals("inner", redisCacheProxy.getOrLoad("a", () -> redisCacheProxy.getOrLoad("b", () -> "inner", 1, TimeUnit.MINUTES), 1, TimeUnit.MINUTES));
+		Assert.equals("inner", redis.get("a"));
+	}
+
+	@Test
+	void lease() throws Exception {
+		RLock lock = Mockito.mock(RLock.class);
+		Mockito.when(redissonClient.getLock(RedisCacheProxy.LOAD_LOCK_PREFIX + "key")).thenReturn(lock);
+		Mockito.when(lock.tryLock(500, 500, TimeUnit.MILLISECONDS)).thenAnswer(invocation -> {
+			// 模拟其他节点持有锁期间已经写入
+			redis.put("key", "other node");
+			return true;
+		});
+		Mockito.when(lock.isHeldByCurrentThread()).thenReturn(true);
+		Assert.equals("other node", redisCacheProxy.getOrLoad("key", () -> "db", 1, TimeUnit.MINUTES, 500));
+		Mockito.verify(lock).unlock();
+	}
+
+	@Test
+	void ttlJitter() {
+		redisProperties.setTtlJitterRatio(0.5);
+		for (int i = 0; i < 100; i++) {
+			redisCacheProxy.putWithJitter("jitter" + i, i, 1, TimeUnit.SECONDS);
+		}
+		Set<Long> ttlSet = new HashSet<>(ttlMillisMap.values());
+		Assert.isTrue(ttlSet.size() > 1);
+		Assert.isTrue(ttlSet.stream().allMatch(ttl -> ttl >= 1000 && ttl <= 1500));
+		// put保持精确的过期时间
+		redisCacheProxy.put("token", "value", 1, TimeUnit.SECONDS);
+		Assert.equals(1000L, ttlMillisMap.get("token"));
+	}
+
+	@Test
+	void earlyRefresh() {
+		redisProperties.setEarlyRefreshBeta(1);
+		AtomicInteger loadCount = new AtomicInteger();
+		Supplier<String> loader = () -> {
+			loadCount.incrementAndGet();
+			ThreadUtil.sleep(20);
+			return "new";
+		};
+		// 没有加载信息的key不提前刷新
+		redis.put("plain", "old");
+		Assert.equals("old", redisCacheProxy.getOrLoad("plain", loader, 1, TimeUnit.MINUTES));
+		// 离过期还很远
+		redis.put("far", "old");
+		redis.put("far" + RedisCacheProxy.EARLY_REFRESH_SUFFIX, "1," + (System.currentTimeMillis() + 3600_000));
+		Assert.equals("old", redisCacheProxy.getOrLoad("far", loader, 1, TimeUnit.MINUTES));
+		Assert.equals(0, loadCount.get());
+		// 已到过期时间，必然提前刷新，并记录加载耗时
+		redis.put("near", "old");
+		redis.put("near" + RedisCacheProxy.EARLY_REFRESH_SUFFIX, "1000," + (System.currentTimeMillis() - 1));
+		Assert.equals("new", redisCacheProxy.getOrLoad("near", loader, 1, TimeUnit.MINUTES));
+		Assert.equals(1, loadCount.get());
+		Assert.equals("new", redis.get("near"));
+		String meta = (String) redis.get("near" + RedisCacheProxy.EARLY_REFRESH_SUFFIX);
+		Assert.isTrue(Long.parseLong(meta.substring(0, meta.indexOf(','))) >= 20);
+		Assert.equals(ttlMillisMap.get("near"), ttlMillisMap.get("near" + RedisCacheProxy.EARLY_REFRESH_SUFFIX));
+	}
+
+	@Test
+	void malformedEarlyRefreshMeta() {
+		redisProperties.setEarlyRefreshBeta(1);
+		AtomicInteger loadCount = new AtomicInteger();
+		Supplier<String> loader = () -> {
+			loadCount.incrementAndGet();
+			return "new";
+		};
+		for (Object meta : List.of("abc,1", "1,", "12345", 42L)) {
+			redis.put("bad", "old");
+			redis.put("bad" + RedisCacheProxy.EARLY_REFRESH_SUFFIX, meta);
+			// 格式错误的加载信息视为不需要提前刷新，并被删除
+			Assert.equals("old", redisCacheProxy.getOrLoad("bad", loader, 1, TimeUnit.MINUTES));
+			Assert.isFalse(redis.containsKey("bad" + RedisCacheProxy.EARLY_REFRESH_SUFFIX));
+		}
+		Assert.equals(0, loadCount.get());
+	}
+
+	@SuppressWarnings("unchecked")
+	private RedisTemplate<String, Object> mockRedisTemplate() {
+		RedisTemplate<String, Object> redisTemplate = Mockito.mock(RedisTemplate.class);
+		ValueOperations<String, Object> valueOperations = Mockito.mock(ValueOperations.class);
+		Mockito.when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+		Mockito.when(valueOperations.get(Mockito.anyString())).thenAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+		Mockito.when(valueOperations.multiGet(Mockito.anyCollection())).thenAnswer(invocation -> {
+			List<Object> values = new ArrayList<>();
+			for (String key : invocation.<Collection<String>>getArgument(0)) {
+				values.add(redis.get(key));
+			}
+			return values;
+		});
+		Mockito.doAnswer(invocation -> {
+			ttlMillisMap.put(invocation.getArgument(0), invocation.<TimeUnit>getArgument(3).toMillis(invocation.getArgument(2)));
+			return redis.put(invocation.getArgument(0), invocation.getArgument(1));
+		}).when(valueOperations).set(Mockito.anyString(), Mockito.any(), Mockito.anyLong(), Mockito.any(TimeUnit.class));
+		Mockito.when(redisTemplate.delete(Mockito.anyString())).thenAnswer(invocation -> redis.remove(invocation.<String>getArgument(0)) != null);
+		// 管道中的命令直接执行
+		Mockito.when(redisTemplate.executePipelined(Mockito.any(SessionCallback.class))).thenAnswer(invocation -> {
+			invocation.<SessionCallback<Object>>getArgument(0).execute(redisTemplate);
+			return List.of();
+		});
+		return redisTemplate;
+	}
+}
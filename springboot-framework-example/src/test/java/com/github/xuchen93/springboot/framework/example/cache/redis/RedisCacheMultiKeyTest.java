@@ -0,0 +1,64 @@
+package com.github.xuchen93.springboot.framework.example.cache.redis;
+
+import cn.hutool.core.lang.Assert;
+import com.github.xuchen93.springboot.framework.cache.properties.CacheProperty;
+import com.github.xuchen93.springboot.framework.cache.redis.RedisCacheProxy;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.redisson.api.RedissonClient;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+class RedisCacheMultiKeyTest {
+
+	private final SimulatedRedisTemplate redisTemplate = new SimulatedRedisTemplate(0);
+	private final CacheProperty.RedisProperties redisProperties = new CacheProperty.RedisProperties();
+	private final RedisCacheProxy redisCacheProxy = new RedisCacheProxy(redisTemplate, Mockito.mock(RedissonClient.class), redisProperties);
+
+	@Test
+	void mSetAndMGet() {
+		redisProperties.setMultiKeyBatchSize(100);
+		Map<String, Integer> map = new LinkedHashMap<>();
+		for (int i = 0; i < 250; i++) {
+			map.put("product:" + i, i);
+		}
+		redisCacheProxy.mSet(map, 10, TimeUnit.SECONDS);
+		// 250个key拆分为3个管道
+		Assert.equals(3L, redisTemplate.getPipelineCount());
+		Assert.equals(10_000L, redisTemplate.getTtlMillisMap().get("product:0"));
+
+		List<String> keys = new ArrayList<>(map.keySet());
+		keys.add("product:missing");
+		keys.add("product:0");
+		long roundTrips = redisTemplate.getRoundTrips();
+		Map<String, Integer> result = redisCacheProxy.mGet(keys);
+		Assert.equals(3L, redisTemplate.getRoundTrips() - roundTrips);
+		Assert.equals(map, result);
+		// 按keys的顺序返回
+		Assert.equals(new ArrayList<>(map.keySet()), new ArrayList<>(result.keySet()));
+		Assert.isTrue(redisCacheProxy.mGet(List.of()).isEmpty());
+	}
+
+	@Test
+	void hGetAllMultiAndExists() {
+		redisTemplate.getHashes().put("user:1", Map.of("name", "a"));
+		redisTemplate.getHashes().put("user:2", Map.of("name", "b", "age", 2));
+		redisTemplate.getValues().put("user:count", 2);
+
+		Map<String, Map<String, Object>> hashes = redisCacheProxy.hGetAllMulti(List.of("user:1", "user:2", "user:3"));
+		Assert.equals(2, hashes.size());
+		Assert.equals("a", hashes.get("user:1").get("name"));
+		Assert.equals(2, hashes.get("user:2").get("age"));
+		Assert.equals(1L, redisTemplate.getPipelineCount());
+
+		Map<String, Boolean> exists = redisCacheProxy.exists(List.of("user:1", "user:count", "user:3"));
+		Assert.equals(Map.of("user:1", true, "user:count", true, "user:3", false), exists);
+
+		Assert.equals(2L, redisCacheProxy.unlink(List.of("user:1", "user:count", "user:3")));
+		Assert.isFalse(redisCacheProxy.exists(List.of("user:1")).get("user:1"));
+	}
+}
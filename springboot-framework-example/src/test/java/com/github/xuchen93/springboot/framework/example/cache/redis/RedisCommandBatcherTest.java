@@ -0,0 +1,163 @@
+package com.github.xuchen93.springboot.framework.example.cache.redis;
+
+import cn.hutool.core.lang.Assert;
+import com.github.xuchen93.springboot.framework.cache.properties.CacheProperty;
+import com.github.xuchen93.springboot.framework.cache.redis.RedisCacheProxy;
+import com.github.xuchen93.springboot.framework.cache.redis.RedisCommandBatcher;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.redisson.api.RedissonClient;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+class RedisCommandBatcherTest {
+
+	@Test
+	void batch() throws Exception {
+		SimulatedRedisTemplate redisTemplate = new SimulatedRedisTemplate(TimeUnit.MICROSECONDS.toNanos(200));
+		for (int i = 0; i < 100; i++) {
+			redisTemplate.getValues().put("key" + i, i);
+		}
+		redisTemplate.getHashes().put("hash", Map.of("field", "value"));
+		RedisCacheProxy redisCacheProxy = new RedisCacheProxy(redisTemplate, Mockito.mock(RedissonClient.class), autoBatchProperties());
+
+		int threads = 32;
+		int perThread = 200;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			int offset = t;
+			futures.add(executor.submit(() -> {
+				for (int i = 0; i < perThread; i++) {
+					int index = (i + offset) % 100;
+					Assert.equals(index, redisCacheProxy.<Integer>get("key" + index));
+					Assert.isNull(redisCacheProxy.get("missing" + index));
+				}
+				Assert.equals("value", redisCacheProxy.hGet("hash", "field"));
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+		RedisCommandBatcher commandBatcher = redisCacheProxy.getCommandBatcher();
+		log.info("命令数:{} 管道数:{}", commandBatcher.getCommandCount(), commandBatcher.getFlushCount());
+		Assert.equals((long) threads * (perThread * 2 + 1), commandBatcher.getCommandCount());
+		Assert.equals(commandBatcher.getFlushCount(), redisTemplate.getRoundTrips());
+		Assert.isTrue(commandBatcher.getFlushCount() * 4 < commandBatcher.getCommandCount());
+
+		redisCacheProxy.destroy();
+		try {
+			redisCacheProxy.get("key1");
+			Assert.isTrue(false);
+		} catch (IllegalStateException e) {
+			log.info("{}", e.getMessage());
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void pipelineException() {
+		SimulatedRedisTemplate redisTemplate = Mockito.spy(new SimulatedRedisTemplate(0));
+		Mockito.doThrow(new QueryTimeoutException("timeout")).when(redisTemplate).executePipelined(Mockito.any(SessionCallback.class));
+		RedisCacheProxy redisCacheProxy = new RedisCacheProxy(redisTemplate, Mockito.mock(RedissonClient.class), autoBatchProperties());
+		try {
+			redisCacheProxy.get("key");
+			Assert.isTrue(false);
+		} catch (QueryTimeoutException e) {
+			Assert.equals("timeout", e.getMessage());
+		}
+		redisCacheProxy.destroy();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void partialPipelineFailure() throws Exception {
+		SimulatedRedisTemplate redisTemplate = Mockito.spy(new SimulatedRedisTemplate(0));
+		redisTemplate.setValueSerializer(StringRedisSerializer.UTF_8);
+		List<Object> rawResults = List.of("ok".getBytes(StandardCharsets.UTF_8), new RedisSystemException("WRONGTYPE", null));
+		Mockito.doThrow(new RedisPipelineException(new RedisSystemException("WRONGTYPE", null), rawResults))
+				.when(redisTemplate).executePipelined(Mockito.any(SessionCallback.class));
+		CacheProperty.RedisProperties redisProperties = autoBatchProperties();
+		redisProperties.getAutoBatch().setFlushThreads(1);
+		redisProperties.getAutoBatch().setWindowMicros(TimeUnit.MILLISECONDS.toMicros(200));
+		RedisCacheProxy redisCacheProxy = new RedisCacheProxy(redisTemplate, Mockito.mock(RedissonClient.class), redisProperties);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		// 两条命令在同一个管道中，只有第二条失败
+		Future<Object> first = executor.submit(() -> redisCacheProxy.get("first"));
+		Thread.sleep(20);
+		Future<Object> second = executor.submit(() -> redisCacheProxy.get("second"));
+		Assert.equals("ok", first.get(5, TimeUnit.SECONDS));
+		try {
+			second.get(5, TimeUnit.SECONDS);
+			Assert.isTrue(false);
+		} catch (ExecutionException e) {
+			Assert.isTrue(e.getCause() instanceof RedisSystemException);
+		}
+		executor.shutdown();
+		redisCacheProxy.destroy();
+	}
+
+	@Test
+	void timeout() {
+		SimulatedRedisTemplate redisTemplate = new SimulatedRedisTemplate(TimeUnit.MILLISECONDS.toNanos(500));
+		CacheProperty.RedisProperties redisProperties = autoBatchProperties();
+		redisProperties.getAutoBatch().setTimeoutMillis(50);
+		RedisCacheProxy redisCacheProxy = new RedisCacheProxy(redisTemplate, Mockito.mock(RedissonClient.class), redisProperties);
+		try {
+			redisCacheProxy.get("key");
+			Assert.isTrue(false);
+		} catch (QueryTimeoutException e) {
+			log.info("{}", e.getMessage());
+		}
+		redisCacheProxy.destroy();
+	}
+
+	@Test
+	void closeFailsPending() throws Exception {
+		SimulatedRedisTemplate redisTemplate = new SimulatedRedisTemplate(TimeUnit.SECONDS.toNanos(2));
+		CacheProperty.RedisProperties redisProperties = autoBatchProperties();
+		redisProperties.getAutoBatch().setFlushThreads(1);
+		redisProperties.getAutoBatch().setMaxBatchSize(1);
+		RedisCacheProxy redisCacheProxy = new RedisCacheProxy(redisTemplate, Mockito.mock(RedissonClient.class), redisProperties);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		// 第一条命令占用唯一的后台线程，第二条留在队列中
+		Future<?> running = executor.submit(() -> redisCacheProxy.get("key1"));
+		Thread.sleep(100);
+		Future<?> pending = executor.submit(() -> redisCacheProxy.get("key2"));
+		Thread.sleep(100);
+		long start = System.currentTimeMillis();
+		redisCacheProxy.destroy();
+		try {
+			pending.get(1, TimeUnit.SECONDS);
+			Assert.isTrue(false);
+		} catch (ExecutionException e) {
+			Assert.isTrue(e.getCause() instanceof IllegalStateException);
+		}
+		Assert.isTrue(System.currentTimeMillis() - start < 1000);
+		running.get(5, TimeUnit.SECONDS);
+		executor.shutdown();
+	}
+
+	private static CacheProperty.RedisProperties autoBatchProperties() {
+		CacheProperty.RedisProperties redisProperties = new CacheProperty.RedisProperties();
+		redisProperties.getAutoBatch().setEnable(true);
+		redisProperties.getAutoBatch().setWindowMicros(50);
+		return redisProperties;
+	}
+}
@@ -0,0 +1,205 @@
+package com.github.xuchen93.springboot.framework.example.cache.redis;
+
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 本地的Redis替身：数据保存在内存中，每次往返（单条命令或一次管道）：
+ * <ul>
+ *     <li>占用连接池中的一个连接，连接数为connections</li>
+ *     <li>单线程的服务端串行消耗roundTripCostNanos + 命令数 * commandCostNanos的CPU（收发包、解析）</li>
+ *     <li>等待rttNanos模拟网络延迟</li>
+ * </ul>
+ * 只实现GET、SET、MGET、HGET、HSET、HGETALL、EXISTS、UNLINK和executePipelined
+ */
+public class SimulatedRedisTemplate extends RedisTemplate<String, Object> {
+
+	private final long rttNanos;
+	private final long roundTripCostNanos;
+	private final long commandCostNanos;
+	private final Semaphore connections;
+	private final Object server = new Object();
+	private final ValueOperations<String, Object> valueOperations = valueOperations(null);
+	private final HashOperations<String, Object, Object> hashOperations = hashOperations(null);
+	private final Map<String, Object> values = new ConcurrentHashMap<>();
+	private final Map<String, Map<String, Object>> hashes = new ConcurrentHashMap<>();
+	private final Map<String, Long> ttlMillisMap = new ConcurrentHashMap<>();
+	private final AtomicLong roundTrips = new AtomicLong();
+	private final AtomicLong pipelineCount = new AtomicLong();
+
+	/**
+	 * 只模拟网络延迟，不限制连接数
+	 */
+	public SimulatedRedisTemplate(long rttNanos) {
+		this(rttNanos, 0, 0, Integer.MAX_VALUE);
+	}
+
+	public SimulatedRedisTemplate(long rttNanos, long roundTripCostNanos, long commandCostNanos, int connections) {
+		this.rttNanos = rttNanos;
+		this.roundTripCostNanos = roundTripCostNanos;
+		this.commandCostNanos = commandCostNanos;
+		this.connections = new Semaphore(connections);
+	}
+
+	public Map<String, Object> getValues() {
+		return values;
+	}
+
+	public Map<String, Map<String, Object>> getHashes() {
+		return hashes;
+	}
+
+	public Map<String, Long> getTtlMillisMap() {
+		return ttlMillisMap;
+	}
+
+	public long getRoundTrips() {
+		return roundTrips.get();
+	}
+
+	public long getPipelineCount() {
+		return pipelineCount.get();
+	}
+
+	@Override
+	public ValueOperations<String, Object> opsForValue() {
+		return valueOperations;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <HK, HV> HashOperations<String, HK, HV> opsForHash() {
+		return (HashOperations<String, HK, HV>) hashOperations;
+	}
+
+	@Override
+	public Boolean hasKey(String key) {
+		roundTrip(1);
+		return exists(key);
+	}
+
+	@Override
+	public Long unlink(Collection<String> keys) {
+		roundTrip(1);
+		long count = 0;
+		for (String key : keys) {
+			boolean removed = values.remove(key) != null;
+			removed |= hashes.remove(key) != null;
+			count += removed ? 1 : 0;
+		}
+		return count;
+	}
+
+	@Override
+	public List<Object> executePipelined(SessionCallback<?> session) {
+		List<Object> results = new ArrayList<>();
+		session.execute(pipelineOperations(results));
+		pipelineCount.incrementAndGet();
+		roundTrip(results.size());
+		return results;
+	}
+
+	private void roundTrip(int commands) {
+		roundTrips.incrementAndGet();
+		connections.acquireUninterruptibly();
+		try {
+			long cost = roundTripCostNanos + commands * commandCostNanos;
+			if (cost > 0) {
+				synchronized (server) {
+					long end = System.nanoTime() + cost;
+					while (System.nanoTime() < end) {
+						Thread.onSpinWait();
+					}
+				}
+			}
+			if (rttNanos > 0) {
+				LockSupport.parkNanos(rttNanos);
+			}
+		} finally {
+			connections.release();
+		}
+	}
+
+	private boolean exists(String key) {
+		return values.containsKey(key) || hashes.containsKey(key);
+	}
+
+	/**
+	 * pipelineResults为null时每条命令一次往返，否则把结果追加到管道的结果中，命令本身返回null
+	 */
+	@SuppressWarnings("unchecked")
+	private ValueOperations<String, Object> valueOperations(List<Object> pipelineResults) {
+		return (ValueOperations<String, Object>) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{ValueOperations.class}, (proxy, method, args) -> {
+			Object result = switch (method.getName()) {
+				case "get" -> values.get((String) args[0]);
+				case "set" -> {
+					values.put((String) args[0], args[1]);
+					if (args.length == 4) {
+						ttlMillisMap.put((String) args[0], ((TimeUnit) args[3]).toMillis((Long) args[2]));
+					}
+					yield pipelineResults == null ? null : Boolean.TRUE;
+				}
+				case "multiGet" -> {
+					List<Object> list = new ArrayList<>();
+					for (String key : (Collection<String>) args[0]) {
+						list.add(values.get(key));
+					}
+					yield list;
+				}
+				default -> throw new UnsupportedOperationException(method.getName());
+			};
+			return reply(pipelineResults, result);
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private <HK, HV> HashOperations<String, HK, HV> hashOperations(List<Object> pipelineResults) {
+		return (HashOperations<String, HK, HV>) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{HashOperations.class}, (proxy, method, args) -> {
+			Object result = switch (method.getName()) {
+				case "get" -> hashes.getOrDefault((String) args[0], Map.of()).get((String) args[1]);
+				case "put" -> {
+					hashes.computeIfAbsent((String) args[0], k -> new ConcurrentHashMap<>()).put((String) args[1], args[2]);
+					yield null;
+				}
+				case "entries" -> Map.copyOf(hashes.getOrDefault((String) args[0], Map.of()));
+				default -> throw new UnsupportedOperationException(method.getName());
+			};
+			return reply(pipelineResults, result);
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private RedisOperations<String, Object> pipelineOperations(List<Object> pipelineResults) {
+		ValueOperations<String, Object> pipelineValueOperations = valueOperations(pipelineResults);
+		HashOperations<String, Object, Object> pipelineHashOperations = hashOperations(pipelineResults);
+		return (RedisOperations<String, Object>) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{RedisOperations.class}, (proxy, method, args) -> switch (method.getName()) {
+			case "opsForValue" -> pipelineValueOperations;
+			case "opsForHash" -> pipelineHashOperations;
+			case "hasKey" -> reply(pipelineResults, exists((String) args[0]));
+			default -> throw new UnsupportedOperationException(method.getName());
+		});
+	}
+
+	private Object reply(List<Object> pipelineResults, Object result) {
+		if (pipelineResults != null) {
+			pipelineResults.add(result);
+			return null;
+		}
+		roundTrip(1);
+		return result;
+	}
+}
@@ -0,0 +1,108 @@
+package com.github.xuchen93.springboot.framework.example.cache.tiered;
+
+import cn.hutool.core.lang.Assert;
+import com.github.xuchen93.springboot.framework.cache.tiered.CacheInvalidation;
+import com.github.xuchen93.springboot.framework.cache.tiered.TieredCache;
+import com.github.xuchen93.springboot.framework.cache.tiered.TieredCacheManager;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.redisson.api.RTopic;
+import org.redisson.api.listener.MessageListener;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 两个节点共用一个ConcurrentMapCacheManager作为Redis，发布订阅用内存中的topic代替
+ */
+class TieredCacheManagerTest {
+
+	private final CacheManager remoteCacheManager = new ConcurrentMapCacheManager();
+	private final List<MessageListener<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+	private final AtomicInteger publishCount = new AtomicInteger();
+
+	@Test
+	void readThrough() {
+		TieredCacheManager node = createNode();
+		TieredCache cache = (TieredCache) node.getCache("user");
+		remoteCacheManager.getCache("user").put(1, "redis");
+
+		Assert.equals("redis", cache.get(1, String.class));
+		// 未命中时回填一级缓存
+		Assert.equals("redis", cache.getLocalCache().get(1).get());
+		Assert.isNull(cache.get(2));
+		Assert.isNull(cache.getLocalCache().get(2));
+	}
+
+	@Test
+	void invalidateOtherNodes() {
+		TieredCacheManager node1 = createNode();
+		TieredCacheManager node2 = createNode();
+		TieredCache cache1 = (TieredCache) node1.getCache("user");
+		TieredCache cache2 = (TieredCache) node2.getCache("user");
+
+		cache1.put(1, "v1");
+		Assert.equals("v1", cache2.get(1, String.class));
+
+		cache1.put(1, "v2");
+		// node2的一级缓存被清除，重新从Redis读取
+		Assert.isNull(cache2.getLocalCache().get(1));
+		Assert.equals("v2", cache2.get(1, String.class));
+		// 自己发出的通知不清除自己的一级缓存
+		Assert.equals("v2", cache1.getLocalCache().get(1).get());
+
+		cache2.evict(1);
+		Assert.isNull(cache1.getLocalCache().get(1));
+		Assert.isNull(cache1.get(1));
+
+		cache1.put(2, "v2");
+		cache2.get(2);
+		cache1.clear();
+		Assert.isNull(cache2.getLocalCache().get(2));
+	}
+
+	@Test
+	void loader() {
+		TieredCacheManager node1 = createNode();
+		TieredCacheManager node2 = createNode();
+		AtomicInteger loadCount = new AtomicInteger();
+		Assert.equals("db", node1.getCache("user").get(1, () -> {
+			loadCount.incrementAndGet();
+			return "db";
+		}));
+		int published = publishCount.get();
+		// node2从Redis读取，不再调用loader
+		Assert.equals("db", node2.getCache("user").get(1, () -> {
+			loadCount.incrementAndGet();
+			return "db2";
+		}));
+		Assert.equals(1, loadCount.get());
+		Assert.equals(published, publishCount.get());
+	}
+
+	@SuppressWarnings("unchecked")
+	private TieredCacheManager createNode() {
+		RTopic topic = Mockito.mock(RTopic.class);
+		Mockito.when(topic.addListener(Mockito.eq(CacheInvalidation.class), Mockito.any(MessageListener.class)))
+				.thenAnswer(invocation -> {
+					listeners.add(invocation.getArgument(1));
+					return listeners.size();
+				});
+		Mockito.when(topic.publish(Mockito.any())).thenAnswer(invocation -> {
+			publishCount.incrementAndGet();
+			for (MessageListener<CacheInvalidation> listener : listeners) {
+				listener.onMessage("test", invocation.getArgument(0));
+			}
+			return (long) listeners.size();
+		});
+		CaffeineCacheManager localCacheManager = new CaffeineCacheManager();
+		localCacheManager.setAllowNullValues(false);
+		TieredCacheManager cacheManager = new TieredCacheManager(localCacheManager, remoteCacheManager, topic);
+		cacheManager.subscribe();
+		return cacheManager;
+	}
+}
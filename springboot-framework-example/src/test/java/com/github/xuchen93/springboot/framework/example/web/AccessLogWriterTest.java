@@ -0,0 +1,145 @@
+package com.github.xuchen93.springboot.framework.example.web;
+
+
+import cn.hutool.core.lang.Assert;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.xuchen93.springboot.framework.base.convention.result.R;
+import com.github.xuchen93.springboot.framework.base.support.model.SinkStats;
+import com.github.xuchen93.springboot.framework.web.properties.WebProperty;
+import com.github.xuchen93.springboot.framework.web.support.AccessLogWriter;
+import com.github.xuchen93.springboot.framework.web.support.model.CachedBody;
+import com.github.xuchen93.springboot.framework.web.support.model.RequestAspectKey;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+@Slf4j
+public class AccessLogWriterTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void writeJsonLines() throws Exception {
+		WebProperty webProperty = new WebProperty();
+		WebProperty.AccessLog config = webProperty.getRequestAspect().getAccessLog();
+		config.setFilePath(tempDir.resolve("access.log").toString());
+		config.setBufferSize(1024);
+		config.setFullPolicy(WebProperty.FullPolicy.BLOCK);
+		AccessLogWriter accessLogWriter = new AccessLogWriter(webProperty);
+		accessLogWriter.afterSingletonsInstantiated();
+
+		int threadCount = 8;
+		int loopCount = 1000;
+		IntStream.range(0, threadCount).parallel().forEach(index -> {
+			for (int i = 0; i < loopCount; i++) {
+				accessLogWriter.publish(requestAspectKey(index * loopCount + i), i, i % 10 != 0, R.success(i));
+			}
+		});
+		accessLogWriter.destroy();
+
+		SinkStats sinkStats = accessLogWriter.getSinkStats();
+		log.info("{}", sinkStats);
+		Assert.equals((long) threadCount * loopCount, sinkStats.getPublishedCount());
+		Assert.equals(0L, sinkStats.getDroppedCount());
+
+		List<String> lines = Files.readAllLines(tempDir.resolve("access.log"));
+		Assert.equals(threadCount * loopCount, lines.size());
+		ObjectMapper objectMapper = new ObjectMapper();
+		JsonNode first = objectMapper.readTree(lines.get(0));
+		Assert.equals("GET", first.get("method").asText());
+		Assert.notNull(first.get("result").get("code"));
+	}
+
+	@Test
+	public void dropWhenFull() throws Exception {
+		WebProperty webProperty = new WebProperty();
+		WebProperty.AccessLog config = webProperty.getRequestAspect().getAccessLog();
+		config.setFilePath(tempDir.resolve("drop.log").toString());
+		config.setBufferSize(4);
+		// 后台线程未启动，缓冲区写满后丢弃
+		AccessLogWriter accessLogWriter = new AccessLogWriter(webProperty);
+		for (int i = 0; i < 10; i++) {
+			accessLogWriter.publish(requestAspectKey(i), i, true, null);
+		}
+		Assert.equals(4, accessLogWriter.getSinkStats().getQueueSize());
+		Assert.equals(6L, accessLogWriter.getSinkStats().getDroppedCount());
+		accessLogWriter.afterSingletonsInstantiated();
+		accessLogWriter.destroy();
+		Assert.equals(4L, accessLogWriter.getSinkStats().getPublishedCount());
+	}
+
+	@Test
+	public void decodeCachedBody() throws Exception {
+		WebProperty webProperty = new WebProperty();
+		WebProperty.AccessLog config = webProperty.getRequestAspect().getAccessLog();
+		config.setFilePath(tempDir.resolve("body.log").toString());
+		AccessLogWriter accessLogWriter = new AccessLogWriter(webProperty);
+		byte[] buffer = "{\"index\":1}".getBytes(StandardCharsets.UTF_8);
+		RequestAspectKey requestAspectKey = requestAspectKey(1);
+		requestAspectKey.setRequestParams(new CachedBody(buffer, buffer.length, StandardCharsets.UTF_8));
+		accessLogWriter.publish(requestAspectKey, 1, true, null);
+		// 请求结束后缓冲区被其他请求复用
+		Arrays.fill(buffer, (byte) 'x');
+		accessLogWriter.afterSingletonsInstantiated();
+		accessLogWriter.destroy();
+		JsonNode line = new ObjectMapper().readTree(Files.readAllLines(tempDir.resolve("body.log")).get(0));
+		Assert.equals("{\"index\":1}", line.get("params").asText());
+		// 解码结果写入日志事件，不修改共享的RequestAspectKey
+		Assert.isTrue(requestAspectKey.getRequestParams() instanceof CachedBody);
+	}
+
+	@Test
+	public void serializeResultOnRequestThread() throws Exception {
+		WebProperty webProperty = new WebProperty();
+		WebProperty.AccessLog config = webProperty.getRequestAspect().getAccessLog();
+		config.setFilePath(tempDir.resolve("result.log").toString());
+		AccessLogWriter accessLogWriter = new AccessLogWriter(webProperty);
+		List<Integer> result = new ArrayList<>(List.of(1, 2));
+		accessLogWriter.publish(requestAspectKey(1), 1, true, result);
+		// 返回值在请求结束后被修改
+		result.add(3);
+		accessLogWriter.afterSingletonsInstantiated();
+		accessLogWriter.destroy();
+		JsonNode line = new ObjectMapper().readTree(Files.readAllLines(tempDir.resolve("result.log")).get(0));
+		Assert.equals("[1,2]", line.get("result").toString());
+	}
+
+	@Test
+	public void rollFile() throws Exception {
+		WebProperty webProperty = new WebProperty();
+		WebProperty.AccessLog config = webProperty.getRequestAspect().getAccessLog();
+		config.setFilePath(tempDir.resolve("roll.log").toString());
+		config.setMaxFileSizeMb(1);
+		config.setMaxHistory(2);
+		config.setFullPolicy(WebProperty.FullPolicy.BLOCK);
+		AccessLogWriter accessLogWriter = new AccessLogWriter(webProperty);
+		accessLogWriter.afterSingletonsInstantiated();
+		List<Integer> result = new ArrayList<>();
+		IntStream.range(0, 1000).forEach(result::add);
+		for (int i = 0; i < 2000; i++) {
+			accessLogWriter.publish(requestAspectKey(i), i, true, result);
+		}
+		accessLogWriter.destroy();
+		Assert.isTrue(Files.exists(tempDir.resolve("roll.log.1")));
+		Assert.isTrue(Files.exists(tempDir.resolve("roll.log.2")));
+		Assert.isFalse(Files.exists(tempDir.resolve("roll.log.3")));
+	}
+
+	private RequestAspectKey requestAspectKey(int index) {
+		RequestAspectKey requestAspectKey = new RequestAspectKey(System.currentTimeMillis(), String.valueOf(index), "127.0.0.1", "Get|/accessLog");
+		requestAspectKey.setRequestMethod("GET");
+		requestAspectKey.setRequestUri("/accessLog");
+		requestAspectKey.setRequestParams("{\"index\":[\"" + index + "\"]}");
+		return requestAspectKey;
+	}
+}
@@ -0,0 +1,137 @@
+package com.github.xuchen93.springboot.framework.example.web;
+
+
+import cn.hutool.core.lang.Assert;
+import com.github.xuchen93.springboot.framework.base.convention.exception.ConcurrencyLimitException;
+import com.github.xuchen93.springboot.framework.web.properties.WebProperty;
+import com.github.xuchen93.springboot.framework.web.support.ConcurrencyLimitSupport;
+import com.github.xuchen93.springboot.framework.web.support.model.ConcurrencyLimitStats;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class ConcurrencyLimitSupportTest {
+
+	private static final String KEY = "Get|/limit";
+
+	@Test
+	public void fixedReject() {
+		WebProperty webProperty = new WebProperty();
+		WebProperty.ConcurrencyLimit config = webProperty.getRequestAspect().getConcurrencyLimit();
+		config.setAlgorithm(WebProperty.LimitAlgorithm.FIXED);
+		config.setRouteMaxConcurrency(Map.of(KEY, 2));
+		ConcurrencyLimitSupport limitSupport = new ConcurrencyLimitSupport(webProperty);
+
+		ConcurrencyLimitSupport.Permit permit = limitSupport.acquire(KEY);
+		limitSupport.acquire(KEY);
+		try {
+			limitSupport.acquire(KEY);
+			Assert.isTrue(false, "超过并发上限应被拒绝");
+		} catch (ConcurrencyLimitException e) {
+			Assert.equals(429, e.getCode());
+			Assert.equals(KEY, e.getUniqueKey());
+		}
+		// 其他路由不受影响
+		limitSupport.acquire("Get|/other");
+		permit.release();
+		limitSupport.acquire(KEY);
+
+		ConcurrencyLimitStats stats = limitSupport.getStatsList().get(0);
+		Assert.equals(KEY, stats.getUniqueKey());
+		Assert.equals(2, stats.getLimit());
+		Assert.equals(2, stats.getInFlight());
+		Assert.equals(3L, stats.getAcceptedCount());
+		Assert.equals(1L, stats.getRejectedCount());
+	}
+
+	@Test
+	public void waitForPermit() throws Exception {
+		WebProperty webProperty = new WebProperty();
+		WebProperty.ConcurrencyLimit config = webProperty.getRequestAspect().getConcurrencyLimit();
+		config.setAlgorithm(WebProperty.LimitAlgorithm.FIXED);
+		config.setMaxConcurrency(1);
+		config.setMaxWaitMillis(5000);
+		ConcurrencyLimitSupport limitSupport = new ConcurrencyLimitSupport(webProperty);
+
+		ConcurrencyLimitSupport.Permit permit = limitSupport.acquire(KEY);
+		CompletableFuture<ConcurrencyLimitSupport.Permit> future = CompletableFuture.supplyAsync(() -> limitSupport.acquire(KEY));
+		TimeUnit.MILLISECONDS.sleep(100);
+		Assert.isFalse(future.isDone());
+		Assert.equals(1, limitSupport.getStatsList().get(0).getWaiting());
+		permit.release();
+		Assert.notNull(future.get(1, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void wakeAllWhenLimitGrows() throws Exception {
+		WebProperty webProperty = new WebProperty();
+		WebProperty.ConcurrencyLimit config = webProperty.getRequestAspect().getConcurrencyLimit();
+		config.setInitialConcurrency(1);
+		config.setMaxConcurrency(10);
+		config.setMaxWaitMillis(5000);
+		ConcurrencyLimitSupport limitSupport = new ConcurrencyLimitSupport(webProperty);
+		// 耗时稳定，每次释放上限估算值增长sqrt(limit)*0.2，4次后约1.9，仍为1
+		for (int i = 0; i < 4; i++) {
+			ConcurrencyLimitSupport.Permit permit = limitSupport.acquire(KEY);
+			TimeUnit.MILLISECONDS.sleep(100);
+			permit.release();
+		}
+		Assert.equals(1, limitSupport.getStatsList().get(0).getLimit());
+
+		ConcurrencyLimitSupport.Permit permit = limitSupport.acquire(KEY);
+		CompletableFuture<ConcurrencyLimitSupport.Permit> first = CompletableFuture.supplyAsync(() -> limitSupport.acquire(KEY));
+		CompletableFuture<ConcurrencyLimitSupport.Permit> second = CompletableFuture.supplyAsync(() -> limitSupport.acquire(KEY));
+		TimeUnit.MILLISECONDS.sleep(100);
+		Assert.equals(2, limitSupport.getStatsList().get(0).getWaiting());
+		// 上限增长到2，两个等待者都应被唤醒并获取许可
+		permit.release();
+		Assert.notNull(first.get(1, TimeUnit.SECONDS));
+		Assert.notNull(second.get(1, TimeUnit.SECONDS));
+		Assert.equals(2, limitSupport.getStatsList().get(0).getLimit());
+	}
+
+	@Test
+	public void gradient() throws Exception {
+		WebProperty webProperty = new WebProperty();
+		WebProperty.ConcurrencyLimit config = webProperty.getRequestAspect().getConcurrencyLimit();
+		config.setInitialConcurrency(10);
+		config.setMaxConcurrency(100);
+		ConcurrencyLimitSupport limitSupport = new ConcurrencyLimitSupport(webProperty);
+
+		// 耗时稳定时上限增长
+		for (int i = 0; i < 20; i++) {
+			round(limitSupport, 0);
+		}
+		int grownLimit = limitSupport.getStatsList().get(0).getLimit();
+		log.info("增长后：{}", limitSupport.getStatsList().get(0));
+		Assert.isTrue(grownLimit > 10);
+
+		// 耗时上升时上限收缩
+		for (int i = 0; i < 10; i++) {
+			round(limitSupport, 20);
+		}
+		ConcurrencyLimitStats stats = limitSupport.getStatsList().get(0);
+		log.info("收缩后：{}", stats);
+		Assert.isTrue(stats.getLimit() < grownLimit);
+		Assert.isTrue(stats.getLimit() >= config.getMinConcurrency());
+		Assert.equals(0, stats.getInFlight());
+	}
+
+	private void round(ConcurrencyLimitSupport limitSupport, long sleepMillis) throws InterruptedException {
+		List<ConcurrencyLimitSupport.Permit> permits = new ArrayList<>();
+		try {
+			while (true) {
+				permits.add(limitSupport.acquire(KEY));
+			}
+		} catch (ConcurrencyLimitException ignored) {
+		}
+		TimeUnit.MILLISECONDS.sleep(sleepMillis);
+		permits.forEach(ConcurrencyLimitSupport.Permit::release);
+	}
+}
@@ -0,0 +1,113 @@
+package com.github.xuchen93.springboot.framework.example.web;
+
+
+import cn.hutool.core.lang.Assert;
+import com.github.xuchen93.springboot.framework.base.convention.enums.MethodStatsType;
+import com.github.xuchen93.springboot.framework.base.convention.result.R;
+import com.github.xuchen93.springboot.framework.base.support.manager.MethodStatsManager;
+import com.github.xuchen93.springboot.framework.base.support.model.MethodStats;
+import com.github.xuchen93.springboot.framework.web.properties.WebProperty;
+import com.github.xuchen93.springboot.framework.web.support.AccessLogWriter;
+import com.github.xuchen93.springboot.framework.web.support.GlobalExceptionAdviceSupport;
+import com.github.xuchen93.springboot.framework.web.support.SlowRequestRecorder;
+import com.github.xuchen93.springboot.framework.web.support.extra.ExtraExceptionSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.List;
+
+public class GlobalExceptionAdviceSupportTest {
+
+	private final StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+
+	private final GlobalExceptionAdviceSupport adviceSupport = new GlobalExceptionAdviceSupport(new WebProperty(),
+			List.of(new MessageSupport(), new IllegalStateSupport(), new RuntimeSupport(), new NeverReachedSupport()),
+			beanFactory.getBeanProvider(AccessLogWriter.class),
+			beanFactory.getBeanProvider(SlowRequestRecorder.class));
+
+	@BeforeEach
+	public void init() {
+		adviceSupport.init();
+	}
+
+	@Test
+	public void resolve() {
+		Assert.equals("IllegalState", adviceSupport.exceptionHandler(new IllegalStateException()).getMsg());
+		// 按继承关系匹配
+		Assert.equals("IllegalState", adviceSupport.exceptionHandler(new SubIllegalStateException()).getMsg());
+		Assert.equals("Runtime", adviceSupport.exceptionHandler(new UnsupportedOperationException()).getMsg());
+		// 重写了supports的每次都会判断，且保持列表顺序
+		Assert.equals("Message", adviceSupport.exceptionHandler(new IllegalStateException("message")).getMsg());
+		Assert.equals("IllegalState", adviceSupport.exceptionHandler(new IllegalStateException()).getMsg());
+		Assert.equals("系统错误", adviceSupport.exceptionHandler(new Exception()).getMsg());
+	}
+
+	@Test
+	public void stats() {
+		for (int i = 0; i < 3; i++) {
+			adviceSupport.exceptionHandler(new ArithmeticException());
+		}
+		MethodStats methodStats = MethodStatsManager.peekByType(MethodStatsType.EXCEPTION.getType()).stream()
+				.filter(stats -> stats.getUniqueKey().equals(ArithmeticException.class.getName() + "|RuntimeSupport"))
+				.findFirst()
+				.orElseThrow();
+		Assert.equals(3L, methodStats.getLifetimeFailCount());
+	}
+
+	public static class SubIllegalStateException extends IllegalStateException {
+	}
+
+	public static class MessageSupport implements ExtraExceptionSupport<RuntimeException> {
+		@Override
+		public Class<RuntimeException> exception() {
+			return RuntimeException.class;
+		}
+
+		@Override
+		public R<Object> result(RuntimeException exception) {
+			return R.fail("Message");
+		}
+
+		@Override
+		public boolean supports(Exception e) {
+			return "message".equals(e.getMessage());
+		}
+	}
+
+	public static class IllegalStateSupport implements ExtraExceptionSupport<IllegalStateException> {
+		@Override
+		public Class<IllegalStateException> exception() {
+			return IllegalStateException.class;
+		}
+
+		@Override
+		public R<Object> result(IllegalStateException exception) {
+			return R.fail("IllegalState");
+		}
+	}
+
+	public static class RuntimeSupport implements ExtraExceptionSupport<RuntimeException> {
+		@Override
+		public Class<RuntimeException> exception() {
+			return RuntimeException.class;
+		}
+
+		@Override
+		public R<Object> result(RuntimeException exception) {
+			return R.fail("Runtime");
+		}
+	}
+
+	public static class NeverReachedSupport implements ExtraExceptionSupport<IllegalStateException> {
+		@Override
+		public Class<IllegalStateException> exception() {
+			return IllegalStateException.class;
+		}
+
+		@Override
+		public R<Object> result(IllegalStateException exception) {
+			return R.fail("NeverReached");
+		}
+	}
+}
@@ -0,0 +1,189 @@
+package com.github.xuchen93.springboot.framework.example.web;
+
+
+import cn.hutool.core.lang.Assert;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.xuchen93.springboot.framework.base.convention.error.BaseErrorCode;
+import com.github.xuchen93.springboot.framework.base.convention.result.R;
+import com.github.xuchen93.springboot.framework.web.support.converter.RHttpMessageConverter;
+import com.github.xuchen93.springboot.framework.web.properties.WebProperty;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+public class RHttpMessageConverterTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final RHttpMessageConverter converter = new RHttpMessageConverter(objectMapper, config(false, false));
+
+	@Test
+	public void interned() throws Exception {
+		Assert.isTrue(R.sharedSuccess() == R.sharedSuccess());
+		Assert.isTrue(R.sharedFail(BaseErrorCode.SERVICE_ERROR) == R.sharedFail(BaseErrorCode.SERVICE_ERROR));
+		Assert.isTrue(R.isInterned(R.sharedFail()));
+		Assert.isFalse(R.isInterned(R.success("data")));
+		// 原有的工厂方法依然返回可修改的新实例
+		Assert.isFalse(R.isInterned(R.success()));
+		Assert.isFalse(R.isInterned(R.fail(BaseErrorCode.SERVICE_ERROR)));
+		R<Object> success = R.success();
+		success.setData("data");
+		Assert.equals("data", success.getData());
+		try {
+			R.sharedSuccess().setData("data");
+			Assert.isTrue(false, "共享实例不能修改");
+		} catch (UnsupportedOperationException ignored) {
+		}
+		Assert.equals(objectMapper.writeValueAsString(R.success()), objectMapper.writeValueAsString(R.sharedSuccess()));
+
+		MockHttpOutputMessage outputMessage = write(R.sharedFail(BaseErrorCode.SERVICE_ERROR));
+		Assert.equals(objectMapper.writeValueAsString(R.fail(BaseErrorCode.SERVICE_ERROR)), outputMessage.getBodyAsString(StandardCharsets.UTF_8));
+		Assert.equals((long) outputMessage.getBodyAsBytes().length, outputMessage.getHeaders().getContentLength());
+		Assert.isTrue(converter.getInternedBytes(R.sharedSuccess()) == converter.getInternedBytes(R.sharedSuccess()));
+	}
+
+	@Test
+	public void sameAsObjectMapper() throws Exception {
+		List<R<?>> list = List.of(
+				R.success(Map.of("key", "value")),
+				R.success(IntStream.range(0, 5).boxed().toList()),
+				// 超过streamThreshold，逐个元素写出
+				R.success(IntStream.range(0, 100).mapToObj(i -> Map.of("index", i)).toList()),
+				R.fail(500, null, IntStream.range(0, 20).boxed().toList()));
+		for (R<?> r : list) {
+			Assert.equals(objectMapper.writeValueAsString(r), write(r).getBodyAsString(StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	public void streamingHonorsObjectMapper() throws Exception {
+		ObjectMapper customMapper = new ObjectMapper()
+				.addMixIn(R.class, RMixin.class)
+				.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+		RHttpMessageConverter customConverter = new RHttpMessageConverter(customMapper, config(false, false));
+		R<?> large = R.fail(500, null, IntStream.range(0, 100).mapToObj(i -> Map.of("index", i)).toList());
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		customConverter.write(large, MediaType.APPLICATION_JSON, outputMessage);
+		String expected = customMapper.writeValueAsString(large);
+		Assert.isTrue(expected.contains("\"status\":500") && !expected.contains("\"msg\""), expected);
+		Assert.equals(expected, outputMessage.getBodyAsString(StandardCharsets.UTF_8));
+	}
+
+	private abstract static class RMixin {
+		@JsonProperty("status")
+		abstract int getCode();
+	}
+
+	@Test
+	public void etag() throws Exception {
+		RHttpMessageConverter etagConverter = new RHttpMessageConverter(objectMapper, config(true, false));
+		R<?> r = R.success(Map.of("key", "value"));
+		MockHttpServletResponse response = writeServlet(etagConverter, r, new MockHttpServletRequest("GET", "/etag"));
+		String etag = response.getHeader(HttpHeaders.ETAG);
+		Assert.isTrue(etag.startsWith("W/\""));
+		Assert.equals(objectMapper.writeValueAsString(r), response.getContentAsString());
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/etag");
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", " + etag);
+		response = writeServlet(etagConverter, r, request);
+		Assert.equals(304, response.getStatus());
+		Assert.equals(0, response.getContentAsByteArray().length);
+
+		// 非GET、HEAD请求条件不满足时返回412
+		request = new MockHttpServletRequest("POST", "/etag");
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+		response = writeServlet(etagConverter, r, request);
+		Assert.equals(412, response.getStatus());
+		Assert.equals(0, response.getContentAsByteArray().length);
+
+		// 内容变化后ETag不同
+		request = new MockHttpServletRequest("GET", "/etag");
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+		response = writeServlet(etagConverter, R.success(Map.of("key", "other")), request);
+		Assert.equals(200, response.getStatus());
+		Assert.notEquals(etag, response.getHeader(HttpHeaders.ETAG));
+
+		// 逐个元素写出的大集合不计算ETag
+		R<?> large = R.success(IntStream.range(0, 100).boxed().toList());
+		response = writeServlet(etagConverter, large, new MockHttpServletRequest("GET", "/etag"));
+		Assert.isNull(response.getHeader(HttpHeaders.ETAG));
+		Assert.equals(objectMapper.writeValueAsString(large), response.getContentAsString());
+	}
+
+	@Test
+	public void compress() throws Exception {
+		R<?> small = R.success("small");
+		R<?> large = R.success(IntStream.range(0, 2000).mapToObj(i -> Map.of("index", i)).toList());
+		for (boolean enableEtag : new boolean[]{true, false}) {
+			RHttpMessageConverter compressConverter = new RHttpMessageConverter(objectMapper, config(enableEtag, true));
+			// 多次写出验证压缩器复用
+			for (int i = 0; i < 3; i++) {
+				MockHttpServletRequest request = new MockHttpServletRequest();
+				request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br");
+				MockHttpServletResponse response = writeServlet(compressConverter, large, request);
+				Assert.equals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+				byte[] bytes = response.getContentAsByteArray();
+				Assert.equals(objectMapper.writeValueAsString(large), new String(new GZIPInputStream(new ByteArrayInputStream(bytes)).readAllBytes(), StandardCharsets.UTF_8));
+
+				request = new MockHttpServletRequest();
+				request.addHeader(HttpHeaders.ACCEPT_ENCODING, i == 0 ? "gzip;q=0, deflate" : "gzip; q = 0.000, deflate;q=0.5");
+				response = writeServlet(compressConverter, large, request);
+				Assert.equals("deflate", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+				bytes = response.getContentAsByteArray();
+				Assert.equals(objectMapper.writeValueAsString(large), new String(new InflaterInputStream(new ByteArrayInputStream(bytes)).readAllBytes(), StandardCharsets.UTF_8));
+			}
+			// 小于compressMinSize、不支持压缩时不压缩
+			MockHttpServletRequest request = new MockHttpServletRequest();
+			request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+			MockHttpServletResponse response = writeServlet(compressConverter, small, request);
+			Assert.isNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+			Assert.equals(objectMapper.writeValueAsString(small), response.getContentAsString());
+			response = writeServlet(compressConverter, large, new MockHttpServletRequest());
+			Assert.isNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+			Assert.equals(objectMapper.writeValueAsString(large), response.getContentAsString());
+		}
+	}
+
+	private MockHttpServletResponse writeServlet(RHttpMessageConverter converter, R<?> r, MockHttpServletRequest request) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+		try {
+			converter.write(r, MediaType.APPLICATION_JSON, new ServletServerHttpResponse(response));
+		} finally {
+			RequestContextHolder.resetRequestAttributes();
+		}
+		return response;
+	}
+
+	private WebProperty.Response config(boolean enableEtag, boolean enableCompression) {
+		WebProperty.Response config = new WebProperty.Response();
+		config.setStreamThreshold(10);
+		config.setFlushEvery(3);
+		config.setEnableEtag(enableEtag);
+		config.setEnableCompression(enableCompression);
+		config.setCompressMinSize(100);
+		return config;
+	}
+
+	private MockHttpOutputMessage write(R<?> r) throws Exception {
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		Assert.isTrue(converter.canWrite(r.getClass(), MediaType.APPLICATION_JSON));
+		converter.write(r, MediaType.APPLICATION_JSON, outputMessage);
+		return outputMessage;
+	}
+}
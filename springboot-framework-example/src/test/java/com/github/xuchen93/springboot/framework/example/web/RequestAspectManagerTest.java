@@ -0,0 +1,179 @@
+package com.github.xuchen93.springboot.framework.example.web;
+
+
+import cn.hutool.core.lang.Assert;
+import com.github.xuchen93.springboot.framework.web.support.RequestAspectTaskDecorator;
+import com.github.xuchen93.springboot.framework.web.support.manager.RequestAspectManager;
+import com.github.xuchen93.springboot.framework.web.support.model.RequestAspectKey;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+public class RequestAspectManagerTest {
+
+	private static final int REQUEST_COUNT = 1_000_000;
+
+	@Test
+	public void scope() {
+		RequestAspectKey outer = key(1);
+		RequestAspectKey inner = key(2);
+		try (RequestAspectManager.Scope ignored = RequestAspectManager.open(outer)) {
+			try (RequestAspectManager.Scope ignored2 = RequestAspectManager.open(inner)) {
+				Assert.isTrue(RequestAspectManager.getRequestAspectKey() == inner);
+			}
+			Assert.isTrue(RequestAspectManager.getRequestAspectKey() == outer);
+			try {
+				try (RequestAspectManager.Scope ignored2 = RequestAspectManager.open(inner)) {
+					throw new IllegalStateException();
+				}
+			} catch (IllegalStateException ignored2) {
+			}
+			Assert.isTrue(RequestAspectManager.getRequestAspectKey() == outer);
+		}
+		Assert.isNull(RequestAspectManager.getRequestAspectKey());
+	}
+
+	@Test
+	public void propagate() throws Exception {
+		ExecutorService executorService = Executors.newFixedThreadPool(2);
+		try {
+			Executor executor = RequestAspectManager.wrap(executorService);
+			RequestAspectKey key = key(1);
+			CompletableFuture<List<RequestAspectKey>> future;
+			try (RequestAspectManager.Scope ignored = RequestAspectManager.open(key)) {
+				future = CompletableFuture.supplyAsync(() -> {
+							List<RequestAspectKey> keys = new ArrayList<>();
+							keys.add(RequestAspectManager.getRequestAspectKey());
+							return keys;
+						}, executor)
+						.thenApplyAsync(keys -> {
+							keys.add(RequestAspectManager.getRequestAspectKey());
+							return keys;
+						}, executor);
+				executorService.submit(taskDecorator().decorate(() -> Assert.isTrue(RequestAspectManager.getRequestAspectKey() == key))).get();
+			}
+			future.get(5, TimeUnit.SECONDS).forEach(k -> Assert.isTrue(k == key));
+			// 任务结束后工作线程不残留上下文
+			Assert.isNull(executorService.submit(RequestAspectManager::getRequestAspectKey).get());
+		} finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	@Test
+	public void composeTaskDecorator() {
+		RequestAspectKey key = key(1);
+		List<RequestAspectKey> keys = new ArrayList<>();
+		StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+		// 应用自定义的TaskDecorator在上下文内执行
+		beanFactory.addBean("customTaskDecorator", (TaskDecorator) runnable -> () -> {
+			keys.add(RequestAspectManager.getRequestAspectKey());
+			runnable.run();
+		});
+		RequestAspectTaskDecorator taskDecorator = new RequestAspectTaskDecorator(beanFactory.getBeanProvider(TaskDecorator.class));
+		beanFactory.addBean("requestAspectTaskDecorator", taskDecorator);
+		Runnable decorated;
+		try (RequestAspectManager.Scope ignored = RequestAspectManager.open(key)) {
+			decorated = taskDecorator.decorate(() -> keys.add(RequestAspectManager.getRequestAspectKey()));
+		}
+		decorated.run();
+		Assert.equals(2, keys.size());
+		keys.forEach(k -> Assert.isTrue(k == key));
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void deprecatedSalt() {
+		RequestAspectKey key = new RequestAspectKey(1000L, 7, "127.0.0.1", "Get|/salt");
+		Assert.equals("1000-7", key.getRequestId());
+		Assert.equals("[1000-7-127.0.0.1]", key.generateBaseLog());
+		Assert.equals("1000-7".hashCode(), key.getSalt());
+		key.setSalt(8);
+		Assert.equals("[1000-8-127.0.0.1]", key.generateBaseLog());
+	}
+
+	/**
+	 * 模拟大量请求：每个请求开始时都不应看到上一个请求的上下文，并把上下文传递给子任务。
+	 * 运行在Java 21及以上时使用虚拟线程，否则使用复用的平台线程
+	 */
+	@Test
+	public void noLeak() throws Exception {
+		AtomicLong leaked = new AtomicLong();
+		AtomicLong lost = new AtomicLong();
+		ExecutorService requestExecutor = newRequestExecutor();
+		ExecutorService childExecutorService = Executors.newFixedThreadPool(4);
+		Executor childExecutor = RequestAspectManager.wrap(childExecutorService);
+		long start = System.currentTimeMillis();
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < REQUEST_COUNT; i++) {
+				int index = i;
+				futures.add(requestExecutor.submit(() -> {
+					if (RequestAspectManager.getRequestAspectKey() != null) {
+						leaked.incrementAndGet();
+					}
+					RequestAspectKey key = key(index);
+					try (RequestAspectManager.Scope ignored = RequestAspectManager.open(key)) {
+						if (index % 1000 == 0) {
+							RequestAspectKey childKey = CompletableFuture.supplyAsync(RequestAspectManager::getRequestAspectKey, childExecutor).join();
+							if (childKey != key) {
+								lost.incrementAndGet();
+							}
+						}
+						if (index % 7 == 0) {
+							throw new IllegalStateException("模拟异常请求");
+						}
+					}
+				}));
+				if (futures.size() == 10_000) {
+					waitAll(futures);
+				}
+			}
+			waitAll(futures);
+		} finally {
+			requestExecutor.shutdownNow();
+			childExecutorService.shutdownNow();
+		}
+		log.info("{}个请求耗时{}ms", REQUEST_COUNT, System.currentTimeMillis() - start);
+		Assert.equals(0L, leaked.get());
+		Assert.equals(0L, lost.get());
+	}
+
+	private void waitAll(List<Future<?>> futures) throws InterruptedException {
+		for (Future<?> future : futures) {
+			try {
+				future.get();
+			} catch (Exception ignored) {
+			}
+		}
+		futures.clear();
+	}
+
+	private ExecutorService newRequestExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newFixedThreadPool(64);
+		}
+	}
+
+	private RequestAspectKey key(int index) {
+		return new RequestAspectKey(System.currentTimeMillis(), String.valueOf(index), "127.0.0.1", "Get|/context");
+	}
+
+	private RequestAspectTaskDecorator taskDecorator() {
+		return new RequestAspectTaskDecorator(new StaticListableBeanFactory().getBeanProvider(TaskDecorator.class));
+	}
+}
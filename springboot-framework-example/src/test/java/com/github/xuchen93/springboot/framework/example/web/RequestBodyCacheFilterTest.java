@@ -0,0 +1,121 @@
+package com.github.xuchen93.springboot.framework.example.web;
+
+
+import cn.hutool.core.lang.Assert;
+import com.github.xuchen93.springboot.framework.web.properties.WebProperty;
+import com.github.xuchen93.springboot.framework.web.support.filter.RequestBodyCacheFilter;
+import com.github.xuchen93.springboot.framework.web.support.model.CachedBody;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RequestBodyCacheFilterTest {
+
+	@Test
+	public void cacheAndReuseBuffer() throws Exception {
+		WebProperty webProperty = new WebProperty();
+		RequestBodyCacheFilter filter = new RequestBodyCacheFilter(webProperty);
+		List<byte[]> buffers = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			String body = "{\"index\":" + i + "}";
+			MockHttpServletRequest request = request("application/json;charset=UTF-8", body);
+			FilterChain filterChain = (servletRequest, servletResponse) -> {
+				CachedBody cachedBody = (CachedBody) servletRequest.getAttribute(CachedBody.ATTRIBUTE);
+				Assert.equals(body, cachedBody.toString());
+				// controller依然可以读取请求体
+				Assert.equals(body, new String(servletRequest.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+				Assert.equals(body, servletRequest.getReader().readLine());
+				buffers.add(cachedBody.getBuffer());
+			};
+			filter.doFilter(request, new MockHttpServletResponse(), filterChain);
+			Assert.isNull(request.getAttribute(CachedBody.ATTRIBUTE));
+		}
+		Assert.isTrue(buffers.get(0) == buffers.get(1), "缓冲区未复用");
+	}
+
+	@Test
+	public void poolExhausted() throws Exception {
+		WebProperty webProperty = new WebProperty();
+		webProperty.getRequestAspect().getBodyCache().setPoolSize(1);
+		RequestBodyCacheFilter filter = new RequestBodyCacheFilter(webProperty);
+		List<byte[]> buffers = new ArrayList<>();
+		FilterChain inner = (servletRequest, servletResponse) -> buffers.add(((CachedBody) servletRequest.getAttribute(CachedBody.ATTRIBUTE)).getBuffer());
+		FilterChain outer = (servletRequest, servletResponse) -> {
+			inner.doFilter(servletRequest, servletResponse);
+			// 池化的缓冲区被占用，按Content-Length分配
+			filter.doFilter(request("application/json", "{}"), new MockHttpServletResponse(), inner);
+		};
+		filter.doFilter(request("application/json", "{\"a\":1}"), new MockHttpServletResponse(), outer);
+		Assert.equals(webProperty.getRequestAspect().getBodyCache().getMaxBodySize(), buffers.get(0).length);
+		Assert.equals(2, buffers.get(1).length);
+	}
+
+	@Test
+	public void invalidCharset() throws Exception {
+		RequestBodyCacheFilter filter = new RequestBodyCacheFilter(new WebProperty());
+		List<String> bodies = new ArrayList<>();
+		for (String contentType : new String[]{"application/json;charset=no-such-charset", "application/json;charset=bad!name"}) {
+			FilterChain filterChain = (servletRequest, servletResponse) -> bodies.add(new String(servletRequest.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+			filter.doFilter(request(contentType, "{\"a\":1}"), new MockHttpServletResponse(), filterChain);
+		}
+		// 非法的charset不中断请求，controller依然可以读取请求体
+		Assert.equals(List.of("{\"a\":1}", "{\"a\":1}"), bodies);
+	}
+
+	@Test
+	public void readListener() throws Exception {
+		RequestBodyCacheFilter filter = new RequestBodyCacheFilter(new WebProperty());
+		List<String> events = new ArrayList<>();
+		FilterChain filterChain = (servletRequest, servletResponse) -> {
+			ServletInputStream inputStream = servletRequest.getInputStream();
+			inputStream.setReadListener(new ReadListener() {
+				@Override
+				public void onDataAvailable() throws IOException {
+					events.add(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+				}
+
+				@Override
+				public void onAllDataRead() {
+					events.add("end");
+				}
+
+				@Override
+				public void onError(Throwable t) {
+					events.add("error");
+				}
+			});
+		};
+		filter.doFilter(request("text/plain", "body"), new MockHttpServletResponse(), filterChain);
+		Assert.equals(List.of("body", "end"), events);
+	}
+
+	@Test
+	public void skipNotAllowed() throws Exception {
+		WebProperty webProperty = new WebProperty();
+		webProperty.getRequestAspect().getBodyCache().setMaxBodySize(16);
+		RequestBodyCacheFilter filter = new RequestBodyCacheFilter(webProperty);
+		for (MockHttpServletRequest request : List.of(
+				request("application/x-www-form-urlencoded", "a=1"),
+				request("application/json", "{\"key\":\"longer than sixteen bytes\"}"))) {
+			MockFilterChain filterChain = new MockFilterChain();
+			filter.doFilter(request, new MockHttpServletResponse(), filterChain);
+			Assert.isTrue(filterChain.getRequest() == request);
+		}
+	}
+
+	private MockHttpServletRequest request(String contentType, String body) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/body");
+		request.setContentType(contentType);
+		request.setContent(body.getBytes(StandardCharsets.UTF_8));
+		return request;
+	}
+}
@@ -0,0 +1,44 @@
+package com.github.xuchen93.springboot.framework.example.web;
+
+
+import cn.hutool.core.lang.Assert;
+import com.github.xuchen93.springboot.framework.base.support.manager.RequestIdManager;
+import com.github.xuchen93.springboot.framework.web.properties.WebProperty;
+import com.github.xuchen93.springboot.framework.web.support.filter.RequestIdFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+public class RequestIdFilterTest {
+
+	private final RequestIdFilter filter = new RequestIdFilter(new WebProperty());
+
+	@Test
+	public void generate() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		AtomicReference<String> mdcId = new AtomicReference<>();
+		filter.doFilter(new MockHttpServletRequest("GET", "/id"), response, (request, res) -> mdcId.set(RequestIdManager.getRequestId()));
+		Assert.equals(RequestIdManager.ID_LENGTH, mdcId.get().length());
+		Assert.equals(mdcId.get(), response.getHeader("X-Request-Id"));
+		Assert.isNull(RequestIdManager.getRequestId());
+	}
+
+	@Test
+	public void incoming() throws Exception {
+		Assert.equals("upstream-id.1", filterWithHeader("upstream-id.1"));
+		// 非法字符或超长时重新生成
+		Assert.equals(RequestIdManager.ID_LENGTH, filterWithHeader("bad id\r\n").length());
+		Assert.equals(RequestIdManager.ID_LENGTH, filterWithHeader("a".repeat(65)).length());
+	}
+
+	private String filterWithHeader(String requestId) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/id");
+		request.addHeader("X-Request-Id", requestId);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, (req, res) -> {
+		});
+		return response.getHeader("X-Request-Id");
+	}
+}
@@ -0,0 +1,73 @@
+package com.github.xuchen93.springboot.framework.example.web;
+
+
+import cn.hutool.core.lang.Assert;
+import com.github.xuchen93.springboot.framework.base.support.manager.RequestIdManager;
+import com.github.xuchen93.springboot.framework.web.properties.WebProperty;
+import com.github.xuchen93.springboot.framework.web.support.SlowRequestRecorder;
+import com.github.xuchen93.springboot.framework.web.support.model.RequestAspectKey;
+import com.github.xuchen93.springboot.framework.web.support.model.SlowRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class SlowRequestRecorderTest {
+
+	@Test
+	public void threshold() {
+		WebProperty webProperty = new WebProperty();
+		webProperty.getRequestAspect().getSlowRequest().setRecordParams(true);
+		webProperty.getRequestAspect().getSlowRequest().setThresholdMillis(100);
+		webProperty.getRequestAspect().getSlowRequest().setRouteThresholdMillis(Map.of("Get|/fast", 10L));
+		SlowRequestRecorder recorder = new SlowRequestRecorder(webProperty);
+
+		recorder.recordIfSlow(key("Get|/normal", "normal"), 1, 50, true);
+		recorder.recordIfSlow(key("Get|/fast", "fast"), 1, 50, false);
+		List<SlowRequest> list = recorder.getSlowRequests();
+		Assert.equals(1, list.size());
+		SlowRequest slowRequest = list.get(0);
+		Assert.equals("Get|/fast", slowRequest.getUniqueKey());
+		Assert.equals("fast", slowRequest.getRequestParams());
+		Assert.equals("127.0.0.1", slowRequest.getClientIp());
+		Assert.equals(10L, slowRequest.getThresholdMillis());
+		Assert.equals(51L, slowRequest.getCostTime());
+		Assert.isFalse(slowRequest.isSuccess());
+	}
+
+	@Test
+	public void ringOverwrite() {
+		WebProperty webProperty = new WebProperty();
+		webProperty.getRequestAspect().getSlowRequest().setRecordParams(true);
+		webProperty.getRequestAspect().getSlowRequest().setThresholdMillis(0);
+		webProperty.getRequestAspect().getSlowRequest().setCapacity(3);
+		SlowRequestRecorder recorder = new SlowRequestRecorder(webProperty);
+		for (int i = 0; i < 5; i++) {
+			recorder.recordIfSlow(key("Post|/body", String.valueOf(i)), 0, i, true);
+		}
+		// 只保留最近3条，最新的在前
+		List<String> params = recorder.getSlowRequests().stream().map(SlowRequest::getRequestParams).toList();
+		Assert.equals(List.of("4", "3", "2"), params);
+
+		recorder.clear();
+		Assert.isTrue(recorder.getSlowRequests().isEmpty());
+	}
+
+	@Test
+	public void omitParamsByDefault() {
+		WebProperty webProperty = new WebProperty();
+		Assert.isFalse(webProperty.getRequestAspect().getSlowRequest().isEnable());
+		webProperty.getRequestAspect().getSlowRequest().setThresholdMillis(0);
+		SlowRequestRecorder recorder = new SlowRequestRecorder(webProperty);
+		recorder.recordIfSlow(key("Post|/login", "{\"password\":\"secret\"}"), 0, 1, true);
+		SlowRequest slowRequest = recorder.getSlowRequests().get(0);
+		Assert.equals("Post|/login", slowRequest.getUniqueKey());
+		Assert.isNull(slowRequest.getRequestParams());
+	}
+
+	private RequestAspectKey key(String uniqueKey, Object params) {
+		RequestAspectKey requestAspectKey = new RequestAspectKey(System.currentTimeMillis(), RequestIdManager.nextId(), "127.0.0.1", uniqueKey);
+		requestAspectKey.setRequestParams(params);
+		return requestAspectKey;
+	}
+}
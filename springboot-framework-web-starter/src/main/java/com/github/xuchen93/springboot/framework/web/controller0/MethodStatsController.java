@@ -1,20 +1,37 @@
 package com.github.xuchen93.springboot.framework.web.controller0;
 
+import com.github.xuchen93.springboot.framework.base.configuration.MethodStatsSinkPipeline;
+import com.github.xuchen93.springboot.framework.base.convention.error.BaseErrorCode;
 import com.github.xuchen93.springboot.framework.base.convention.result.R;
 import com.github.xuchen93.springboot.framework.base.support.manager.MethodStatsManager;
 import com.github.xuchen93.springboot.framework.base.support.model.MethodStats;
+import com.github.xuchen93.springboot.framework.base.support.model.SinkStats;
+import com.github.xuchen93.springboot.framework.base.support.model.WindowStats;
+import com.github.xuchen93.springboot.framework.web.support.AccessLogWriter;
+import com.github.xuchen93.springboot.framework.web.support.ConcurrencyLimitSupport;
+import com.github.xuchen93.springboot.framework.web.support.model.ConcurrencyLimitStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/method/stats")
+@RequiredArgsConstructor
 public class MethodStatsController {
 
+	private final ObjectProvider<MethodStatsSinkPipeline> sinkPipelineProvider;
+	private final ObjectProvider<AccessLogWriter> accessLogWriterProvider;
+	private final ObjectProvider<ConcurrencyLimitSupport> concurrencyLimitSupportProvider;
+
 	@GetMapping("peekAll")
 	public R<List<MethodStats>> peekAll() {
 		Collection<MethodStats> stats = MethodStatsManager.peekAll();
@@ -26,4 +43,54 @@ public class MethodStatsController {
 		Collection<MethodStats> stats = MethodStatsManager.peekByType(type);
 		return R.success(stats.stream().sorted().toList());
 	}
+
+	/**
+	 * 耗时分位值：uniqueKey -> p50/p90/p99/p999
+	 */
+	@GetMapping("percentiles")
+	public R<Map<String, Map<String, Long>>> percentiles(@RequestParam Integer type) {
+		Map<String, Map<String, Long>> percentiles = new LinkedHashMap<>();
+		MethodStatsManager.peekByType(type).forEach(stats -> percentiles.put(stats.getUniqueKey(), stats.getPercentiles()));
+		return R.success(percentiles);
+	}
+
+	/**
+	 * 滑动窗口统计：最近minutes分钟的调用次数、qps、平均耗时及分位值
+	 *
+	 * @param type    为空时返回所有类型
+	 * @param minutes 1~15，默认1，超出范围时返回客户端异常
+	 */
+	@GetMapping("window")
+	public R<List<WindowStats>> window(@RequestParam(required = false) Integer type, @RequestParam(defaultValue = "1") int minutes) {
+		if (minutes < 1 || minutes > MethodStats.MAX_WINDOW_MINUTES) {
+			return R.fail(BaseErrorCode.CLIENT_ERROR.code(), "minutes取值范围1~" + MethodStats.MAX_WINDOW_MINUTES);
+		}
+		if (type == null) {
+			return R.success(MethodStatsManager.peekWindowAll(minutes));
+		}
+		return R.success(MethodStatsManager.peekWindowByType(type, minutes));
+	}
+
+	/**
+	 * 各sink及异步访问日志的输出与积压情况，未开启时不返回
+	 */
+	@GetMapping("sinks")
+	public R<List<SinkStats>> sinks() {
+		List<SinkStats> sinkStatsList = new ArrayList<>();
+		sinkPipelineProvider.ifAvailable(sinkPipeline -> sinkStatsList.addAll(sinkPipeline.getSinkStatsList()));
+		accessLogWriterProvider.ifAvailable(accessLogWriter -> sinkStatsList.add(accessLogWriter.getSinkStats()));
+		return R.success(sinkStatsList);
+	}
+
+	/**
+	 * 各路由的并发上限、当前并发数及拒绝数，未开启并发限制时为空
+	 */
+	@GetMapping("limits")
+	public R<List<ConcurrencyLimitStats>> limits() {
+		ConcurrencyLimitSupport concurrencyLimitSupport = concurrencyLimitSupportProvider.getIfAvailable();
+		if (concurrencyLimitSupport == null) {
+			return R.success(List.of());
+		}
+		return R.success(concurrencyLimitSupport.getStatsList());
+	}
 }
@@ -0,0 +1,44 @@
+package com.github.xuchen93.springboot.framework.web.controller0;
+
+import com.github.xuchen93.springboot.framework.base.convention.result.R;
+import com.github.xuchen93.springboot.framework.web.support.SlowRequestRecorder;
+import com.github.xuchen93.springboot.framework.web.support.model.SlowRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/request/slow")
+@RequiredArgsConstructor
+public class SlowRequestController {
+
+	private final ObjectProvider<SlowRequestRecorder> slowRequestRecorderProvider;
+
+	/**
+	 * 最近的慢请求，按时间倒序，未开启时为空
+	 *
+	 * @param uniqueKey 为空时返回所有路由
+	 */
+	@GetMapping("list")
+	public R<List<SlowRequest>> list(@RequestParam(required = false) String uniqueKey) {
+		SlowRequestRecorder slowRequestRecorder = slowRequestRecorderProvider.getIfAvailable();
+		if (slowRequestRecorder == null) {
+			return R.success(List.of());
+		}
+		return R.success(slowRequestRecorder.getSlowRequests().stream()
+				.filter(slowRequest -> uniqueKey == null || uniqueKey.equals(slowRequest.getUniqueKey()))
+				.toList());
+	}
+
+	@PostMapping("clear")
+	public R<Void> clear() {
+		slowRequestRecorderProvider.ifAvailable(SlowRequestRecorder::clear);
+		return R.sharedSuccess();
+	}
+}
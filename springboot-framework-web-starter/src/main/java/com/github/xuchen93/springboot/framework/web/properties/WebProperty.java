@@ -4,18 +4,213 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Data
 @Component
-@ConfigurationProperties("xuchen93.framework.web")
+@ConfigurationProperties(WebProperty.PROPERTY_PREFIX)
 public class WebProperty {
+	public static final String PROPERTY_PREFIX = "xuchen93.framework.web";
+
 	private RequestAspect requestAspect = new RequestAspect();
+	private RequestId requestId = new RequestId();
+	private Response response = new Response();
 	private boolean enableExceptionAdvice = true;
 	private boolean enableAppStartLog = true;
 
+	/**
+	 * R的输出：共享实例直接写出缓存的字节，大集合逐个元素写出，可选ETag和压缩
+	 */
+	@Data
+	public static class Response {
+		/**
+		 * 开启后R的返回值由RHttpMessageConverter输出，以下配置才生效，默认关闭
+		 */
+		private boolean enableFastPath = false;
+		/**
+		 * data为集合且元素数不少于该值时逐个元素写出；首次flush后响应已提交，之后序列化失败时客户端收到不完整的响应
+		 */
+		private int streamThreshold = 1000;
+		/**
+		 * 逐个元素写出时每多少个元素flush一次
+		 */
+		private int flushEvery = 500;
+		/**
+		 * 根据响应体计算ETag，与If-None-Match相同时返回304（非GET、HEAD请求返回412）；
+		 * data为不少于streamThreshold的集合时逐个元素写出，不计算ETag
+		 */
+		private boolean enableEtag = false;
+		/**
+		 * 按Accept-Encoding进行gzip/deflate压缩
+		 */
+		private boolean enableCompression = false;
+		/**
+		 * 不小于该字节数的响应体才压缩
+		 */
+		private int compressMinSize = 2048;
+		private int compressionLevel = 6;
+		/**
+		 * 响应体缓冲区、压缩器池的大小
+		 */
+		private int poolSize = 32;
+		/**
+		 * 超过该字节数的缓冲区用完后不放回池中
+		 */
+		private int maxPooledBufferSize = 1024 * 1024;
+	}
+
+	/**
+	 * 请求ID，写入MDC并通过响应头返回
+	 */
+	@Data
+	public static class RequestId {
+		private boolean enable = true;
+		private String headerName = "X-Request-Id";
+		/**
+		 * 是否沿用请求头中上游传入的ID，只接受字母、数字和-_.
+		 */
+		private boolean trustIncoming = true;
+		private int maxIncomingLength = 64;
+	}
+
 	@Data
 	public static class RequestAspect {
 		private boolean enableLog = true;
 		private boolean enableStats = true;
+		/**
+		 * 日志中入参、出参JSON的最大字符数，超过时截断，小于等于0时不限制
+		 */
+		private int maxPayloadLength = 8192;
+		/**
+		 * 是否把请求上下文传递到Spring Boot自动配置的执行器
+		 */
+		private boolean propagateContext = true;
+		private AccessLog accessLog = new AccessLog();
+		private BodyCache bodyCache = new BodyCache();
+		private SlowRequestConfig slowRequest = new SlowRequestConfig();
+		private ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+
+	}
+
+	/**
+	 * 按路由限制并发，避免单个过载接口占满容器的工作线程
+	 */
+	@Data
+	public static class ConcurrencyLimit {
+		private boolean enable = false;
+		private LimitAlgorithm algorithm = LimitAlgorithm.GRADIENT;
+		/**
+		 * 固定上限；自适应算法下为上限的最大值
+		 */
+		private int maxConcurrency = 200;
+		/**
+		 * 按路由覆盖maxConcurrency，key为请求的uniqueKey，如 "[Get|/method/test]": 10
+		 */
+		private Map<String, Integer> routeMaxConcurrency = new HashMap<>();
+		/**
+		 * 自适应算法的初始上限和最小上限
+		 */
+		private int initialConcurrency = 20;
+		private int minConcurrency = 1;
+		/**
+		 * 超过上限时的最长排队时间(ms)，0为直接拒绝
+		 */
+		private long maxWaitMillis = 0;
+		private int rejectCode = 429;
+		private String rejectMessage = "请求繁忙，请稍后重试";
+	}
+
+	public enum LimitAlgorithm {
+		/**
+		 * 固定的最大并发数
+		 */
+		FIXED,
+		/**
+		 * 根据长期与短期平均耗时的比值调整上限，耗时上升时收缩，恢复后增长
+		 */
+		GRADIENT
+	}
+
+	/**
+	 * 慢请求记录，耗时超过阈值的请求保存在内存中最近的capacity条，通过/request/slow/list查看，默认关闭
+	 */
+	@Data
+	public static class SlowRequestConfig {
+		private boolean enable = false;
+		/**
+		 * 是否记录请求参数（含请求体），参数可能包含敏感信息，默认不记录
+		 */
+		private boolean recordParams = false;
+		private long thresholdMillis = 3000;
+		/**
+		 * 按路由覆盖阈值，key为请求的uniqueKey，如 "[Get|/method/test]": 500
+		 */
+		private Map<String, Long> routeThresholdMillis = new HashMap<>();
+		private int capacity = 100;
+	}
+
+	/**
+	 * 请求体缓存，过滤器读取一次请求体，供controller和请求日志共用
+	 */
+	@Data
+	public static class BodyCache {
+		/**
+		 * 默认关闭，开启后符合条件的请求体由过滤器读取并替换请求的输入流
+		 */
+		private boolean enable = false;
+		/**
+		 * 可缓存的最大请求体(字节)，超过或长度未知（chunked）时不缓存
+		 */
+		private int maxBodySize = 64 * 1024;
+		/**
+		 * 缓冲区池大小，池满时多出的缓冲区直接丢弃
+		 */
+		private int poolSize = 64;
+		/**
+		 * 缓存的Content-Type，表单类型由容器解析参数，不能缓存
+		 */
+		private List<String> contentTypes = List.of("application/json", "application/xml", "text/xml", "text/plain");
+	}
+
+	/**
+	 * 异步访问日志，开启后请求日志由后台线程输出到滚动文件，不再同步打印
+	 */
+	@Data
+	public static class AccessLog {
+		private boolean enableAsync = false;
+		/**
+		 * 环形缓冲区大小，向上取整为2的幂
+		 */
+		private int bufferSize = 8192;
+		/**
+		 * 缓冲区满时的策略
+		 */
+		private FullPolicy fullPolicy = FullPolicy.DROP;
+		/**
+		 * 返回值在后台线程序列化，请求线程只传递引用；开启后返回值在请求结束后不能再被修改，否则日志内容不确定
+		 */
+		private boolean asyncResultSerialization = false;
+		private String filePath = "logs/access.log";
+		/**
+		 * 单个文件大小上限(MB)，超过后滚动为filePath.1、filePath.2...
+		 */
+		private int maxFileSizeMb = 100;
+		/**
+		 * 保留的历史文件数
+		 */
+		private int maxHistory = 7;
+	}
 
+	public enum FullPolicy {
+		/**
+		 * 丢弃并计数，不阻塞请求线程
+		 */
+		DROP,
+		/**
+		 * 阻塞请求线程直到有空位
+		 */
+		BLOCK
 	}
 }
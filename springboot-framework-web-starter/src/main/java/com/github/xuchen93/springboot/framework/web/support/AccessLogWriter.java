@@ -0,0 +1,412 @@
+package com.github.xuchen93.springboot.framework.web.support;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.xuchen93.springboot.framework.base.common.BoundedJson;
+import com.github.xuchen93.springboot.framework.base.common.BoundedJsonWriter;
+import com.github.xuchen93.springboot.framework.base.support.model.SinkStats;
+import com.github.xuchen93.springboot.framework.web.properties.WebProperty;
+import com.github.xuchen93.springboot.framework.web.support.model.RequestAspectKey;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步访问日志
+ * <p>请求线程把入参和返回值序列化到线程复用的有界缓冲区，连同请求信息写入预分配的环形缓冲区，由后台线程拼成一行JSON写入滚动文件。
+ * 多个请求线程CAS抢占序号，单个后台线程顺序消费，槽位对象循环复用。
+ * <p>开启asyncResultSerialization时只传递返回值的引用、在后台线程序列化，调用方之后不能再修改返回值
+ * <p>缓冲区满时按{@link WebProperty.FullPolicy}丢弃或阻塞，丢弃数计入统计
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = WebProperty.PROPERTY_PREFIX, name = "request-aspect.access-log.enable-async", havingValue = "true")
+public class AccessLogWriter implements SmartInitializingSingleton, DisposableBean {
+
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+	private static final long SHUTDOWN_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+	private final ObjectMapper objectMapper = new ObjectMapper()
+			.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
+			.configure(SerializationFeature.FLUSH_AFTER_WRITE_VALUE, false)
+			.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+	private final WebProperty.FullPolicy fullPolicy;
+	private final boolean asyncResultSerialization;
+	private final Path path;
+	private final long maxFileSize;
+	private final int maxHistory;
+
+	private final Event[] ring;
+	private final int mask;
+	/**
+	 * 槽位已发布的序号，消费线程据此判断槽位是否可读
+	 */
+	private final AtomicLongArray publishedSequence;
+	/**
+	 * 下一个待分配的序号
+	 */
+	private final AtomicLong claimSequence = new AtomicLong();
+	/**
+	 * 下一个待消费的序号，小于该值的槽位均可复用
+	 */
+	private final AtomicLong consumeSequence = new AtomicLong();
+
+	private final AtomicLong writtenCount = new AtomicLong();
+	private final AtomicLong droppedCount = new AtomicLong();
+	private final AtomicLong failedCount = new AtomicLong();
+	private volatile long lastCostTime;
+	private volatile boolean running = true;
+	private volatile Thread writerThread;
+
+	/**
+	 * 请求线程序列化返回值使用
+	 */
+	private final ThreadLocal<BoundedJsonWriter> requestResultBuffer;
+
+	/**
+	 * 以下只由后台线程访问
+	 */
+	private final BoundedJsonWriter resultBuffer;
+	private CountingOutputStream outputStream;
+	private JsonGenerator generator;
+	private boolean dirty;
+
+	public AccessLogWriter(WebProperty webProperty) {
+		WebProperty.AccessLog config = webProperty.getRequestAspect().getAccessLog();
+		this.fullPolicy = config.getFullPolicy();
+		this.asyncResultSerialization = config.isAsyncResultSerialization();
+		this.path = Paths.get(config.getFilePath());
+		this.maxFileSize = config.getMaxFileSizeMb() * 1024L * 1024L;
+		this.maxHistory = config.getMaxHistory();
+		int maxPayloadLength = webProperty.getRequestAspect().getMaxPayloadLength();
+		this.resultBuffer = new BoundedJsonWriter(maxPayloadLength);
+		this.requestResultBuffer = ThreadLocal.withInitial(() -> new BoundedJsonWriter(maxPayloadLength));
+		int bufferSize = 1 << (32 - Integer.numberOfLeadingZeros(Math.max(2, config.getBufferSize()) - 1));
+		this.ring = new Event[bufferSize];
+		this.mask = bufferSize - 1;
+		this.publishedSequence = new AtomicLongArray(bufferSize);
+		for (int i = 0; i < bufferSize; i++) {
+			ring[i] = new Event();
+			publishedSequence.set(i, -1L);
+		}
+	}
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		writerThread = new Thread(this::runLoop, "access-log-writer");
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+
+	/**
+	 * 提交一条访问日志，入参和返回值在当前线程序列化后交给后台线程，requestAspectKey不会被修改；
+	 * 开启asyncResultSerialization时返回值在后台线程序列化，调用方之后不应再修改result
+	 *
+	 * @return 缓冲区满且策略为丢弃，或已关闭时返回false
+	 */
+	public boolean publish(RequestAspectKey requestAspectKey, long costTime, boolean success, Object result) {
+		if (!running) {
+			droppedCount.incrementAndGet();
+			return false;
+		}
+		// 过滤器缓存的请求体、延迟序列化的入参在请求结束后可能被复用或修改，先在请求线程转为字符串
+		String params = Objects.toString(requestAspectKey.getRequestParams(), null);
+		BoundedJsonWriter writer = null;
+		String resultError = null;
+		if (!asyncResultSerialization) {
+			writer = requestResultBuffer.get();
+			resultError = serializeResult(writer, result);
+		}
+		long sequence = claim();
+		if (sequence < 0) {
+			droppedCount.incrementAndGet();
+			return false;
+		}
+		int index = (int) (sequence & mask);
+		Event event = ring[index];
+		event.requestAspectKey = requestAspectKey;
+		event.params = params;
+		event.costTime = costTime;
+		event.success = success;
+		if (writer == null) {
+			event.result = result;
+		} else {
+			event.serialized = true;
+			event.resultError = resultError;
+			event.resultTruncated = writer.isTruncated();
+			event.resultJson = resultError == null ? writer.toString() : null;
+			writer.reset();
+		}
+		publishedSequence.set(index, sequence);
+		return true;
+	}
+
+	private long claim() {
+		while (true) {
+			long sequence = claimSequence.get();
+			if (sequence - consumeSequence.get() >= ring.length) {
+				if (fullPolicy == WebProperty.FullPolicy.DROP || !running) {
+					return -1;
+				}
+				LockSupport.parkNanos(IDLE_PARK_NANOS);
+				continue;
+			}
+			if (claimSequence.compareAndSet(sequence, sequence + 1)) {
+				return sequence;
+			}
+		}
+	}
+
+	private void runLoop() {
+		long next = 0;
+		while (true) {
+			int index = (int) (next & mask);
+			if (publishedSequence.get(index) == next) {
+				Event event = ring[index];
+				write(event);
+				event.clear();
+				consumeSequence.set(++next);
+				continue;
+			}
+			flushIfDirty();
+			if (!running && claimSequence.get() == next) {
+				break;
+			}
+			LockSupport.parkNanos(IDLE_PARK_NANOS);
+		}
+		closeFile();
+	}
+
+	private void write(Event event) {
+		long startTime = System.currentTimeMillis();
+		try {
+			if (generator == null) {
+				openFile();
+			}
+			RequestAspectKey requestAspectKey = event.requestAspectKey;
+			generator.writeStartObject();
+			generator.writeNumberField("time", requestAspectKey.getStartTime());
+			generator.writeStringField("requestId", requestAspectKey.getRequestId());
+			generator.writeStringField("clientIp", requestAspectKey.getClientIp());
+			generator.writeStringField("uniqueKey", requestAspectKey.getUniqueKey());
+			generator.writeStringField("method", requestAspectKey.getRequestMethod());
+			generator.writeStringField("uri", requestAspectKey.getRequestUri());
+			generator.writeStringField("params", event.params);
+			generator.writeNumberField("costTime", event.costTime);
+			generator.writeBooleanField("success", event.success);
+			writeResult(event);
+			generator.writeEndObject();
+			generator.writeRaw('\n');
+			dirty = true;
+			writtenCount.incrementAndGet();
+			if (outputStream.count >= maxFileSize) {
+				rollFile();
+			}
+		} catch (Exception e) {
+			failedCount.incrementAndGet();
+			log.error("访问日志写入异常：{}", e.getMessage());
+			closeFile();
+		} finally {
+			lastCostTime = System.currentTimeMillis() - startTime;
+		}
+	}
+
+	/**
+	 * 返回值序列化到复用的缓冲区，超过长度上限时保留已写入的部分
+	 *
+	 * @return 序列化失败(非截断)时的错误信息，成功返回null
+	 */
+	private String serializeResult(BoundedJsonWriter writer, Object result) {
+		writer.reset();
+		try {
+			objectMapper.writeValue(writer, result);
+		} catch (IOException e) {
+			if (!writer.isTruncated()) {
+				return e.getMessage();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 序列化失败时只影响本条日志的result字段；超过长度上限时截断后作为字符串输出
+	 */
+	private void writeResult(Event event) throws IOException {
+		if (event.serialized) {
+			writeResultField(event.resultError, event.resultTruncated, event.resultJson);
+			return;
+		}
+		String resultError = serializeResult(resultBuffer, event.result);
+		if (resultError == null && !resultBuffer.isTruncated()) {
+			generator.writeFieldName("result");
+			generator.writeRawValue(resultBuffer.getChars(), 0, resultBuffer.size());
+			return;
+		}
+		writeResultField(resultError, resultBuffer.isTruncated(), resultBuffer.toString());
+	}
+
+	private void writeResultField(String resultError, boolean truncated, String resultJson) throws IOException {
+		if (resultError != null) {
+			generator.writeStringField("resultError", resultError);
+		} else if (truncated) {
+			generator.writeStringField("result", resultJson + BoundedJson.TRUNCATED_MARKER);
+		} else {
+			generator.writeFieldName("result");
+			generator.writeRawValue(resultJson);
+		}
+	}
+
+	private void flushIfDirty() {
+		if (!dirty) {
+			return;
+		}
+		dirty = false;
+		try {
+			generator.flush();
+		} catch (IOException e) {
+			failedCount.incrementAndGet();
+			log.error("访问日志刷盘异常：{}", e.getMessage());
+			closeFile();
+		}
+	}
+
+	private void openFile() throws IOException {
+		if (path.getParent() != null) {
+			Files.createDirectories(path.getParent());
+		}
+		outputStream = new CountingOutputStream(new FileOutputStream(path.toFile(), true), Files.exists(path) ? Files.size(path) : 0);
+		generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+		generator.setRootValueSeparator(null);
+	}
+
+	/**
+	 * access.log -> access.log.1 -> access.log.2 ...，超过maxHistory的删除
+	 */
+	private void rollFile() throws IOException {
+		closeFile();
+		for (int i = maxHistory - 1; i >= 1; i--) {
+			Path history = historyPath(i);
+			if (Files.exists(history)) {
+				Files.move(history, historyPath(i + 1), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		if (maxHistory > 0) {
+			Files.move(path, historyPath(1), StandardCopyOption.REPLACE_EXISTING);
+		} else {
+			Files.deleteIfExists(path);
+		}
+	}
+
+	private Path historyPath(int index) {
+		return path.resolveSibling(path.getFileName() + "." + index);
+	}
+
+	private void closeFile() {
+		if (generator == null) {
+			return;
+		}
+		try {
+			generator.close();
+		} catch (IOException e) {
+			log.error("访问日志关闭异常：{}", e.getMessage());
+		}
+		generator = null;
+		outputStream = null;
+		dirty = false;
+	}
+
+	public SinkStats getSinkStats() {
+		SinkStats sinkStats = new SinkStats();
+		sinkStats.setName(getClass().getSimpleName());
+		sinkStats.setQueueSize((int) (claimSequence.get() - consumeSequence.get()));
+		sinkStats.setQueueCapacity(ring.length);
+		sinkStats.setPublishedCount(writtenCount.get());
+		sinkStats.setDroppedCount(droppedCount.get());
+		sinkStats.setFailedCount(failedCount.get());
+		sinkStats.setLastCostTime(lastCostTime);
+		return sinkStats;
+	}
+
+	/**
+	 * 停止接收并等待已提交的日志写完
+	 */
+	@Override
+	public void destroy() throws InterruptedException {
+		running = false;
+		if (writerThread == null) {
+			return;
+		}
+		writerThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+		if (writerThread.isAlive()) {
+			log.warn("访问日志关闭超时，剩余{}条未写入", claimSequence.get() - consumeSequence.get());
+		}
+	}
+
+	private static class Event {
+		private RequestAspectKey requestAspectKey;
+		private String params;
+		private long costTime;
+		private boolean success;
+		/**
+		 * 开启asyncResultSerialization时为返回值的引用
+		 */
+		private Object result;
+		/**
+		 * 返回值已在请求线程序列化，以下三个字段有效
+		 */
+		private boolean serialized;
+		private String resultJson;
+		private boolean resultTruncated;
+		private String resultError;
+
+		private void clear() {
+			requestAspectKey = null;
+			params = null;
+			result = null;
+			serialized = false;
+			resultJson = null;
+			resultError = null;
+		}
+	}
+
+	private static class CountingOutputStream extends FilterOutputStream {
+		private long count;
+
+		private CountingOutputStream(OutputStream out, long count) {
+			super(out);
+			this.count = count;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+}
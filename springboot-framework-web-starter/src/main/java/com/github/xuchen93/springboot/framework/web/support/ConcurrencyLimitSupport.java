@@ -0,0 +1,244 @@
+package com.github.xuchen93.springboot.framework.web.support;
+
+import com.github.xuchen93.springboot.framework.base.convention.exception.ConcurrencyLimitException;
+import com.github.xuchen93.springboot.framework.web.properties.WebProperty;
+import com.github.xuchen93.springboot.framework.web.support.model.ConcurrencyLimitStats;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 按路由（请求的uniqueKey）限制并发
+ * <p>每个路由独立计数，超过上限的请求排队至多maxWaitMillis，仍未获取到许可时抛出{@link ConcurrencyLimitException}，
+ * 由{@link GlobalExceptionAdviceSupport}返回配置的失败码。
+ * <p>{@link WebProperty.LimitAlgorithm#GRADIENT}：以长期平均耗时/短期平均耗时作为梯度调整上限，
+ * 排队导致耗时上升时上限收缩，耗时恢复后按sqrt(limit)增长，上限介于minConcurrency与maxConcurrency之间
+ */
+@Component
+@ConditionalOnProperty(prefix = WebProperty.PROPERTY_PREFIX, name = "request-aspect.concurrency-limit.enable", havingValue = "true")
+public class ConcurrencyLimitSupport {
+
+	private final WebProperty.ConcurrencyLimit config;
+	private final long maxWaitNanos;
+	private final Map<String, RouteLimiter> limiterMap = new ConcurrentHashMap<>();
+
+	public ConcurrencyLimitSupport(WebProperty webProperty) {
+		this.config = webProperty.getRequestAspect().getConcurrencyLimit();
+		this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(config.getMaxWaitMillis());
+	}
+
+	/**
+	 * 获取许可，返回的许可须在请求结束后{@link Permit#release()}
+	 *
+	 * @throws ConcurrencyLimitException 超过上限且排队超时
+	 */
+	public Permit acquire(String uniqueKey) {
+		RouteLimiter limiter = limiterMap.get(uniqueKey);
+		if (limiter == null) {
+			limiter = limiterMap.computeIfAbsent(uniqueKey, this::createLimiter);
+		}
+		int inFlight = limiter.acquire(maxWaitNanos);
+		if (inFlight < 0) {
+			limiter.rejectedCount.increment();
+			throw new ConcurrencyLimitException(uniqueKey, config.getRejectCode(), config.getRejectMessage());
+		}
+		limiter.acceptedCount.increment();
+		return new Permit(limiter, inFlight);
+	}
+
+	public List<ConcurrencyLimitStats> getStatsList() {
+		return limiterMap.values().stream()
+				.map(RouteLimiter::toStats)
+				.sorted(Comparator.comparing(ConcurrencyLimitStats::getUniqueKey))
+				.toList();
+	}
+
+	private RouteLimiter createLimiter(String uniqueKey) {
+		int maxLimit = Math.max(1, config.getRouteMaxConcurrency().getOrDefault(uniqueKey, config.getMaxConcurrency()));
+		if (config.getAlgorithm() == WebProperty.LimitAlgorithm.FIXED) {
+			return new RouteLimiter(uniqueKey, false, maxLimit, maxLimit, maxLimit);
+		}
+		int minLimit = Math.max(1, Math.min(config.getMinConcurrency(), maxLimit));
+		int initialLimit = Math.max(minLimit, Math.min(config.getInitialConcurrency(), maxLimit));
+		return new RouteLimiter(uniqueKey, true, initialLimit, minLimit, maxLimit);
+	}
+
+	public static final class Permit {
+		private final RouteLimiter limiter;
+		private final int inFlight;
+		private final long startNanos = System.nanoTime();
+
+		private Permit(RouteLimiter limiter, int inFlight) {
+			this.limiter = limiter;
+			this.inFlight = inFlight;
+		}
+
+		public void release() {
+			limiter.release(System.nanoTime() - startNanos, inFlight);
+		}
+	}
+
+	private static final class RouteLimiter {
+		/**
+		 * 长期、短期耗时指数平均的样本窗口
+		 */
+		private static final double LONG_SMOOTHING = 2.0 / (600 + 1);
+		private static final double SHORT_SMOOTHING = 2.0 / (10 + 1);
+		/**
+		 * 允许短期耗时高出长期耗时的倍数，超过后才开始收缩
+		 */
+		private static final double RTT_TOLERANCE = 1.5;
+		/**
+		 * 新上限在估算值中的权重
+		 */
+		private static final double LIMIT_SMOOTHING = 0.2;
+
+		private final String uniqueKey;
+		private final boolean adaptive;
+		private final int minLimit;
+		private final int maxLimit;
+		private volatile int limit;
+
+		private final AtomicInteger inFlight = new AtomicInteger();
+		private final AtomicInteger waiting = new AtomicInteger();
+		private final LongAdder acceptedCount = new LongAdder();
+		private final LongAdder rejectedCount = new LongAdder();
+		private final ReentrantLock waitLock = new ReentrantLock();
+		private final Condition released = waitLock.newCondition();
+
+		/**
+		 * 以下由updateLock保护，抢不到锁的样本直接丢弃
+		 */
+		private final ReentrantLock updateLock = new ReentrantLock();
+		private double estimatedLimit;
+		private volatile double longRtt;
+		private volatile double shortRtt;
+
+		private RouteLimiter(String uniqueKey, boolean adaptive, int initialLimit, int minLimit, int maxLimit) {
+			this.uniqueKey = uniqueKey;
+			this.adaptive = adaptive;
+			this.minLimit = minLimit;
+			this.maxLimit = maxLimit;
+			this.limit = initialLimit;
+			this.estimatedLimit = initialLimit;
+		}
+
+		/**
+		 * @return 获取许可后的并发数，失败时返回-1
+		 */
+		private int acquire(long maxWaitNanos) {
+			int current = tryAcquire();
+			if (current > 0 || maxWaitNanos <= 0) {
+				return current;
+			}
+			waiting.incrementAndGet();
+			waitLock.lock();
+			try {
+				long nanos = maxWaitNanos;
+				while ((current = tryAcquire()) < 0) {
+					if (nanos <= 0) {
+						return -1;
+					}
+					nanos = released.awaitNanos(nanos);
+				}
+				return current;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return -1;
+			} finally {
+				waitLock.unlock();
+				waiting.decrementAndGet();
+			}
+		}
+
+		private int tryAcquire() {
+			for (; ; ) {
+				int current = inFlight.get();
+				if (current >= limit) {
+					return -1;
+				}
+				if (inFlight.compareAndSet(current, current + 1)) {
+					return current + 1;
+				}
+			}
+		}
+
+		private void release(long rttNanos, int inFlightAtStart) {
+			inFlight.decrementAndGet();
+			boolean limitIncreased = adaptive && sample(rttNanos, inFlightAtStart);
+			if (waiting.get() > 0) {
+				waitLock.lock();
+				try {
+					// 上限增大时空出多个许可，唤醒所有等待者重新竞争，否则只空出一个许可
+					if (limitIncreased) {
+						released.signalAll();
+					} else {
+						released.signal();
+					}
+				} finally {
+					waitLock.unlock();
+				}
+			}
+		}
+
+		/**
+		 * @return 上限是否增大
+		 */
+		private boolean sample(long rttNanos, int inFlightAtStart) {
+			if (!updateLock.tryLock()) {
+				return false;
+			}
+			try {
+				double rtt = Math.max(1, rttNanos);
+				if (longRtt == 0) {
+					longRtt = rtt;
+					shortRtt = rtt;
+				} else {
+					longRtt += (rtt - longRtt) * LONG_SMOOTHING;
+					shortRtt += (rtt - shortRtt) * SHORT_SMOOTHING;
+				}
+				// 耗时长期下降后长期平均跟不上，加快衰减
+				if (longRtt / shortRtt > 2) {
+					longRtt *= 0.95;
+				}
+				// 并发未达上限的一半时耗时不受排队影响，不据此调整
+				if (inFlightAtStart < estimatedLimit / 2) {
+					return false;
+				}
+				double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRtt / shortRtt));
+				double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+				estimatedLimit = estimatedLimit * (1 - LIMIT_SMOOTHING) + newLimit * LIMIT_SMOOTHING;
+				estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+				int oldLimit = limit;
+				limit = (int) estimatedLimit;
+				return limit > oldLimit;
+			} finally {
+				updateLock.unlock();
+			}
+		}
+
+		private ConcurrencyLimitStats toStats() {
+			ConcurrencyLimitStats stats = new ConcurrencyLimitStats();
+			stats.setUniqueKey(uniqueKey);
+			stats.setAlgorithm((adaptive ? WebProperty.LimitAlgorithm.GRADIENT : WebProperty.LimitAlgorithm.FIXED).name());
+			stats.setLimit(limit);
+			stats.setMaxLimit(maxLimit);
+			stats.setInFlight(inFlight.get());
+			stats.setWaiting(waiting.get());
+			stats.setAcceptedCount(acceptedCount.sum());
+			stats.setRejectedCount(rejectedCount.sum());
+			stats.setLongRttMillis(longRtt / 1_000_000);
+			stats.setShortRttMillis(shortRtt / 1_000_000);
+			return stats;
+		}
+	}
+}
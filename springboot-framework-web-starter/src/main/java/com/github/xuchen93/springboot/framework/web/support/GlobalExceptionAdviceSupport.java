@@ -6,16 +6,20 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.github.xuchen93.springboot.framework.base.convention.enums.MethodStatsType;
 import com.github.xuchen93.springboot.framework.base.convention.exception.BusinessException;
+import com.github.xuchen93.springboot.framework.base.convention.exception.ConcurrencyLimitException;
 import com.github.xuchen93.springboot.framework.base.convention.exception.HttpErrorException;
 import com.github.xuchen93.springboot.framework.base.convention.result.R;
 import com.github.xuchen93.springboot.framework.base.support.manager.MethodStatsManager;
+import com.github.xuchen93.springboot.framework.base.support.model.MethodStats;
 import com.github.xuchen93.springboot.framework.web.properties.WebProperty;
 import com.github.xuchen93.springboot.framework.web.support.extra.ExtraExceptionSupport;
 import com.github.xuchen93.springboot.framework.web.support.manager.RequestAspectManager;
 import com.github.xuchen93.springboot.framework.web.support.model.RequestAspectKey;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
@@ -27,8 +31,10 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -48,20 +54,49 @@ public class GlobalExceptionAdviceSupport {
 
 	private final List<ExtraExceptionSupport> extraExceptionSupportList;
 
+	private final ObjectProvider<AccessLogWriter> accessLogWriterProvider;
+
+	private final ObjectProvider<SlowRequestRecorder> slowRequestRecorderProvider;
+
+	/**
+	 * 未开启异步访问日志时为null
+	 */
+	private AccessLogWriter accessLogWriter;
+	/**
+	 * 未开启慢请求记录时为null
+	 */
+	private SlowRequestRecorder slowRequestRecorder;
+
+	/**
+	 * 异常类 -> 该异常类的候选处理器及统计句柄
+	 */
+	private final Map<Class<?>, ExceptionClassEntry> exceptionClassMap = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	public void init() {
+		accessLogWriter = accessLogWriterProvider.getIfAvailable();
+		slowRequestRecorder = slowRequestRecorderProvider.getIfAvailable();
+	}
+
 	@ExceptionHandler(value = BusinessException.class)
 	public R<Object> businessException(BusinessException exception) {
-		return handleRequestLog(R.fail(exception.getMessage()));
+		return handleRequestLog(exception, "businessException", R.fail(exception.getMessage()));
+	}
+
+	@ExceptionHandler(value = ConcurrencyLimitException.class)
+	public R<Object> concurrencyLimitException(ConcurrencyLimitException exception) {
+		return handleRequestLog(exception, "concurrencyLimitException", R.fail(exception.getCode(), exception.getMessage()));
 	}
 
 	@ExceptionHandler(value = IllegalArgumentException.class)
 	public R<Object> illegalArgumentException(IllegalArgumentException exception) {
-		return handleRequestLog(R.fail("非法的请求参数"));
+		return handleRequestLog(exception, "illegalArgumentException", R.fail("非法的请求参数"));
 	}
 
 	@ResponseStatus(code = HttpStatus.INTERNAL_SERVER_ERROR)
 	@ExceptionHandler(value = HttpErrorException.class)
 	public R<Object> httpErrorException(HttpErrorException exception) {
-		return handleRequestLog(R.fail(exception.getStatusCode(), exception.getMessage()));
+		return handleRequestLog(exception, "httpErrorException", R.fail(exception.getStatusCode(), exception.getMessage()));
 	}
 
 
@@ -70,7 +105,7 @@ public class GlobalExceptionAdviceSupport {
 		String errorMsg = exception.getBindingResult().getFieldErrors().stream()
 				.map(FieldError::getDefaultMessage)
 				.collect(Collectors.joining(", "));
-		return handleRequestLog(R.fail(errorMsg));
+		return handleRequestLog(exception, "methodArgumentNotValidExceptionHandler", R.fail(errorMsg));
 	}
 
 
@@ -78,35 +113,126 @@ public class GlobalExceptionAdviceSupport {
 	public R<Object> handleBindException(BindException exception) {
 		FieldError fieldError = exception.getFieldError();
 		if (fieldError != null) {
-			return handleRequestLog(R.fail(fieldError.getDefaultMessage()));
+			return handleRequestLog(exception, "handleBindException", R.fail(fieldError.getDefaultMessage()));
 		}
-		return handleRequestLog(R.fail("参数绑定错误"));
+		return handleRequestLog(exception, "handleBindException", R.fail("参数绑定错误"));
 	}
 
 	@ExceptionHandler(value = Exception.class)
 	public R<Object> exceptionHandler(Exception exception) {
-		if (!CollectionUtils.isEmpty(extraExceptionSupportList)) {
-			Optional<ExtraExceptionSupport> optional = extraExceptionSupportList.stream()
-					.filter(advice -> advice.supports(exception))
-					.findFirst();
-			if (optional.isPresent()) {
-				return handleRequestLog(optional.get().result(exception));
-			}
+		ExtraExceptionSupport extraExceptionSupport = resolveExtraExceptionSupport(exception);
+		if (extraExceptionSupport != null) {
+			return handleRequestLog(exception, extraExceptionSupport.getClass().getSimpleName(), extraExceptionSupport.result(exception));
 		}
 		log.error("系统错误", exception);
-		return handleRequestLog(R.fail("系统错误"));
+		return handleRequestLog(exception, "exceptionHandler", R.fail("系统错误"));
+	}
+
+	/**
+	 * 按列表顺序取第一个supports的ExtraExceptionSupport
+	 */
+	private ExtraExceptionSupport resolveExtraExceptionSupport(Exception exception) {
+		if (CollectionUtils.isEmpty(extraExceptionSupportList)) {
+			return null;
+		}
+		for (ExtraExceptionSupport candidate : getExceptionClassEntry(exception.getClass()).candidates) {
+			if (candidate.supports(exception)) {
+				return candidate;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 默认的supports只按exception()的类型判断，结果由异常类的继承关系确定：类型不匹配的直接排除，
+	 * 遇到第一个类型匹配的即可停止。重写了supports的无法预先判断，保留在候选中每次调用
+	 */
+	private List<ExtraExceptionSupport> resolveCandidates(Class<?> exceptionClass) {
+		if (CollectionUtils.isEmpty(extraExceptionSupportList)) {
+			return List.of();
+		}
+		List<ExtraExceptionSupport> candidates = new ArrayList<>();
+		for (ExtraExceptionSupport extraExceptionSupport : extraExceptionSupportList) {
+			if (overridesSupports(extraExceptionSupport)) {
+				candidates.add(extraExceptionSupport);
+			} else if (extraExceptionSupport.exception().isAssignableFrom(exceptionClass)) {
+				candidates.add(extraExceptionSupport);
+				break;
+			}
+		}
+		return List.copyOf(candidates);
+	}
+
+	private static boolean overridesSupports(ExtraExceptionSupport extraExceptionSupport) {
+		try {
+			return extraExceptionSupport.getClass().getMethod("supports", Exception.class).getDeclaringClass() != ExtraExceptionSupport.class;
+		} catch (NoSuchMethodException e) {
+			return true;
+		}
 	}
 
 	@SneakyThrows
-	private R<Object> handleRequestLog(R<Object> response) {
+	private R<Object> handleRequestLog(Exception exception, String handlerName, R<Object> response) {
 		RequestAspectKey requestAspectKey = RequestAspectManager.consumeRequestAspectKey();
-		long costTime = System.currentTimeMillis() - requestAspectKey.getStartTime();
+		long costTime = requestAspectKey == null ? 0 : System.currentTimeMillis() - requestAspectKey.getStartTime();
+		if (webProperty.getRequestAspect().isEnableStats()) {
+			getExceptionStats(exception.getClass(), handlerName).addFail(costTime);
+		}
+		if (requestAspectKey == null) {
+			// 未进入RequestAspectSupport，如参数校验失败、切面未开启
+			return response;
+		}
+		if (slowRequestRecorder != null) {
+			slowRequestRecorder.recordIfSlow(requestAspectKey, 0, costTime, false);
+		}
 		if (webProperty.getRequestAspect().isEnableLog()) {
-			log.info("{} 耗时:[{} ms] 出参:[{}]", requestAspectKey.generateBaseLog(), costTime, objectMapper.writeValueAsString(response));
+			if (accessLogWriter != null) {
+				accessLogWriter.publish(requestAspectKey, costTime, false, response);
+			} else {
+				log.info("{} 耗时:[{} ms] 出参:[{}]", requestAspectKey.generateBaseLog(), costTime, objectMapper.writeValueAsString(response));
+			}
 		}
 		if (webProperty.getRequestAspect().isEnableStats()) {
 			MethodStatsManager.addFail(MethodStatsType.REQUEST.getType(), requestAspectKey.getUniqueKey(), costTime);
 		}
 		return response;
 	}
+
+	private ExceptionClassEntry getExceptionClassEntry(Class<?> exceptionClass) {
+		ExceptionClassEntry entry = exceptionClassMap.get(exceptionClass);
+		if (entry == null) {
+			entry = exceptionClassMap.computeIfAbsent(exceptionClass, k -> new ExceptionClassEntry(resolveCandidates(k)));
+		}
+		return entry;
+	}
+
+	/**
+	 * 按异常类和处理方法统计次数及请求耗时
+	 */
+	private MethodStats getExceptionStats(Class<?> exceptionClass, String handlerName) {
+		Map<String, MethodStats> statsMap = getExceptionClassEntry(exceptionClass).statsMap;
+		MethodStats methodStats = statsMap.get(handlerName);
+		if (methodStats == null) {
+			methodStats = statsMap.computeIfAbsent(handlerName, k -> MethodStatsManager.register(MethodStatsType.EXCEPTION.getType(), exceptionClass.getName() + "|" + handlerName));
+		}
+		return methodStats;
+	}
+
+	/**
+	 * 同一异常类的处理方法通常只有一个，statsMap按处理方法名区分重写了supports的情况
+	 */
+	private static class ExceptionClassEntry {
+		/**
+		 * 可能处理该异常的ExtraExceptionSupport，按列表顺序
+		 */
+		private final List<ExtraExceptionSupport> candidates;
+		/**
+		 * 处理方法名 -> 统计句柄
+		 */
+		private final Map<String, MethodStats> statsMap = new ConcurrentHashMap<>(2);
+
+		private ExceptionClassEntry(List<ExtraExceptionSupport> candidates) {
+			this.candidates = candidates;
+		}
+	}
 }
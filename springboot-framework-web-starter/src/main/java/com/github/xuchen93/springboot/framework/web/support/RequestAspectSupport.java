@@ -1,17 +1,20 @@
 package com.github.xuchen93.springboot.framework.web.support;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.xuchen93.springboot.framework.base.common.BoundedJson;
 import com.github.xuchen93.springboot.framework.base.convention.enums.MethodStatsType;
+import com.github.xuchen93.springboot.framework.base.convention.exception.ConcurrencyLimitException;
 import com.github.xuchen93.springboot.framework.base.support.manager.MethodStatsManager;
+import com.github.xuchen93.springboot.framework.base.support.manager.RequestIdManager;
 import com.github.xuchen93.springboot.framework.web.properties.WebProperty;
 import com.github.xuchen93.springboot.framework.web.support.manager.RequestAspectManager;
+import com.github.xuchen93.springboot.framework.web.support.model.CachedBody;
 import com.github.xuchen93.springboot.framework.web.support.model.RequestAspectKey;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
-import jakarta.servlet.ServletInputStream;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
@@ -22,6 +25,7 @@ import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.stereotype.Component;
@@ -34,13 +38,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -48,7 +47,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 @Aspect
@@ -59,18 +57,43 @@ import java.util.stream.Collectors;
 public class RequestAspectSupport {
 
 	private final WebProperty webProperty;
+	private final ObjectProvider<AccessLogWriter> accessLogWriterProvider;
+	private final ObjectProvider<SlowRequestRecorder> slowRequestRecorderProvider;
+	private final ObjectProvider<ConcurrencyLimitSupport> concurrencyLimitSupportProvider;
+	/**
+	 * 未开启异步访问日志时为null
+	 */
+	private AccessLogWriter accessLogWriter;
+	/**
+	 * 未开启慢请求记录时为null
+	 */
+	private SlowRequestRecorder slowRequestRecorder;
+	/**
+	 * 未开启并发限制时为null
+	 */
+	private ConcurrencyLimitSupport concurrencyLimitSupport;
+
+	private BoundedJson boundedJson;
+
+	@PostConstruct
+	public void init() {
+		accessLogWriter = accessLogWriterProvider.getIfAvailable();
+		slowRequestRecorder = slowRequestRecorderProvider.getIfAvailable();
+		concurrencyLimitSupport = concurrencyLimitSupportProvider.getIfAvailable();
+		boundedJson = new BoundedJson(objectMapper, webProperty.getRequestAspect().getMaxPayloadLength());
+	}
 
 	private ObjectMapper objectMapper = new ObjectMapper()
 			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
 			.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
 			.setSerializationInclusion(JsonInclude.Include.NON_NULL);
 
-	private String getJsonParams(Map<String, String[]> map) throws JsonProcessingException {
+	private Object getJsonParams(Map<String, String[]> map) {
 		Map<String, List<String>> paramsMap = new HashMap<>();
 		for (Map.Entry<String, String[]> entry : map.entrySet()) {
 			paramsMap.put(entry.getKey(), Arrays.stream(entry.getValue()).toList());
 		}
-		return objectMapper.writeValueAsString(paramsMap);
+		return boundedJson.lazy(paramsMap);
 	}
 
 	@Pointcut("execution(* *..controller..*.*(..))")
@@ -80,31 +103,70 @@ public class RequestAspectSupport {
 
 	@Around("controllerPointCut()")
 	public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+		long aspectStartTime = System.currentTimeMillis();
 		ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
 		HttpServletRequest request = attributes.getRequest();
 		String uniqueKey = getUniqueKey(joinPoint);
-		String requestParams;
+		// 先获取许可，被拒绝的请求不解析参数、不输出入参日志
+		ConcurrencyLimitSupport.Permit permit = null;
+		if (concurrencyLimitSupport != null) {
+			try {
+				permit = concurrencyLimitSupport.acquire(uniqueKey);
+			} catch (ConcurrencyLimitException e) {
+				// 由GlobalExceptionAdviceSupport记录日志并返回，只带上路由信息
+				RequestAspectKey rejectedKey = new RequestAspectKey(System.currentTimeMillis(), RequestIdManager.getOrNextId(), getClientIp(request), uniqueKey);
+				rejectedKey.setRequestMethod(request.getMethod());
+				rejectedKey.setRequestUri(request.getRequestURI());
+				request.setAttribute(RequestAspectKey.ATTRIBUTE, rejectedKey);
+				throw e;
+			}
+		}
+		try {
+			return proceed(joinPoint, request, uniqueKey, aspectStartTime);
+		} finally {
+			if (permit != null) {
+				permit.release();
+			}
+		}
+	}
+
+	private Object proceed(ProceedingJoinPoint joinPoint, HttpServletRequest request, String uniqueKey, long aspectStartTime) throws Throwable {
+		Object requestParams;
+		CachedBody cachedBody = (CachedBody) request.getAttribute(CachedBody.ATTRIBUTE);
 		if ("get".equalsIgnoreCase(request.getMethod())) {
 			requestParams = getJsonParams(request.getParameterMap());
+		} else if (cachedBody != null) {
+			// 缓冲区在请求结束后归还复用，上下文可能被异步任务持有，在请求线程中解码
+			requestParams = cachedBody.toString();
 		} else {
-			ServletInputStream inputStream = request.getInputStream();
-			if (inputStream.isFinished()) {//兼容requestBody只能读一次
-				Object[] args = joinPoint.getArgs();
-				List<Object> argsList = Arrays.stream(args).filter(i -> !(i instanceof ServletRequest)).collect(Collectors.toList());
-				requestParams = objectMapper.writeValueAsString(argsList.size() == 1 ? argsList.get(0) : argsList);
-			} else {
-				requestParams = convertInputStreamToString(inputStream);
-			}
+			// 未缓存请求体（过滤器未开启、超过上限或类型不在白名单）时不读取原始流，只输出有长度上限的参数
+			Object[] args = joinPoint.getArgs();
+			List<Object> argsList = Arrays.stream(args).filter(i -> !(i instanceof ServletRequest)).collect(Collectors.toList());
+			requestParams = boundedJson.lazy(argsList.size() == 1 ? argsList.get(0) : argsList);
 		}
-		RequestAspectKey requestAspectKey = RequestAspectManager.setRequestAspectKey(System.currentTimeMillis(), ThreadLocalRandom.current().nextInt(100, 1000), getClientIp(request), uniqueKey);
-		if (webProperty.getRequestAspect().isEnableLog()) {
+		RequestAspectKey requestAspectKey = new RequestAspectKey(System.currentTimeMillis(), RequestIdManager.getOrNextId(), getClientIp(request), uniqueKey);
+		// 异常时作用域已关闭，GlobalExceptionAdviceSupport从request attribute获取
+		request.setAttribute(RequestAspectKey.ATTRIBUTE, requestAspectKey);
+		requestAspectKey.setRequestMethod(request.getMethod());
+		requestAspectKey.setRequestUri(request.getRequestURI());
+		requestAspectKey.setRequestParams(requestParams);
+		boolean enableLog = webProperty.getRequestAspect().isEnableLog();
+		if (enableLog && accessLogWriter == null) {
 			log.info("{}的[{}]请求[{}]入参:[{}]", requestAspectKey.generateBaseLog(), request.getMethod(), request.getRequestURI(), requestParams);
 		}
-		Object result = joinPoint.proceed();
-		RequestAspectManager.clear();
+		Object result;
+		try (RequestAspectManager.Scope ignored = RequestAspectManager.open(requestAspectKey)) {
+			result = joinPoint.proceed();
+		}
+		request.removeAttribute(RequestAspectKey.ATTRIBUTE);
 		long costTime = System.currentTimeMillis() - requestAspectKey.getStartTime();
-		if (webProperty.getRequestAspect().isEnableLog()) {
-			log.info("{} 耗时:[{} ms] 出参:[{}]", requestAspectKey.generateBaseLog(), costTime, objectMapper.writeValueAsString(result));
+		if (slowRequestRecorder != null) {
+			slowRequestRecorder.recordIfSlow(requestAspectKey, requestAspectKey.getStartTime() - aspectStartTime, costTime, true);
+		}
+		if (enableLog && accessLogWriter != null) {
+			accessLogWriter.publish(requestAspectKey, costTime, true, result);
+		} else if (enableLog) {
+			log.info("{} 耗时:[{} ms] 出参:[{}]", requestAspectKey.generateBaseLog(), costTime, boundedJson.lazy(result));
 		}
 		if (webProperty.getRequestAspect().isEnableStats()) {
 			MethodStatsManager.addSuccess(MethodStatsType.REQUEST.getType(), uniqueKey, costTime);
@@ -159,18 +221,6 @@ public class RequestAspectSupport {
 	}
 
 
-	private String convertInputStreamToString(InputStream inputStream) throws IOException {
-		StringBuilder stringBuilder = new StringBuilder();
-		String line;
-		try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
-			while ((line = bufferedReader.readLine()) != null) {
-				stringBuilder.append(line).append("\n");
-			}
-		}
-		return stringBuilder.toString();
-	}
-
-
 	@SneakyThrows
 	@PreDestroy
 	public void perDestory() {
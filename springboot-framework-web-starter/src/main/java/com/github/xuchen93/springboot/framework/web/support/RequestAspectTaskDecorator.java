@@ -0,0 +1,51 @@
+package com.github.xuchen93.springboot.framework.web.support;
+
+import com.github.xuchen93.springboot.framework.web.properties.WebProperty;
+import com.github.xuchen93.springboot.framework.web.support.manager.RequestAspectManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 把请求上下文传递到Spring Boot自动配置的执行器（{@code @Async}、applicationTaskExecutor，包括开启虚拟线程时）
+ * <p>Spring Boot只使用唯一或@Primary的TaskDecorator，因此声明为@Primary，并组合应用中其他的TaskDecorator：
+ * 先按顺序应用其他TaskDecorator，最外层设置上下文，其他TaskDecorator在任务执行时同样能获取到上下文。
+ * 应用已有@Primary的TaskDecorator时应关闭此项，并在自定义实现中调用{@link RequestAspectManager#wrap(Runnable)}
+ */
+@Primary
+@Component
+@ConditionalOnProperty(prefix = WebProperty.PROPERTY_PREFIX, name = "request-aspect.propagate-context", havingValue = "true", matchIfMissing = true)
+public class RequestAspectTaskDecorator implements TaskDecorator {
+
+	private final ObjectProvider<TaskDecorator> taskDecoratorProvider;
+	/**
+	 * 其他的TaskDecorator，首次使用时获取，避免创建过程中的循环依赖
+	 */
+	private volatile List<TaskDecorator> delegates;
+
+	public RequestAspectTaskDecorator(ObjectProvider<TaskDecorator> taskDecoratorProvider) {
+		this.taskDecoratorProvider = taskDecoratorProvider;
+	}
+
+	@Override
+	public Runnable decorate(Runnable runnable) {
+		Runnable decorated = runnable;
+		for (TaskDecorator delegate : getDelegates()) {
+			decorated = delegate.decorate(decorated);
+		}
+		return RequestAspectManager.wrap(decorated);
+	}
+
+	private List<TaskDecorator> getDelegates() {
+		List<TaskDecorator> list = delegates;
+		if (list == null) {
+			list = taskDecoratorProvider.orderedStream().filter(decorator -> decorator != this).toList();
+			delegates = list;
+		}
+		return list;
+	}
+}
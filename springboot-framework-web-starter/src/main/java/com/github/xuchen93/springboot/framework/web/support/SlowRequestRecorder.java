@@ -0,0 +1,95 @@
+package com.github.xuchen93.springboot.framework.web.support;
+
+import com.github.xuchen93.springboot.framework.web.properties.WebProperty;
+import com.github.xuchen93.springboot.framework.web.support.model.RequestAspectKey;
+import com.github.xuchen93.springboot.framework.web.support.model.SlowRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 慢请求记录
+ * <p>耗时未超过阈值的请求只做一次比较；超过阈值时写入环形数组，保留最近capacity条。
+ * 开启recordParams时才序列化入参
+ */
+@Component
+@ConditionalOnProperty(prefix = WebProperty.PROPERTY_PREFIX, name = "request-aspect.slow-request.enable", havingValue = "true")
+public class SlowRequestRecorder {
+
+	private final boolean recordParams;
+	private final long thresholdMillis;
+	private final Map<String, Long> routeThresholdMillis;
+	private final AtomicReferenceArray<SlowRequest> ring;
+	private final AtomicLong sequence = new AtomicLong();
+
+	public SlowRequestRecorder(WebProperty webProperty) {
+		WebProperty.SlowRequestConfig config = webProperty.getRequestAspect().getSlowRequest();
+		this.recordParams = config.isRecordParams();
+		this.thresholdMillis = config.getThresholdMillis();
+		this.routeThresholdMillis = Map.copyOf(config.getRouteThresholdMillis());
+		this.ring = new AtomicReferenceArray<>(Math.max(1, config.getCapacity()));
+	}
+
+	public long getThresholdMillis(String uniqueKey) {
+		if (routeThresholdMillis.isEmpty()) {
+			return thresholdMillis;
+		}
+		return routeThresholdMillis.getOrDefault(uniqueKey, thresholdMillis);
+	}
+
+	/**
+	 * 需在请求线程中调用，入参可能引用请求结束后被复用的缓冲区
+	 */
+	public void recordIfSlow(RequestAspectKey requestAspectKey, long prepareTime, long handleTime, boolean success) {
+		long threshold = getThresholdMillis(requestAspectKey.getUniqueKey());
+		long costTime = prepareTime + handleTime;
+		if (costTime < threshold) {
+			return;
+		}
+		SlowRequest slowRequest = new SlowRequest();
+		slowRequest.setStartTime(requestAspectKey.getStartTime());
+		slowRequest.setRequestId(requestAspectKey.getRequestId());
+		slowRequest.setClientIp(requestAspectKey.getClientIp());
+		slowRequest.setUniqueKey(requestAspectKey.getUniqueKey());
+		slowRequest.setRequestMethod(requestAspectKey.getRequestMethod());
+		slowRequest.setRequestUri(requestAspectKey.getRequestUri());
+		if (recordParams) {
+			slowRequest.setRequestParams(Objects.toString(requestAspectKey.getRequestParams(), null));
+		}
+		slowRequest.setSuccess(success);
+		slowRequest.setThreadName(Thread.currentThread().getName());
+		slowRequest.setThresholdMillis(threshold);
+		slowRequest.setCostTime(costTime);
+		slowRequest.setPrepareTime(prepareTime);
+		slowRequest.setHandleTime(handleTime);
+		ring.set((int) (sequence.getAndIncrement() % ring.length()), slowRequest);
+	}
+
+	/**
+	 * 最近的慢请求，按记录时间倒序
+	 */
+	public List<SlowRequest> getSlowRequests() {
+		long end = sequence.get();
+		long start = Math.max(0, end - ring.length());
+		List<SlowRequest> list = new ArrayList<>((int) (end - start));
+		for (long i = end - 1; i >= start; i--) {
+			SlowRequest slowRequest = ring.get((int) (i % ring.length()));
+			if (slowRequest != null) {
+				list.add(slowRequest);
+			}
+		}
+		return list;
+	}
+
+	public void clear() {
+		for (int i = 0; i < ring.length(); i++) {
+			ring.set(i, null);
+		}
+	}
+}
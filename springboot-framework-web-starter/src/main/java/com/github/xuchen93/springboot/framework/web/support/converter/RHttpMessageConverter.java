@@ -0,0 +1,281 @@
+package com.github.xuchen93.springboot.framework.web.support.converter;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.github.xuchen93.springboot.framework.base.convention.result.R;
+import com.github.xuchen93.springboot.framework.web.properties.WebProperty;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+/**
+ * R的JSON输出
+ * <ul>
+ *     <li>{@link R#isInterned(R)}的共享实例：首次序列化后缓存字节，之后直接写出</li>
+ *     <li>data为元素数不少于streamThreshold的集合：外层R仍由ObjectMapper序列化（命名策略、mixin、自定义序列化器同样生效），
+ *     只有data数组逐个元素写入响应，每flushEvery个元素flush一次，不在内存中拼出整个响应体。
+ *     首次flush后响应已提交，之后序列化失败只能中断响应，客户端收到不完整的JSON；R的子类不逐个元素写出</li>
+ *     <li>其他：与MappingJackson2HttpMessageConverter相同，使用同一个ObjectMapper</li>
+ * </ul>
+ * 开启ETag或压缩时，响应体先序列化到池化的缓冲区：
+ * <ul>
+ *     <li>ETag：对序列化结果计算CRC32C作为弱ETag，与If-None-Match相同时，GET、HEAD请求返回304，其他请求返回412，不输出响应体</li>
+ *     <li>压缩：按Accept-Encoding选择gzip/deflate，不小于compressMinSize时压缩输出</li>
+ * </ul>
+ * 逐个元素写出的大集合不计算ETag，也不经过缓冲区，需要压缩时直接压缩写出
+ */
+public class RHttpMessageConverter extends AbstractHttpMessageConverter<R<?>> {
+
+	private final ObjectMapper objectMapper;
+	private final ObjectWriter envelopeWriter;
+	private final int streamThreshold;
+	private final int flushEvery;
+	private final Map<R<?>, byte[]> internedBytesMap = new ConcurrentHashMap<>();
+
+	private final boolean enableEtag;
+	private final boolean enableCompression;
+	private final int compressMinSize;
+	private final int maxPooledBufferSize;
+	private final ResponseCompressor compressor;
+	private final BlockingQueue<BodyBuffer> bufferPool;
+
+	public RHttpMessageConverter(ObjectMapper objectMapper, WebProperty.Response config) {
+		super(StandardCharsets.UTF_8, MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+		this.objectMapper = objectMapper;
+		this.envelopeWriter = objectMapper.writerFor(R.class);
+		this.streamThreshold = config.getStreamThreshold();
+		this.flushEvery = Math.max(1, config.getFlushEvery());
+		this.enableEtag = config.isEnableEtag();
+		this.enableCompression = config.isEnableCompression();
+		this.compressMinSize = config.getCompressMinSize();
+		this.maxPooledBufferSize = config.getMaxPooledBufferSize();
+		this.compressor = enableCompression ? new ResponseCompressor(config.getCompressionLevel(), config.getPoolSize()) : null;
+		this.bufferPool = new ArrayBlockingQueue<>(Math.max(1, config.getPoolSize()));
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return R.class.isAssignableFrom(clazz);
+	}
+
+	@Override
+	public boolean canRead(Class<?> clazz, MediaType mediaType) {
+		return false;
+	}
+
+	@Override
+	protected R<?> readInternal(Class<? extends R<?>> clazz, HttpInputMessage inputMessage) {
+		throw new HttpMessageNotReadableException("RHttpMessageConverter只用于输出", inputMessage);
+	}
+
+	@Override
+	protected Long getContentLength(R<?> r, MediaType contentType) {
+		if (R.isInterned(r) && !enableEtag && !enableCompression) {
+			return (long) getInternedBytes(r).length;
+		}
+		return null;
+	}
+
+	@Override
+	protected void writeInternal(R<?> r, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+		ServletRequestAttributes attributes = getRequestAttributes();
+		if ((!enableEtag && !enableCompression) || attributes == null) {
+			writeBody(r, StreamUtils.nonClosing(outputMessage.getBody()));
+			return;
+		}
+		HttpHeaders headers = outputMessage.getHeaders();
+		ResponseCompressor.Encoding encoding = enableCompression
+				? compressor.negotiate(attributes.getRequest().getHeader(HttpHeaders.ACCEPT_ENCODING))
+				: null;
+		if (enableCompression) {
+			headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		}
+		if (isStreaming(r)) {
+			if (encoding != null) {
+				headers.set(HttpHeaders.CONTENT_ENCODING, encoding.getValue());
+				try (OutputStream outputStream = compressor.compress(StreamUtils.nonClosing(outputMessage.getBody()), encoding)) {
+					writeBody(r, outputStream);
+				}
+			} else {
+				writeBody(r, StreamUtils.nonClosing(outputMessage.getBody()));
+			}
+			return;
+		}
+		BodyBuffer buffer = borrowBuffer();
+		try {
+			writeBody(r, buffer);
+			if (enableEtag) {
+				String etag = computeEtag(buffer);
+				headers.setETag(etag);
+				HttpServletRequest request = attributes.getRequest();
+				if (outputMessage instanceof ServerHttpResponse response
+						&& matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+					// RFC 9110 13.1.2：只有GET、HEAD返回304
+					boolean safe = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+					response.setStatusCode(safe ? HttpStatus.NOT_MODIFIED : HttpStatus.PRECONDITION_FAILED);
+					headers.remove(HttpHeaders.CONTENT_TYPE);
+					return;
+				}
+			}
+			if (encoding != null && buffer.size() >= compressMinSize) {
+				headers.set(HttpHeaders.CONTENT_ENCODING, encoding.getValue());
+				try (OutputStream outputStream = compressor.compress(StreamUtils.nonClosing(outputMessage.getBody()), encoding)) {
+					outputStream.write(buffer.getBuffer(), 0, buffer.size());
+				}
+			} else {
+				headers.setContentLength(buffer.size());
+				outputMessage.getBody().write(buffer.getBuffer(), 0, buffer.size());
+			}
+		} finally {
+			returnBuffer(buffer);
+		}
+	}
+
+	public byte[] getInternedBytes(R<?> r) {
+		return internedBytesMap.computeIfAbsent(r, key -> {
+			try {
+				return objectMapper.writeValueAsBytes(key);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	private void writeBody(R<?> r, OutputStream outputStream) throws IOException {
+		if (R.isInterned(r)) {
+			outputStream.write(getInternedBytes(r));
+		} else if (isStreaming(r)) {
+			writeStreaming(r, (Collection<?>) r.getData(), outputStream);
+		} else {
+			try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+				objectMapper.writeValue(generator, r);
+			}
+		}
+	}
+
+	private boolean isStreaming(R<?> r) {
+		return r.getClass() == R.class && r.getData() instanceof Collection<?> collection && collection.size() >= streamThreshold;
+	}
+
+	/**
+	 * 用新的R包装原返回值，data替换为{@link StreamingData}，外层仍由ObjectMapper序列化，不修改原返回值
+	 */
+	private void writeStreaming(R<?> r, Collection<?> collection, OutputStream outputStream) throws IOException {
+		R<Object> envelope = new R<>();
+		envelope.setCode(r.getCode());
+		envelope.setMsg(r.getMsg());
+		envelope.setData(new StreamingData(collection, flushEvery));
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+			envelopeWriter.writeValue(generator, envelope);
+		}
+	}
+
+	/**
+	 * 逐个元素写出集合，元素按ObjectMapper的配置序列化，每flushEvery个元素flush一次
+	 */
+	private record StreamingData(Collection<?> collection, int flushEvery) implements JsonSerializable {
+
+		@Override
+		public void serialize(JsonGenerator generator, SerializerProvider provider) throws IOException {
+			generator.writeStartArray(collection, collection.size());
+			int count = 0;
+			for (Object element : collection) {
+				provider.defaultSerializeValue(element, generator);
+				if (++count % flushEvery == 0) {
+					generator.flush();
+				}
+			}
+			generator.writeEndArray();
+		}
+
+		@Override
+		public void serializeWithType(JsonGenerator generator, SerializerProvider provider, TypeSerializer typeSerializer) throws IOException {
+			serialize(generator, provider);
+		}
+	}
+
+	private static String computeEtag(BodyBuffer buffer) {
+		CRC32C crc = new CRC32C();
+		crc.update(buffer.getBuffer(), 0, buffer.size());
+		return "W/\"" + Integer.toHexString(buffer.size()) + "-" + Long.toHexString(crc.getValue()) + "\"";
+	}
+
+	/**
+	 * 弱比较，忽略W/前缀
+	 */
+	private static boolean matches(String ifNoneMatch, String etag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		String opaqueTag = etag.substring(2);
+		for (String tag : ifNoneMatch.split(",")) {
+			tag = tag.trim();
+			if (tag.startsWith("W/")) {
+				tag = tag.substring(2);
+			}
+			if (tag.equals(opaqueTag) || tag.equals("*")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static ServletRequestAttributes getRequestAttributes() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		return attributes instanceof ServletRequestAttributes servletRequestAttributes ? servletRequestAttributes : null;
+	}
+
+	private BodyBuffer borrowBuffer() {
+		BodyBuffer buffer = bufferPool.poll();
+		return buffer != null ? buffer : new BodyBuffer();
+	}
+
+	/**
+	 * 超过maxPooledBufferSize的缓冲区不归还，避免个别大响应长期占用内存
+	 */
+	private void returnBuffer(BodyBuffer buffer) {
+		if (buffer.getBuffer().length <= maxPooledBufferSize) {
+			buffer.reset();
+			bufferPool.offer(buffer);
+		}
+	}
+
+	private static final class BodyBuffer extends ByteArrayOutputStream {
+		private BodyBuffer() {
+			super(8192);
+		}
+
+		private byte[] getBuffer() {
+			return buf;
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package com.github.xuchen93.springboot.framework.web.support.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.xuchen93.springboot.framework.web.properties.WebProperty;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * 把{@link RHttpMessageConverter}注册为第一个转换器，使用Spring MVC的ObjectMapper
+ * <p>会接管所有R返回值的序列化，默认关闭，通过response.enable-fast-path开启
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = WebProperty.PROPERTY_PREFIX, name = "response.enable-fast-path", havingValue = "true")
+public class RHttpMessageConverterConfigurer implements WebMvcConfigurer {
+
+	private final WebProperty webProperty;
+	private final ObjectMapper objectMapper;
+
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		converters.add(0, new RHttpMessageConverter(objectMapper, webProperty.getResponse()));
+	}
+}
@@ -0,0 +1,197 @@
+package com.github.xuchen93.springboot.framework.web.support.converter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * gzip/deflate压缩
+ * <p>Deflater（本地内存）和输出缓冲区按编码池化复用，池空时新建，池满时直接释放
+ */
+public class ResponseCompressor {
+
+	private static final int BUFFER_SIZE = 8192;
+	private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+	private final int level;
+	private final BlockingQueue<Compressor> gzipPool;
+	private final BlockingQueue<Compressor> deflatePool;
+
+	public ResponseCompressor(int level, int poolSize) {
+		this.level = level;
+		this.gzipPool = new ArrayBlockingQueue<>(Math.max(1, poolSize));
+		this.deflatePool = new ArrayBlockingQueue<>(Math.max(1, poolSize));
+	}
+
+	public enum Encoding {
+		GZIP("gzip"),
+		DEFLATE("deflate");
+
+		private final String value;
+
+		Encoding(String value) {
+			this.value = value;
+		}
+
+		public String getValue() {
+			return value;
+		}
+	}
+
+	/**
+	 * 按Accept-Encoding选择编码，优先gzip，q=0的编码不使用
+	 *
+	 * @return 不支持压缩时为null
+	 */
+	public Encoding negotiate(String acceptEncoding) {
+		if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+			return null;
+		}
+		boolean deflate = false;
+		for (String token : acceptEncoding.split(",")) {
+			String[] parts = token.trim().split(";");
+			String coding = parts[0].trim();
+			if (parts.length > 1 && isZeroQuality(parts[1])) {
+				continue;
+			}
+			if ("gzip".equalsIgnoreCase(coding) || "*".equals(coding)) {
+				return Encoding.GZIP;
+			}
+			if ("deflate".equalsIgnoreCase(coding)) {
+				deflate = true;
+			}
+		}
+		return deflate ? Encoding.DEFLATE : null;
+	}
+
+	/**
+	 * q=0、q=0.0等表示不接受该编码，格式错误时视为接受
+	 */
+	private static boolean isZeroQuality(String param) {
+		int index = param.indexOf('=');
+		if (index < 0 || !"q".equalsIgnoreCase(param.substring(0, index).trim())) {
+			return false;
+		}
+		try {
+			return Double.parseDouble(param.substring(index + 1).trim()) == 0;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * 返回的流关闭时写完压缩数据并归还Deflater，不关闭out
+	 */
+	public OutputStream compress(OutputStream out, Encoding encoding) throws IOException {
+		boolean gzip = encoding == Encoding.GZIP;
+		BlockingQueue<Compressor> pool = gzip ? gzipPool : deflatePool;
+		Compressor compressor = pool.poll();
+		if (compressor == null) {
+			// gzip使用不带zlib头的原始deflate数据，头和尾手动写入
+			compressor = new Compressor(new Deflater(level, gzip));
+		}
+		if (gzip) {
+			out.write(GZIP_HEADER);
+		}
+		return new CompressingOutputStream(out, compressor, pool, gzip);
+	}
+
+	private static final class Compressor {
+		private final Deflater deflater;
+		private final byte[] buffer = new byte[BUFFER_SIZE];
+		private final CRC32 crc = new CRC32();
+
+		private Compressor(Deflater deflater) {
+			this.deflater = deflater;
+		}
+	}
+
+	private static final class CompressingOutputStream extends OutputStream {
+		private final OutputStream out;
+		private final Compressor compressor;
+		private final BlockingQueue<Compressor> pool;
+		private final boolean gzip;
+		private boolean closed;
+
+		private CompressingOutputStream(OutputStream out, Compressor compressor, BlockingQueue<Compressor> pool, boolean gzip) {
+			this.out = out;
+			this.compressor = compressor;
+			this.pool = pool;
+			this.gzip = gzip;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[]{(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return;
+			}
+			if (gzip) {
+				compressor.crc.update(b, off, len);
+			}
+			Deflater deflater = compressor.deflater;
+			deflater.setInput(b, off, len);
+			while (!deflater.needsInput()) {
+				deflate(Deflater.NO_FLUSH);
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			int length;
+			do {
+				length = deflate(Deflater.SYNC_FLUSH);
+			} while (length == compressor.buffer.length);
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			Deflater deflater = compressor.deflater;
+			try {
+				deflater.finish();
+				while (!deflater.finished()) {
+					deflate(Deflater.NO_FLUSH);
+				}
+				if (gzip) {
+					writeIntLe((int) compressor.crc.getValue());
+					writeIntLe((int) deflater.getBytesRead());
+				}
+				out.flush();
+			} finally {
+				deflater.reset();
+				compressor.crc.reset();
+				if (!pool.offer(compressor)) {
+					deflater.end();
+				}
+			}
+		}
+
+		private int deflate(int flush) throws IOException {
+			byte[] buffer = compressor.buffer;
+			int length = compressor.deflater.deflate(buffer, 0, buffer.length, flush);
+			if (length > 0) {
+				out.write(buffer, 0, length);
+			}
+			return length;
+		}
+
+		private void writeIntLe(int value) throws IOException {
+			out.write(value & 0xff);
+			out.write((value >> 8) & 0xff);
+			out.write((value >> 16) & 0xff);
+			out.write((value >> 24) & 0xff);
+		}
+	}
+}
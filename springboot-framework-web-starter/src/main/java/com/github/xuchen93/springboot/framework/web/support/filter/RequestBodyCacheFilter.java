@@ -0,0 +1,212 @@
+package com.github.xuchen93.springboot.framework.web.support.filter;
+
+import com.github.xuchen93.springboot.framework.web.properties.WebProperty;
+import com.github.xuchen93.springboot.framework.web.support.model.CachedBody;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 请求体缓存过滤器
+ * <p>Content-Type在白名单内、长度已知且不超过上限的请求体，读取一次到池化的缓冲区，
+ * controller从缓冲区重新读取，请求日志在请求线程中把{@link CachedBody}解码为字符串，不再读取原始流。
+ * <p>池中最多poolSize个maxBodySize大小的缓冲区，池已分配满时按Content-Length分配临时缓冲区，用完不归还；
+ * 请求结束后缓冲区归还到池中，异步请求无法确定结束时间，缓冲区不归还
+ * <p>会替换请求的输入流，默认关闭，通过request-aspect.body-cache.enable开启
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 100)
+@ConditionalOnProperty(prefix = WebProperty.PROPERTY_PREFIX, name = "request-aspect.body-cache.enable", havingValue = "true")
+public class RequestBodyCacheFilter extends OncePerRequestFilter {
+
+	private final int maxBodySize;
+	private final List<MediaType> contentTypes;
+	private final int poolSize;
+	private final BlockingQueue<byte[]> bufferPool;
+	/**
+	 * 已分配的池化缓冲区数量
+	 */
+	private final AtomicInteger pooledCount = new AtomicInteger();
+
+	public RequestBodyCacheFilter(WebProperty webProperty) {
+		WebProperty.BodyCache config = webProperty.getRequestAspect().getBodyCache();
+		this.maxBodySize = config.getMaxBodySize();
+		this.contentTypes = config.getContentTypes().stream().map(MediaType::parseMediaType).toList();
+		this.poolSize = Math.max(1, config.getPoolSize());
+		this.bufferPool = new ArrayBlockingQueue<>(poolSize);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+		if (!shouldCache(request)) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+		int contentLength = (int) request.getContentLengthLong();
+		byte[] buffer = borrowBuffer(contentLength);
+		CachedBody cachedBody = new CachedBody(buffer, readBody(request.getInputStream(), buffer, contentLength), getCharset(request));
+		request.setAttribute(CachedBody.ATTRIBUTE, cachedBody);
+		try {
+			filterChain.doFilter(new CachedBodyRequestWrapper(request, cachedBody), response);
+		} finally {
+			request.removeAttribute(CachedBody.ATTRIBUTE);
+			if (buffer.length == maxBodySize && !request.isAsyncStarted()) {
+				bufferPool.offer(buffer);
+			}
+		}
+	}
+
+	private boolean shouldCache(HttpServletRequest request) {
+		long contentLength = request.getContentLengthLong();
+		if (contentLength <= 0 || contentLength > maxBodySize || request.getContentType() == null) {
+			return false;
+		}
+		try {
+			MediaType mediaType = MediaType.parseMediaType(request.getContentType());
+			return contentTypes.stream().anyMatch(contentType -> contentType.includes(mediaType));
+		} catch (InvalidMediaTypeException e) {
+			return false;
+		}
+	}
+
+	private byte[] borrowBuffer(int contentLength) {
+		byte[] buffer = bufferPool.poll();
+		if (buffer != null) {
+			return buffer;
+		}
+		// 异步请求未归还的缓冲区不计入，池中的缓冲区可能少于poolSize，不影响正确性
+		if (pooledCount.get() < poolSize && pooledCount.incrementAndGet() <= poolSize) {
+			return new byte[maxBodySize];
+		}
+		return new byte[contentLength];
+	}
+
+	/**
+	 * 按Content-Length读取，客户端提前断开时返回实际读取的长度
+	 */
+	private static int readBody(InputStream inputStream, byte[] buffer, int contentLength) throws IOException {
+		int length = 0;
+		while (length < contentLength) {
+			int read = inputStream.read(buffer, length, contentLength - length);
+			if (read < 0) {
+				break;
+			}
+			length += read;
+		}
+		return length;
+	}
+
+	/**
+	 * 客户端传入不支持或非法的charset时按UTF-8处理，不中断请求
+	 */
+	private static Charset getCharset(HttpServletRequest request) {
+		String encoding = request.getCharacterEncoding();
+		if (encoding == null) {
+			return StandardCharsets.UTF_8;
+		}
+		try {
+			return Charset.forName(encoding);
+		} catch (IllegalArgumentException e) {
+			log.debug("不支持的请求体编码[{}]，按UTF-8处理", encoding);
+			return StandardCharsets.UTF_8;
+		}
+	}
+
+	private static class CachedBodyRequestWrapper extends HttpServletRequestWrapper {
+		private final CachedBody cachedBody;
+
+		private CachedBodyRequestWrapper(HttpServletRequest request, CachedBody cachedBody) {
+			super(request);
+			this.cachedBody = cachedBody;
+		}
+
+		@Override
+		public ServletInputStream getInputStream() {
+			return new CachedBodyInputStream(cachedBody);
+		}
+
+		@Override
+		public BufferedReader getReader() {
+			return new BufferedReader(new InputStreamReader(getInputStream(), cachedBody.getCharset()));
+		}
+	}
+
+	private static class CachedBodyInputStream extends ServletInputStream {
+		private final byte[] buffer;
+		private final int length;
+		private int position;
+
+		private CachedBodyInputStream(CachedBody cachedBody) {
+			this.buffer = cachedBody.getBuffer();
+			this.length = cachedBody.getLength();
+		}
+
+		@Override
+		public int read() {
+			return position < length ? buffer[position++] & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (position >= length) {
+				return -1;
+			}
+			int count = Math.min(len, length - position);
+			System.arraycopy(buffer, position, b, off, count);
+			position += count;
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return length - position;
+		}
+
+		@Override
+		public boolean isFinished() {
+			return position >= length;
+		}
+
+		@Override
+		public boolean isReady() {
+			return true;
+		}
+
+		/**
+		 * 数据已全部在内存中，立即通知可读和读取完毕
+		 */
+		@Override
+		public void setReadListener(ReadListener readListener) {
+			try {
+				readListener.onDataAvailable();
+				readListener.onAllDataRead();
+			} catch (IOException e) {
+				readListener.onError(e);
+			}
+		}
+	}
+}
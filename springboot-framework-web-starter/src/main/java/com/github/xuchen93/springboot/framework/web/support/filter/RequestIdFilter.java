@@ -0,0 +1,83 @@
+package com.github.xuchen93.springboot.framework.web.support.filter;
+
+import com.github.xuchen93.springboot.framework.base.support.manager.RequestIdManager;
+import com.github.xuchen93.springboot.framework.web.properties.WebProperty;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 请求ID过滤器
+ * <p>每个请求生成一次ID（或沿用上游传入的ID），写入MDC、request attribute和响应头，请求结束后从MDC移除
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(prefix = WebProperty.PROPERTY_PREFIX, name = "request-id.enable", havingValue = "true", matchIfMissing = true)
+public class RequestIdFilter extends OncePerRequestFilter {
+	/**
+	 * 保存在request attribute中的名称
+	 */
+	public static final String ATTRIBUTE = RequestIdFilter.class.getName() + ".requestId";
+
+	private final String headerName;
+	private final boolean trustIncoming;
+	private final int maxIncomingLength;
+
+	public RequestIdFilter(WebProperty webProperty) {
+		WebProperty.RequestId config = webProperty.getRequestId();
+		this.headerName = config.getHeaderName();
+		this.trustIncoming = config.isTrustIncoming();
+		this.maxIncomingLength = config.getMaxIncomingLength();
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+		String requestId = getIncomingId(request);
+		if (requestId == null) {
+			requestId = RequestIdManager.nextId();
+		}
+		request.setAttribute(ATTRIBUTE, requestId);
+		response.setHeader(headerName, requestId);
+		RequestIdManager.setRequestId(requestId);
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			RequestIdManager.clear();
+		}
+	}
+
+	/**
+	 * 异步请求再次分派时沿用第一次的ID
+	 */
+	@Override
+	protected boolean shouldNotFilterAsyncDispatch() {
+		return false;
+	}
+
+	private String getIncomingId(HttpServletRequest request) {
+		String requestId = (String) request.getAttribute(ATTRIBUTE);
+		if (requestId != null || !trustIncoming) {
+			return requestId;
+		}
+		requestId = request.getHeader(headerName);
+		if (requestId == null || requestId.isEmpty() || requestId.length() > maxIncomingLength) {
+			return null;
+		}
+		for (int i = 0; i < requestId.length(); i++) {
+			char c = requestId.charAt(i);
+			// 只接受可安全输出到日志和响应头的字符
+			if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '-' || c == '_' || c == '.')) {
+				return null;
+			}
+		}
+		return requestId;
+	}
+}
@@ -1,27 +1,149 @@
 package com.github.xuchen93.springboot.framework.web.support.manager;
 
+import com.github.xuchen93.springboot.framework.base.support.manager.RequestIdManager;
 import com.github.xuchen93.springboot.framework.web.support.model.RequestAspectKey;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * 请求上下文
+ * <p>上下文只在{@link #open(RequestAspectKey)}返回的作用域内有效，关闭时恢复为之前的值，线程（包括复用的平台线程和虚拟线程）
+ * 不会残留上一个请求的上下文；作用域内MDC中的请求ID同步为上下文的requestId。切换线程时不会自动继承，需通过{@link #wrap}包装任务或执行器，
+ * {@code @Async}等Spring执行器由{@link com.github.xuchen93.springboot.framework.web.support.RequestAspectTaskDecorator}处理。
+ * <p>作用域关闭后（如异常交由GlobalExceptionAdviceSupport处理时），仍可通过request attribute获取
+ */
 public class RequestAspectManager {
+	/**
+	 * @deprecated 直接读写不会恢复之前的值，也不同步MDC中的请求ID，请使用{@link #open(RequestAspectKey)}和{@link #getRequestAspectKey()}
+	 */
+	@Deprecated
 	public static final ThreadLocal<RequestAspectKey> REQUEST_ASPECT_KEY = new ThreadLocal<>();
 
+	/**
+	 * 当前线程的上下文，不在作用域内时从当前请求的attribute获取，都没有时为null
+	 */
+	public static RequestAspectKey getRequestAspectKey() {
+		RequestAspectKey requestAspectKey = REQUEST_ASPECT_KEY.get();
+		if (requestAspectKey == null) {
+			RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+			if (attributes != null) {
+				requestAspectKey = (RequestAspectKey) attributes.getAttribute(RequestAspectKey.ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+			}
+		}
+		return requestAspectKey;
+	}
+
+	/**
+	 * 获取上下文并从当前请求的attribute中移除，保证每个请求只被记录一次
+	 */
 	public static RequestAspectKey consumeRequestAspectKey() {
-		RequestAspectKey aspectKey = REQUEST_ASPECT_KEY.get();
-		clear();
-		return aspectKey;
+		RequestAspectKey requestAspectKey = getRequestAspectKey();
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (attributes != null) {
+			attributes.removeAttribute(RequestAspectKey.ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+		}
+		return requestAspectKey;
 	}
 
+	/**
+	 * 在当前线程设置上下文，须在finally或try-with-resources中关闭
+	 *
+	 * @param requestAspectKey 为null时表示作用域内没有上下文
+	 */
+	public static Scope open(RequestAspectKey requestAspectKey) {
+		Scope scope = new Scope(REQUEST_ASPECT_KEY.get(), RequestIdManager.getRequestId());
+		set(requestAspectKey);
+		RequestIdManager.setRequestId(requestAspectKey == null ? null : requestAspectKey.getRequestId());
+		return scope;
+	}
+
+	/**
+	 * @deprecated 须自行调用{@link #clear()}，请使用{@link #open(RequestAspectKey)}
+	 */
+	@Deprecated
 	public static void setRequestAspectKey(RequestAspectKey requestAspectKey) {
-		RequestAspectManager.REQUEST_ASPECT_KEY.set(requestAspectKey);
+		set(requestAspectKey);
 	}
 
+	/**
+	 * @param salt 与startTime组成requestId
+	 * @deprecated 须自行调用{@link #clear()}，请使用{@link #open(RequestAspectKey)}
+	 */
+	@Deprecated
 	public static RequestAspectKey setRequestAspectKey(long startTime, int salt, String clientIp, String uniqueKey) {
-		RequestAspectKey requestAspectKey = new RequestAspectKey(startTime, salt, clientIp, uniqueKey);
-		REQUEST_ASPECT_KEY.set(requestAspectKey);
+		RequestAspectKey requestAspectKey = new RequestAspectKey(startTime, startTime + "-" + salt, clientIp, uniqueKey);
+		set(requestAspectKey);
 		return requestAspectKey;
 	}
 
+	public static Runnable wrap(Runnable runnable) {
+		RequestAspectKey captured = REQUEST_ASPECT_KEY.get();
+		return () -> {
+			try (Scope ignored = open(captured)) {
+				runnable.run();
+			}
+		};
+	}
+
+	public static <T> Callable<T> wrap(Callable<T> callable) {
+		RequestAspectKey captured = REQUEST_ASPECT_KEY.get();
+		return () -> {
+			try (Scope ignored = open(captured)) {
+				return callable.call();
+			}
+		};
+	}
+
+	public static <T> Supplier<T> wrap(Supplier<T> supplier) {
+		RequestAspectKey captured = REQUEST_ASPECT_KEY.get();
+		return () -> {
+			try (Scope ignored = open(captured)) {
+				return supplier.get();
+			}
+		};
+	}
+
+	/**
+	 * 包装执行器，提交任务时捕获提交线程的上下文。
+	 * 传给{@link java.util.concurrent.CompletableFuture}的*Async方法后，各阶段都能获取到上下文
+	 */
+	public static Executor wrap(Executor executor) {
+		return command -> executor.execute(wrap(command));
+	}
+
 	public static void clear() {
 		REQUEST_ASPECT_KEY.remove();
 	}
+
+	private static void set(RequestAspectKey requestAspectKey) {
+		if (requestAspectKey == null) {
+			REQUEST_ASPECT_KEY.remove();
+		} else {
+			REQUEST_ASPECT_KEY.set(requestAspectKey);
+		}
+	}
+
+	public static final class Scope implements AutoCloseable {
+		private final RequestAspectKey previous;
+		private final String previousRequestId;
+		private boolean closed;
+
+		private Scope(RequestAspectKey previous, String previousRequestId) {
+			this.previous = previous;
+			this.previousRequestId = previousRequestId;
+		}
+
+		@Override
+		public void close() {
+			if (!closed) {
+				closed = true;
+				set(previous);
+				RequestIdManager.setRequestId(previousRequestId);
+			}
+		}
+	}
 }
@@ -0,0 +1,35 @@
+package com.github.xuchen93.springboot.framework.web.support.model;
+
+import lombok.Getter;
+
+import java.nio.charset.Charset;
+
+/**
+ * 过滤器缓存的请求体，buffer来自缓冲区池，请求结束后归还，不能在请求线程之外持有，
+ * 需要保留时在请求线程中解码（见RequestAspectSupport）
+ */
+@Getter
+public class CachedBody {
+	/**
+	 * 保存在request attribute中的名称
+	 */
+	public static final String ATTRIBUTE = CachedBody.class.getName();
+
+	private final byte[] buffer;
+	private final int length;
+	private final Charset charset;
+
+	public CachedBody(byte[] buffer, int length, Charset charset) {
+		this.buffer = buffer;
+		this.length = length;
+		this.charset = charset;
+	}
+
+	/**
+	 * 解码为字符串，只能在请求线程中调用
+	 */
+	@Override
+	public String toString() {
+		return new String(buffer, 0, length, charset);
+	}
+}
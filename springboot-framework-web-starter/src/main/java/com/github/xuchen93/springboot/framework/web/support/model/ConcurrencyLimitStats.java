@@ -0,0 +1,29 @@
+package com.github.xuchen93.springboot.framework.web.support.model;
+
+import lombok.Data;
+
+/**
+ * 单个路由的并发限制情况
+ */
+@Data
+public class ConcurrencyLimitStats {
+	private String uniqueKey;
+	private String algorithm;
+	/**
+	 * 当前并发上限，自适应算法下随延迟变化
+	 */
+	private int limit;
+	private int maxLimit;
+	private int inFlight;
+	/**
+	 * 正在排队等待的请求数
+	 */
+	private int waiting;
+	private long acceptedCount;
+	private long rejectedCount;
+	/**
+	 * 自适应算法的长期/短期平均耗时(ms)，固定上限时为0
+	 */
+	private double longRttMillis;
+	private double shortRttMillis;
+}
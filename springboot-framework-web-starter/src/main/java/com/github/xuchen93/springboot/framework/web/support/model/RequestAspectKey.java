@@ -1,19 +1,82 @@
 package com.github.xuchen93.springboot.framework.web.support.model;
 
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
 public class RequestAspectKey {
+	/**
+	 * 保存在request attribute中的名称
+	 */
+	public static final String ATTRIBUTE = RequestAspectKey.class.getName();
+
 	private long startTime;
-	private int salt;
+	private String requestId;
 	private String clientIp;
 	private String uniqueKey;
+	/**
+	 * 以下为请求信息，供访问日志、慢请求记录使用
+	 */
+	private String requestMethod;
+	private String requestUri;
+	/**
+	 * 可能是延迟序列化的对象或引用请求体缓冲区，请求结束后使用需先转为字符串
+	 */
+	private Object requestParams;
+
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	@ToString.Exclude
+	@EqualsAndHashCode.Exclude
+	private String baseLog;
+
+	public RequestAspectKey(long startTime, String requestId, String clientIp, String uniqueKey) {
+		this.startTime = startTime;
+		this.requestId = requestId;
+		this.clientIp = clientIp;
+		this.uniqueKey = uniqueKey;
+	}
+
+	/**
+	 * 以startTime + "-" + salt作为requestId，与旧版本的日志格式一致
+	 *
+	 * @deprecated 使用{@link #RequestAspectKey(long, String, String, String)}，requestId由RequestIdManager生成
+	 */
+	@Deprecated
+	public RequestAspectKey(long startTime, int salt, String clientIp, String uniqueKey) {
+		this(startTime, startTime + "-" + salt, clientIp, uniqueKey);
+	}
+
+	/**
+	 * @deprecated 已由requestId代替，返回requestId的hashCode
+	 */
+	@Deprecated
+	public int getSalt() {
+		return requestId == null ? 0 : requestId.hashCode();
+	}
+
+	/**
+	 * @deprecated 已由requestId代替，requestId设置为startTime + "-" + salt
+	 */
+	@Deprecated
+	public void setSalt(int salt) {
+		this.requestId = startTime + "-" + salt;
+		this.baseLog = null;
+	}
 
+	/**
+	 * 每个请求只拼接一次
+	 */
 	public String generateBaseLog() {
-		return "[" + startTime + "-" + salt + "-" + clientIp + "]";
+		if (baseLog == null) {
+			baseLog = "[" + requestId + "-" + clientIp + "]";
+		}
+		return baseLog;
 	}
 }
@@ -0,0 +1,35 @@
+package com.github.xuchen93.springboot.framework.web.support.model;
+
+import lombok.Data;
+
+/**
+ * 慢请求快照
+ */
+@Data
+public class SlowRequest {
+	private long startTime;
+	private String requestId;
+	private String clientIp;
+	private String uniqueKey;
+	private String requestMethod;
+	private String requestUri;
+	/**
+	 * 开启slow-request.record-params时才记录
+	 */
+	private String requestParams;
+	private boolean success;
+	private String threadName;
+	private long thresholdMillis;
+	/**
+	 * 总耗时(ms) = prepareTime + handleTime
+	 */
+	private long costTime;
+	/**
+	 * 切面等待并发许可及解析请求参数的耗时(ms)，异常请求为0
+	 */
+	private long prepareTime;
+	/**
+	 * controller处理的耗时(ms)，异常请求包含异常处理
+	 */
+	private long handleTime;
+}